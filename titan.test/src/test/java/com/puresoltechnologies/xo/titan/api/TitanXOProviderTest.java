@@ -1,10 +1,15 @@
 package com.puresoltechnologies.xo.titan.api;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Properties;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -12,6 +17,11 @@ import org.mockito.Mockito;
 
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.buschmais.xo.spi.datastore.Datastore;
+import com.puresoltechnologies.xo.titan.impl.TitanBerkeleyJEStore;
+import com.puresoltechnologies.xo.titan.impl.TitanCassandraStore;
+import com.puresoltechnologies.xo.titan.impl.TitanHBaseStore;
+import com.puresoltechnologies.xo.titan.impl.TitanInMemoryStore;
 
 public class TitanXOProviderTest {
 
@@ -41,4 +51,63 @@ public class TitanXOProviderTest {
 		when(xoUnit.getUri()).thenReturn(uri);
 		titanXOProvider.createDatastore(xoUnit);
 	}
+
+	private Datastore<?, ?, ?, ?, ?> createDatastore(String uri)
+			throws URISyntaxException {
+		XOUnit xoUnit = mock(XOUnit.class);
+		when(xoUnit.getUri()).thenReturn(new URI(uri));
+		when(xoUnit.getProperties()).thenReturn(new Properties());
+		return titanXOProvider.createDatastore(xoUnit);
+	}
+
+	@Test
+	public void testCassandra() throws URISyntaxException {
+		Datastore<?, ?, ?, ?, ?> datastore = createDatastore("titan-cassandra://localhost:9160/keyspace");
+		assertThat(datastore, instanceOf(TitanCassandraStore.class));
+		assertThat(((TitanCassandraStore) datastore).getKeyspace(),
+				is("keyspace"));
+	}
+
+	@Test
+	public void testHBase() throws URISyntaxException {
+		Datastore<?, ?, ?, ?, ?> datastore = createDatastore("titan-hbase://localhost:2181/table");
+		assertThat(datastore, instanceOf(TitanHBaseStore.class));
+		TitanHBaseStore store = (TitanHBaseStore) datastore;
+		assertThat(store.getHost(), is("localhost"));
+		assertThat(store.getPort(), is(2181));
+		assertThat(store.getTable(), is("table"));
+		assertThat(store.getStorageBackend(), is("hbase"));
+	}
+
+	@Test
+	public void testHBaseDefaultTable() throws URISyntaxException {
+		TitanHBaseStore store = (TitanHBaseStore) createDatastore("titan-hbase://localhost");
+		assertThat(store.getTable(), is(TitanHBaseStore.DEFAULT_TITAN_TABLE));
+	}
+
+	@Test
+	public void testBerkeleyJE() throws URISyntaxException {
+		Datastore<?, ?, ?, ?, ?> datastore = createDatastore("titan-berkeleyje:///tmp/titan");
+		assertThat(datastore, instanceOf(TitanBerkeleyJEStore.class));
+		assertThat(((TitanBerkeleyJEStore) datastore).getDirectory(),
+				is(new File("/tmp/titan")));
+	}
+
+	@Test(expected = XOException.class)
+	public void testBerkeleyJEWithoutDirectory() throws URISyntaxException {
+		createDatastore("titan-berkeleyje:///");
+	}
+
+	@Test
+	public void testInMemory() throws URISyntaxException {
+		Datastore<?, ?, ?, ?, ?> datastore = createDatastore("titan-inmemory:///");
+		assertThat(datastore, instanceOf(TitanInMemoryStore.class));
+		assertThat(((TitanInMemoryStore) datastore).getStorageBackend(),
+				is("inmemory"));
+	}
+
+	@Test(expected = XOException.class)
+	public void testUnknownTitanScheme() throws URISyntaxException {
+		createDatastore("titan-unknown://localhost");
+	}
 }
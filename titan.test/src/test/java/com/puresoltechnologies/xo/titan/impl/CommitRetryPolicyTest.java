@@ -0,0 +1,75 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+import com.thinkaurelius.titan.core.SchemaViolationException;
+import com.thinkaurelius.titan.core.TitanException;
+import com.thinkaurelius.titan.diskstorage.locking.PermanentLockingException;
+import com.thinkaurelius.titan.diskstorage.locking.TemporaryLockingException;
+
+public class CommitRetryPolicyTest {
+
+	@Test
+	public void testRetryableExceptions() {
+		assertThat(CommitRetryPolicy.isRetryable(new TitanException(
+				"commit failed", new TemporaryLockingException("lock"))),
+				is(true));
+		assertThat(CommitRetryPolicy.isRetryable(new TitanException(
+				"commit failed", new PermanentLockingException(
+						"Local lock contention"))), is(true));
+		assertThat(CommitRetryPolicy.isRetryable(new TitanException(
+				"commit failed", new SchemaViolationException("unique"))),
+				is(false));
+		assertThat(CommitRetryPolicy.isRetryable(new TitanException(
+				"commit failed")), is(false));
+	}
+
+	@Test
+	public void testBackoffGrowsExponentiallyWithJitter() {
+		CommitRetryPolicy policy = new CommitRetryPolicy(10, 100, 1000);
+		for (int i = 0; i < 100; i++) {
+			assertThat(policy.getBackoff(1),
+					allOf(greaterThanOrEqualTo(50l), lessThanOrEqualTo(100l)));
+			assertThat(policy.getBackoff(3),
+					allOf(greaterThanOrEqualTo(200l), lessThanOrEqualTo(400l)));
+			assertThat(policy.getBackoff(9),
+					allOf(greaterThanOrEqualTo(500l), lessThanOrEqualTo(1000l)));
+		}
+	}
+
+	@Test
+	public void testDefaultPolicyDoesNotRetry() {
+		CommitRetryPolicy policy = new CommitRetryPolicy();
+		assertThat(policy.getAttempts(), is(1));
+		assertThat(policy.isRetryEnabled(), is(false));
+	}
+
+	@Test
+	public void testStatistics() {
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		policy.committed(false);
+		policy.retried();
+		policy.committed(true);
+		policy.failed();
+		assertThat(policy.getCommits(), is(2l));
+		assertThat(policy.getRetries(), is(1l));
+		assertThat(policy.getRetriedCommits(), is(1l));
+		assertThat(policy.getFailedCommits(), is(1l));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAttempts() {
+		new CommitRetryPolicy(0, 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMaxBackoff() {
+		new CommitRetryPolicy(3, 100, 50);
+	}
+}
@@ -12,6 +12,7 @@ import org.junit.Test;
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.spi.reflection.AnnotatedType;
 import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
+import com.tinkerpop.blueprints.Vertex;
 
 public class GremlinManagerTest {
 
@@ -43,8 +44,33 @@ public class GremlinManagerTest {
 		parameters.put("type", 42);
 		GremlinExpression expression = GremlinManager.getGremlinExpression(
 				"_().has('type', {type})", parameters);
-		assertThat(expression.getExpression(),
-				is("type=42\n_().has('type', type)"));
+		assertThat(expression.getExpression(), is("_().has('type', type)"));
+		assertThat(expression.getParameters().get("type"), is((Object) 42));
+	}
+
+	@Test
+	public void testParameterValuesAreNotPartOfExpression() {
+		HashMap<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("name", "A'\n_().remove()");
+		GremlinExpression expression = GremlinManager.getGremlinExpression(
+				"_().has('name', {name})", parameters);
+		assertThat(expression.getExpression(), is("_().has('name', name)"));
+		assertThat(expression.getParameters().get("name"),
+				is((Object) "A'\n_().remove()"));
+	}
+
+	@Test
+	public void testVertexParameterBinding() {
+		Vertex vertex = mock(Vertex.class);
+		HashMap<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("this", vertex);
+		parameters.put("other", vertex);
+		GremlinExpression expression = GremlinManager.getGremlinExpression(
+				"_().out().retain([{other}])", parameters);
+		assertThat(expression.getExpression(), is("_().out().retain([other])"));
+		assertThat(expression.getParameters().get("other"),
+				is((Object) vertex));
+		assertThat(expression.getParameters().containsKey("this"), is(false));
 	}
 
 	@Test(expected = XOException.class)
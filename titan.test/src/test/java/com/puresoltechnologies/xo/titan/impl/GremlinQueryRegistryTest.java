@@ -0,0 +1,125 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.buschmais.xo.api.XOException;
+import com.buschmais.xo.api.annotation.ResultOf;
+import com.buschmais.xo.spi.metadata.method.ResultOfMethodMetadata;
+import com.buschmais.xo.spi.metadata.method.MethodMetadata;
+import com.buschmais.xo.spi.metadata.type.TypeMetadata;
+import com.buschmais.xo.spi.reflection.AnnotatedType;
+import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
+
+public class GremlinQueryRegistryTest {
+
+	@Gremlin(value = "_().has('value', {value})", name = "a")
+	interface ByValue {
+	}
+
+	@Gremlin("_().filter{true}.has('value', {value}).out({e})")
+	interface WithClosure {
+	}
+
+	@Gremlin("_().has('value', ")
+	interface Broken {
+	}
+
+	private TypeMetadata createMetadata(Class<?> type) {
+		AnnotatedType annotatedType = mock(AnnotatedType.class);
+		doReturn(type).when(annotatedType).getAnnotatedElement();
+		TypeMetadata metadata = mock(TypeMetadata.class);
+		when(metadata.getAnnotatedType()).thenReturn(annotatedType);
+		when(metadata.getProperties()).thenReturn(
+				Collections.<MethodMetadata<?, ?>> emptyList());
+		return metadata;
+	}
+
+	private TypeMetadata createResultOfMetadata(Class<?> query,
+			String usingThisAs, String... parameterNames) {
+		List<ResultOf.Parameter> parameters = new ArrayList<>();
+		for (String parameterName : parameterNames) {
+			ResultOf.Parameter parameter = mock(ResultOf.Parameter.class);
+			when(parameter.value()).thenReturn(parameterName);
+			parameters.add(parameter);
+		}
+		ResultOfMethodMetadata<?> resultOfMethodMetadata = mock(ResultOfMethodMetadata.class);
+		when(resultOfMethodMetadata.getQuery()).thenReturn(query);
+		when(resultOfMethodMetadata.getUsingThisAs()).thenReturn(usingThisAs);
+		when(resultOfMethodMetadata.getParameters()).thenReturn(parameters);
+		TypeMetadata metadata = createMetadata(Object.class);
+		when(metadata.getProperties()).thenReturn(
+				Arrays.<MethodMetadata<?, ?>> asList(resultOfMethodMetadata));
+		return metadata;
+	}
+
+	@Test
+	public void testResolvePlaceholders() {
+		assertThat(GremlinQueryRegistry.resolvePlaceholders(
+				"_().has('a', {a}).filter{it}.out({this}).has('b', {b})",
+				Arrays.asList("a", "this")),
+				is("_().has('a', a).filter{it}.out({this}).has('b', {b})"));
+	}
+
+	@Test
+	public void testResolveUnknownPlaceholders() {
+		assertThat(GremlinQueryRegistry.resolvePlaceholders(
+				"_().filter{x}.has('a', {a}).filter {true}.out({this})"),
+				is("_().filter{x}.has('a', a).filter {true}.out({this})"));
+		assertThat(GremlinQueryRegistry.resolvePlaceholders("{a}"), is("a"));
+	}
+
+	@Test
+	public void testTypeLevelQueryIsPrecompiled() {
+		GremlinScriptCache cache = new GremlinScriptCache(2);
+		GremlinQueryRegistry registry = new GremlinQueryRegistry(
+				Arrays.asList(createMetadata(ByValue.class)), cache);
+		assertThat(registry.size(), is(1));
+		assertThat(registry.getCompiledScript("_().has('value', value)"),
+				notNullValue());
+	}
+
+	@Test
+	public void testClosuresAreKept() {
+		GremlinScriptCache cache = new GremlinScriptCache(2);
+		GremlinQueryRegistry registry = new GremlinQueryRegistry(
+				Arrays.asList(createResultOfMetadata(WithClosure.class, "e",
+						"value")), cache);
+		assertThat(registry.size(), is(1));
+		assertThat(registry
+				.getCompiledScript("_().filter{true}.has('value', value).out(e)"),
+				notNullValue());
+	}
+
+	@Test
+	public void testPrecompilation() {
+		GremlinScriptCache cache = new GremlinScriptCache(2);
+		GremlinQueryRegistry registry = new GremlinQueryRegistry(
+				Arrays.asList(createResultOfMetadata(ByValue.class, "this",
+						"value"), createMetadata(Object.class)), cache);
+		assertThat(registry.size(), is(1));
+		assertThat(registry.getCompiledScript("_().has('value',  value)"),
+				notNullValue());
+		assertThat(registry.getCompiledScript("_().has('other', value)"),
+				nullValue());
+		assertThat(cache.getMisses(), is(0l));
+	}
+
+	@Test(expected = XOException.class)
+	public void testSyntaxErrorFailsInitialization() {
+		new GremlinQueryRegistry(Arrays.asList(createMetadata(Broken.class)),
+				new GremlinScriptCache(2));
+	}
+}
@@ -0,0 +1,79 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+/**
+ * JMH benchmark for the creation of the result rows of a {@link GremlinQuery}.
+ * The copying rows used before are compared with the rows created by
+ * {@link GremlinQuery#createRow(String, Object)}. Run the main method to get
+ * the allocation rate per row with the GC profiler (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GremlinQueryRowBenchmark {
+
+	private Vertex vertex;
+	private Map<String, Object> map;
+
+	@Setup
+	public void setup() {
+		vertex = new TinkerGraph().addVertex(null);
+		map = new HashMap<>();
+		map.put("a", vertex);
+		map.put("b", 42);
+	}
+
+	@Benchmark
+	public Map<String, Object> copyingVertexRow() {
+		Map<String, Object> results = new HashMap<>();
+		results.put("result", vertex);
+		return results;
+	}
+
+	@Benchmark
+	public Map<String, Object> vertexRow() {
+		return GremlinQuery.createRow("result", vertex);
+	}
+
+	@Benchmark
+	public Map<String, Object> copyingMapRow() {
+		Map<String, Object> results = new HashMap<>();
+		results.putAll(map);
+		return results;
+	}
+
+	@Benchmark
+	public Map<String, Object> mapRow() {
+		return GremlinQuery.createRow("result", map);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(GremlinQueryRowBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,68 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+import com.buschmais.xo.api.ResultIterator;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanGraphTransaction;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import com.tinkerpop.blueprints.Vertex;
+
+public class GremlinQueryTest {
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testVerticesInMapResultsAreWrapped() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		when(titanGraph.newTransaction()).thenReturn(
+				mock(TitanTransaction.class));
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		InternalVertex vertex = mock(InternalVertex.class);
+		when(vertex.getId()).thenReturn(1l);
+		GremlinStartSelector gremlinStartSelector = mock(GremlinStartSelector.class);
+		when(
+				gremlinStartSelector.getStarts(
+						any(TitanGraphTransaction.class),
+						any(GremlinExpression.class), anyString())).thenReturn(
+				Arrays.<Vertex> asList(vertex));
+		GremlinQuery query = new GremlinQuery(transaction,
+				new GremlinScriptCache(2), new GremlinQueryRegistry(),
+				gremlinStartSelector);
+		transaction.begin();
+		ResultIterator<Map<String, Object>> results = query.execute(
+				"_().transform{['person' : it, 'age' : 42]}",
+				Collections.<String, Object> emptyMap());
+		Map<String, Object> row = results.next();
+		assertThat(row.get("person"), instanceOf(TitanStoreVertex.class));
+		assertThat(row.get("age"), equalTo((Object) 42));
+		for (Entry<String, Object> entry : row.entrySet()) {
+			if ("person".equals(entry.getKey())) {
+				assertThat(entry.getValue(),
+						instanceOf(TitanStoreVertex.class));
+			}
+		}
+		transaction.rollback();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testMapResultsAreReadOnly() {
+		GremlinQuery.createRow("result",
+				Collections.<String, Object> singletonMap("a", 1)).put("b", 2);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import org.junit.Test;
+
+import com.buschmais.xo.api.XOException;
+
+public class GremlinScriptCacheTest {
+
+	@Test
+	public void testNormalize() {
+		assertThat(GremlinScriptCache.normalize("  _().has('name',  \t{name})  "),
+				is("_().has('name', {name})"));
+		assertThat(GremlinScriptCache.normalize("name='a'  \r\n\t_()"),
+				is("name='a'\n_()"));
+		assertThat(GremlinScriptCache.normalize("_().has('name', 'a  b')"),
+				is("_().has('name', 'a  b')"));
+		assertThat(
+				GremlinScriptCache.normalize("_().has('name', \"a \\\"  b\")"),
+				is("_().has('name', \"a \\\"  b\")"));
+	}
+
+	@Test
+	public void testNormalizeKeepsSlashyStrings() {
+		assertThat(GremlinScriptCache.normalize(" _().filter{it.name ==~ /a  b/} "),
+				is("_().filter{it.name ==~ /a  b/}"));
+	}
+
+	@Test
+	public void testOriginalExpressionIsCompiled() throws ScriptException {
+		GremlinScriptCache cache = new GremlinScriptCache(2);
+		assertThat(cache.getCompiledScript("'a  b' ==~ /a  b/").eval(),
+				is((Object) true));
+		assertThat(cache.getCompiledScript("  'a  b'  ==~  'a b'").eval(),
+				is((Object) false));
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		GremlinScriptCache cache = new GremlinScriptCache(2);
+		CompiledScript script = cache.getCompiledScript("_().has('a', 1)");
+		assertThat(cache.getMisses(), is(1l));
+		assertThat(cache.getHits(), is(0l));
+		assertThat(cache.getCompiledScript(" _().has('a',  1)\n"),
+				sameInstance(script));
+		assertThat(cache.getMisses(), is(1l));
+		assertThat(cache.getHits(), is(1l));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		GremlinScriptCache cache = new GremlinScriptCache(2);
+		CompiledScript a = cache.getCompiledScript("_().has('a', 1)");
+		CompiledScript b = cache.getCompiledScript("_().has('b', 1)");
+		assertThat(cache.getCompiledScript("_().has('a', 1)"), sameInstance(a));
+		cache.getCompiledScript("_().has('c', 1)");
+		assertThat(cache.getCompiledScript("_().has('a', 1)"), sameInstance(a));
+		assertThat(cache.getCompiledScript("_().has('b', 1)"),
+				not(sameInstance(b)));
+		assertThat(cache.getMisses(), is(4l));
+	}
+
+	@Test
+	public void testDisabledCache() {
+		GremlinScriptCache cache = new GremlinScriptCache(0);
+		CompiledScript script = cache.getCompiledScript("_().has('a', 1)");
+		assertThat(cache.getCompiledScript("_().has('a', 1)"),
+				not(sameInstance(script)));
+		assertThat(cache.getHits(), is(0l));
+		assertThat(cache.getMisses(), is(2l));
+	}
+
+	@Test(expected = XOException.class)
+	public void testSyntaxError() {
+		new GremlinScriptCache(2).getCompiledScript("_().has('a', ");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeSize() {
+		new GremlinScriptCache(-1);
+	}
+}
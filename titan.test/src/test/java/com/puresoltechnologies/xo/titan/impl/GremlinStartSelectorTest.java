@@ -0,0 +1,96 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.buschmais.xo.api.XOException;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanGraphQuery;
+
+public class GremlinStartSelectorTest {
+
+	private final GremlinStartSelector selector = new GremlinStartSelector(
+			Arrays.asList("_xo_discriminator_A", "value"));
+
+	private TitanGraph titanGraph;
+	private TitanGraphQuery<?> query;
+
+	@Before
+	public void setup() {
+		titanGraph = mock(TitanGraph.class);
+		query = mock(TitanGraphQuery.class);
+		doReturn(query).when(titanGraph).query();
+		doReturn(query).when(query).has(anyString(), any());
+	}
+
+	private GremlinExpression createExpression(String expression,
+			String name, Object value) {
+		Map<String, Object> parameters = new HashMap<>();
+		if (name != null) {
+			parameters.put(name, value);
+		}
+		return new GremlinExpression("", expression, parameters);
+	}
+
+	@Test
+	public void testDiscriminator() {
+		selector.getStarts(titanGraph,
+				createExpression("_().has('_xo_discriminator_A').out()", null,
+						null), null);
+		verify(query).has("_xo_discriminator_A", "A");
+	}
+
+	@Test
+	public void testIndexedPropertyWithParameter() {
+		selector.getStarts(titanGraph,
+				createExpression("_().has('value', value)", "value", "A1"),
+				null);
+		verify(query).has("value", "A1");
+	}
+
+	@Test
+	public void testIndexedPropertyWithLiteral() {
+		selector.getStarts(titanGraph,
+				createExpression("_().has('value', 'A1')", null, null), "");
+		verify(query).has("value", "A1");
+	}
+
+	@Test
+	public void testFullScanForNonIndexedProperty() {
+		selector.getStarts(titanGraph,
+				createExpression("_().has('name', name)", "name", "A1"), null);
+		verify(query, never()).has(anyString(), any());
+		verify(query).vertices();
+	}
+
+	@Test
+	public void testStartHint() {
+		selector.getStarts(titanGraph,
+				createExpression("_().out()", "v", "A1"), "name={v}");
+		verify(query).has("name", "A1");
+	}
+
+	@Test
+	public void testStartHintWithLiteral() {
+		selector.getStarts(titanGraph,
+				createExpression("_().out()", null, null), "_xo_discriminators='B'");
+		verify(query).has("_xo_discriminators", "B");
+	}
+
+	@Test(expected = XOException.class)
+	public void testStartHintWithMissingParameter() {
+		selector.getStarts(titanGraph, createExpression("_().out()", null,
+				null), "name");
+	}
+}
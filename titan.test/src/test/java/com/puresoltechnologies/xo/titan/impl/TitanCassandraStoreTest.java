@@ -6,10 +6,14 @@ import static org.junit.Assert.assertEquals;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.configuration.Configuration;
 import org.junit.Test;
 
 import com.buschmais.xo.api.XOException;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
 
 public class TitanCassandraStoreTest {
 
@@ -80,4 +84,129 @@ public class TitanCassandraStoreTest {
 		assertThat(store.getKeyspace(),
 				is(TitanCassandraStore.DEFAULT_TITAN_KEYSPACE));
 	}
+
+	@Test
+	public void testBulkLoadProperties() {
+		Properties properties = new Properties();
+		properties.setProperty(TitanCassandraStore.BULK_LOAD_PROPERTY, "true");
+		properties.setProperty(
+				TitanCassandraStore.BULK_LOAD_COMMIT_SIZE_PROPERTY, "100");
+		TitanCassandraStore store = new TitanCassandraStore("host", 123,
+				"keyspace", properties);
+		assertThat(store.isBulkLoad(), is(true));
+	}
+
+	@Test(expected = XOException.class)
+	public void testInvalidBulkLoadProperty() {
+		Properties properties = new Properties();
+		properties.setProperty(TitanCassandraStore.BULK_LOAD_PROPERTY, "yes");
+		new TitanCassandraStore("host", 123, "keyspace", properties);
+	}
+
+	@Test(expected = XOException.class)
+	public void testInvalidBulkLoadCommitSize() {
+		Properties properties = new Properties();
+		properties.setProperty(
+				TitanCassandraStore.BULK_LOAD_COMMIT_SIZE_PROPERTY, "0");
+		new TitanCassandraStore("host", 123, "keyspace", properties);
+	}
+
+	@Test
+	public void testTitanPropertiesArePassedThrough() {
+		Properties properties = new Properties();
+		properties.setProperty("titan.ids.block-size", "100000");
+		properties.setProperty("titan.cache.db-cache", "true");
+		properties.setProperty("titan.storage.cassandra.keyspace", "other");
+		properties.setProperty("xo.titan.gremlin.cache.size", "16");
+		TitanCassandraStore store = new TitanCassandraStore("host", 123,
+				"keyspace", properties);
+		Configuration configuration = store.createConfiguration();
+		assertThat(configuration.getString("storage.backend"),
+				is("cassandra"));
+		assertThat(configuration.getString("storage.hostname"), is("host"));
+		assertThat(configuration.getString("ids.block-size"), is("100000"));
+		assertThat(configuration.getString("cache.db-cache"), is("true"));
+		assertThat(configuration.getString("storage.cassandra.keyspace"),
+				is("other"));
+		assertThat(configuration.containsKey("gremlin.cache.size"),
+				is(false));
+	}
+
+	@Test
+	public void testDiscriminatorLayoutProperty() {
+		Properties properties = new Properties();
+		assertThat(new TitanCassandraStore("host", 123, "keyspace", properties)
+				.getDiscriminatorLayout(),
+				is(DiscriminatorLayout.PROPERTY_PER_DISCRIMINATOR));
+		properties.setProperty(
+				AbstractTitanStore.DISCRIMINATOR_LAYOUT_PROPERTY,
+				"DISCRIMINATOR_SET");
+		assertThat(new TitanCassandraStore("host", 123, "keyspace", properties)
+				.getDiscriminatorLayout(),
+				is(DiscriminatorLayout.DISCRIMINATOR_SET));
+	}
+
+	@Test(expected = XOException.class)
+	public void testInvalidDiscriminatorLayoutProperty() {
+		Properties properties = new Properties();
+		properties.setProperty(
+				AbstractTitanStore.DISCRIMINATOR_LAYOUT_PROPERTY, "unknown");
+		new TitanCassandraStore("host", 123, "keyspace", properties);
+	}
+
+	@Test
+	public void testTransactionProfileProperties() {
+		Properties properties = new Properties();
+		assertThat(new TitanCassandraStore("host", 123, "keyspace", properties)
+				.getTransactionProfile().isDefault(), is(true));
+		properties.setProperty(
+				AbstractTitanStore.TRANSACTION_READ_ONLY_PROPERTY, "true");
+		properties.setProperty(
+				AbstractTitanStore.TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY,
+				"5000");
+		properties.setProperty(
+				AbstractTitanStore.TRANSACTION_CONSISTENCY_CHECKS_PROPERTY,
+				"false");
+		properties.setProperty(
+				AbstractTitanStore.TRANSACTION_COMMIT_TIME_PROPERTY, "1000");
+		TransactionProfile profile = new TitanCassandraStore("host", 123,
+				"keyspace", properties).getTransactionProfile();
+		assertThat(profile.isReadOnly(), is(true));
+		assertThat(profile.getVertexCacheSize(), is(5000));
+		assertThat(profile.getConsistencyChecks(), is(false));
+		assertThat(profile.getCheckInternalVertexExistence(),
+				is((Boolean) null));
+		assertThat(profile.getCommitTime(), is(1000l));
+		assertThat(profile.getCommitTimeUnit(), is(TimeUnit.MILLISECONDS));
+	}
+
+	@Test(expected = XOException.class)
+	public void testInvalidTransactionVertexCacheSize() {
+		Properties properties = new Properties();
+		properties.setProperty(
+				AbstractTitanStore.TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY,
+				"-1");
+		new TitanCassandraStore("host", 123, "keyspace", properties);
+	}
+
+	@Test
+	public void testCommitRetryProperties() {
+		Properties properties = new Properties();
+		assertThat(new TitanCassandraStore("host", 123, "keyspace", properties)
+				.getCommitRetryPolicy().isRetryEnabled(), is(false));
+		properties.setProperty(AbstractTitanStore.COMMIT_ATTEMPTS_PROPERTY,
+				"5");
+		assertThat(new TitanCassandraStore("host", 123, "keyspace", properties)
+				.getCommitRetryPolicy().getAttempts(), is(5));
+	}
+
+	@Test(expected = XOException.class)
+	public void testInvalidCommitRetryProperties() {
+		Properties properties = new Properties();
+		properties.setProperty(AbstractTitanStore.COMMIT_BACKOFF_PROPERTY,
+				"5000");
+		properties.setProperty(
+				AbstractTitanStore.COMMIT_MAX_BACKOFF_PROPERTY, "100");
+		new TitanCassandraStore("host", 123, "keyspace", properties);
+	}
 }
@@ -0,0 +1,124 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.buschmais.xo.spi.metadata.type.TypeMetadata;
+import com.buschmais.xo.spi.reflection.AnnotatedType;
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanCompositeIndexMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanIndexedPropertyMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanMixedIndexMetadata;
+import com.thinkaurelius.titan.core.schema.Mapping;
+import com.tinkerpop.blueprints.Vertex;
+
+public class TitanMetadataFactoryTest {
+
+	@VertexDefinition("Owned")
+	public interface Owned {
+
+		@Indexed(group = "byTenantAndName", order = 0, unique = true)
+		String getTenant();
+
+		void setTenant(String tenant);
+
+	}
+
+	@VertexDefinition("Customer")
+	public interface Customer extends Owned {
+
+		@Indexed
+		String getNumber();
+
+		void setNumber(String number);
+
+		@Indexed(group = "byTenantAndName", order = 1)
+		String getName();
+
+		void setName(String name);
+
+	}
+
+	@VertexDefinition("Document")
+	public interface Document {
+
+		@MixedIndexed(mapping = Mapping.TEXT)
+		String getText();
+
+		void setText(String text);
+
+		@MixedIndexed("documents")
+		Integer getSize();
+
+		void setSize(Integer size);
+
+	}
+
+	private Collection<TitanCompositeIndexMetadata> createCompositeIndexes(
+			Class<?> type) {
+		return new TitanMetadataFactory().createEntityMetadata(
+				new AnnotatedType(type),
+				Collections.<Class<?>, TypeMetadata> emptyMap())
+				.getCompositeIndexes();
+	}
+
+	@Test
+	public void testGroupSpansSuperTypes() {
+		Collection<TitanCompositeIndexMetadata> compositeIndexes = createCompositeIndexes(Customer.class);
+		assertEquals(1, compositeIndexes.size());
+		TitanCompositeIndexMetadata compositeIndex = compositeIndexes
+				.iterator().next();
+		assertEquals("byTenantAndName", compositeIndex.getName());
+		assertEquals(Vertex.class, compositeIndex.getType());
+		assertTrue(compositeIndex.isUnique());
+		List<String> names = new ArrayList<>();
+		for (TitanIndexedPropertyMetadata property : compositeIndex
+				.getProperties()) {
+			names.add(property.getName());
+		}
+		assertEquals("[tenant, name]", names.toString());
+	}
+
+	@Test
+	public void testMixedIndexes() {
+		List<TitanMixedIndexMetadata> mixedIndexes = new ArrayList<>(
+				new TitanMetadataFactory().createEntityMetadata(
+						new AnnotatedType(Document.class),
+						Collections.<Class<?>, TypeMetadata> emptyMap())
+						.getMixedIndexes());
+		assertEquals(2, mixedIndexes.size());
+		assertEquals("documents", mixedIndexes.get(0).getName());
+		assertEquals("size", mixedIndexes.get(0).getProperties().get(0)
+				.getName());
+		assertEquals(Mapping.DEFAULT, mixedIndexes.get(0).getProperties()
+				.get(0).getMapping());
+		assertEquals(MixedIndexed.DEFAULT_VERTEX_INDEX, mixedIndexes.get(1)
+				.getName());
+		assertEquals(Mapping.TEXT, mixedIndexes.get(1).getProperties().get(0)
+				.getMapping());
+	}
+
+	@Test
+	public void testNoGroups() {
+		assertTrue(createCompositeIndexes(TitanMetadataFactoryTest.class)
+				.isEmpty());
+	}
+
+	@Test
+	public void testGroupedProperty() {
+		TitanIndexedPropertyMetadata property = new TitanIndexedPropertyMetadata(
+				"name", false, String.class, Vertex.class);
+		assertFalse(property.isGrouped());
+	}
+
+}
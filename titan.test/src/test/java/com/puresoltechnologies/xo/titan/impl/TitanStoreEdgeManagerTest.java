@@ -0,0 +1,214 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.buschmais.xo.spi.metadata.type.RelationTypeMetadata;
+import com.puresoltechnologies.xo.titan.api.RelationQuery;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanCompositeIndexMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanEdgeMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanMixedIndexMetadata;
+import com.thinkaurelius.titan.core.TitanEdge;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanMultiVertexQuery;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.core.TitanVertex;
+import com.thinkaurelius.titan.graphdb.internal.InternalRelation;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import com.thinkaurelius.titan.graphdb.query.vertex.VertexCentricQueryBuilder;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.VertexQuery;
+
+public class TitanStoreEdgeManagerTest {
+
+	private TitanTransaction titanTransaction;
+	private TitanStoreTransaction transaction;
+	private TitanStoreEdgeManager edgeManager;
+	private RelationTypeMetadata<TitanEdgeMetadata> metadata;
+	private Vertex vertex;
+	private TitanEdge edge;
+	private VertexQuery query;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		titanTransaction = mock(TitanTransaction.class);
+		when(titanGraph.newTransaction()).thenReturn(titanTransaction);
+		transaction = new TitanStoreTransaction(titanGraph);
+		edgeManager = new TitanStoreEdgeManager(transaction);
+		metadata = mock(RelationTypeMetadata.class);
+		when(metadata.getDatastoreMetadata()).thenReturn(
+				new TitanEdgeMetadata("parent", Collections
+						.<TitanCompositeIndexMetadata> emptyList(),
+						Collections.<TitanMixedIndexMetadata> emptyList(),
+						null));
+		vertex = mock(Vertex.class);
+		when(vertex.getId()).thenReturn(2l);
+		edge = mock(TitanEdge.class);
+		query = mock(VertexQuery.class);
+		when(vertex.query()).thenReturn(query);
+		when(query.direction(Direction.OUT)).thenReturn(query);
+		when(query.labels("parent")).thenReturn(query);
+		when(query.limit(2)).thenReturn(query);
+		when(query.edges()).thenReturn(
+				(Collection<Edge>) Arrays.<Edge> asList(edge));
+	}
+
+	@Test
+	public void testSingleRelationIsReadOnce() {
+		assertThat(edgeManager.hasSingleRelation(vertex, metadata,
+				RelationTypeMetadata.Direction.FROM), is(true));
+		assertThat(edgeManager.getSingleRelation(vertex, metadata,
+				RelationTypeMetadata.Direction.FROM),
+				sameInstance((Edge) edge));
+		verify(vertex, times(1)).query();
+		edgeManager.getSingleRelation(vertex, metadata,
+				RelationTypeMetadata.Direction.FROM);
+		verify(vertex, times(2)).query();
+	}
+
+	private VertexCentricQueryBuilder mockQuery(InternalVertex titanVertex) {
+		VertexCentricQueryBuilder titanQuery = mock(
+				VertexCentricQueryBuilder.class, new Answer<Object>() {
+					@Override
+					public Object answer(InvocationOnMock invocation) {
+						// the builder methods return the builder itself
+						Object builder = invocation.getMock();
+						return invocation.getMethod().getReturnType()
+								.isInstance(builder) ? builder : null;
+					}
+				});
+		doReturn(titanQuery).when(titanVertex).query();
+		return titanQuery;
+	}
+
+	@Test
+	public void testSingleRelationIsReadOnceForWrappedVertex() {
+		InternalVertex titanVertex = mock(InternalVertex.class);
+		when(titanVertex.getId()).thenReturn(1l);
+		when(titanTransaction.getVertex((Object) 1l)).thenReturn(titanVertex);
+		VertexCentricQueryBuilder titanQuery = mockQuery(titanVertex);
+		doReturn(Arrays.asList(edge)).when(titanQuery).edges();
+		Vertex wrapped = transaction.wrap(titanVertex);
+		assertThat(wrapped, instanceOf(TitanStoreVertex.class));
+		assertThat(edgeManager.hasSingleRelation(wrapped, metadata,
+				RelationTypeMetadata.Direction.FROM), is(true));
+		assertThat(edgeManager.getSingleRelation(wrapped, metadata,
+				RelationTypeMetadata.Direction.FROM),
+				sameInstance((Edge) edge));
+		verify(titanVertex, times(1)).query();
+	}
+
+	@Test
+	public void testSingleRelationIsForgottenAfterDeletion() {
+		edgeManager.hasSingleRelation(vertex, metadata,
+				RelationTypeMetadata.Direction.FROM);
+		edgeManager.deleteRelation(mock(Edge.class));
+		edgeManager.getSingleRelation(vertex, metadata,
+				RelationTypeMetadata.Direction.FROM);
+		verify(vertex, times(2)).query();
+	}
+
+	@Test
+	public void testPagedRelationsAreWrapped() {
+		InternalVertex titanVertex = mock(InternalVertex.class);
+		when(titanVertex.getId()).thenReturn(1l);
+		InternalVertex adjacentVertex = mock(InternalVertex.class);
+		when(adjacentVertex.getId()).thenReturn(3l);
+		TitanEdge titanEdge = (TitanEdge) mock(InternalRelation.class,
+				withSettings().extraInterfaces(TitanEdge.class));
+		when(titanEdge.getId()).thenReturn(4l);
+		when(titanTransaction.getVertex((Object) 1l)).thenReturn(titanVertex);
+		VertexCentricQueryBuilder titanQuery = mockQuery(titanVertex);
+		doReturn(Arrays.asList(titanEdge)).when(titanQuery).edges();
+		doReturn(Arrays.asList(adjacentVertex)).when(titanQuery).vertices();
+		RelationQuery relationQuery = new RelationQuery().limit(10);
+		Edge pagedEdge = edgeManager
+				.getRelations(titanVertex, "parent", Direction.OUT,
+						relationQuery).iterator().next();
+		assertThat(pagedEdge, instanceOf(TitanStoreEdge.class));
+		assertThat(pagedEdge.getId(), equalTo((Object) 4l));
+		Vertex adjacent = edgeManager
+				.getAdjacentVertices(titanVertex, "parent", Direction.OUT,
+						relationQuery).iterator().next();
+		assertThat(adjacent, instanceOf(TitanStoreVertex.class));
+		assertThat(adjacent.getId(), equalTo((Object) 3l));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testOffsetOfPagedRelationsIsSkippedLazily() {
+		InternalVertex titanVertex = mock(InternalVertex.class);
+		when(titanVertex.getId()).thenReturn(1l);
+		when(titanTransaction.getVertex((Object) 1l)).thenReturn(titanVertex);
+		List<Edge> page = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			page.add(mock(Edge.class));
+		}
+		Iterable<Edge> edges = mock(Iterable.class);
+		when(edges.iterator()).thenReturn(page.iterator());
+		VertexCentricQueryBuilder titanQuery = mockQuery(titanVertex);
+		doReturn(edges).when(titanQuery).edges();
+		Iterable<Edge> relations = edgeManager.getRelations(titanVertex,
+				"parent", Direction.OUT, new RelationQuery().offset(2));
+		verify(edges, never()).iterator();
+		List<Edge> result = new ArrayList<>();
+		for (Edge edge : relations) {
+			result.add(edge);
+		}
+		assertThat(result, equalTo(page.subList(2, 3)));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testAdjacentVerticesArePrefetchedInBatches() {
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Edge edge = mock(Edge.class);
+			when(edge.getVertex(Direction.IN)).thenReturn(
+					mock(TitanVertex.class));
+			edges.add(edge);
+		}
+		when(query.edges()).thenReturn(edges);
+		TitanMultiVertexQuery multiQuery = mock(TitanMultiVertexQuery.class);
+		when(titanTransaction.multiQuery(any(Collection.class))).thenReturn(
+				multiQuery);
+		edgeManager.setPrefetchSize(2);
+		Iterable<Edge> relations = edgeManager.getRelations(vertex,
+				metadata, RelationTypeMetadata.Direction.FROM);
+		verify(titanTransaction, never()).multiQuery(any(Collection.class));
+		List<Edge> result = new ArrayList<>();
+		for (Edge edge : relations) {
+			result.add(edge);
+		}
+		assertThat(result, equalTo(edges));
+		verify(titanTransaction, times(3)).multiQuery(any(Collection.class));
+		verify(multiQuery, times(3)).properties();
+	}
+
+}
@@ -1,16 +1,38 @@
 package com.puresoltechnologies.xo.titan.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import com.buschmais.xo.api.XOException;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
+import com.thinkaurelius.titan.core.SchemaViolationException;
+import com.thinkaurelius.titan.core.TitanException;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanGraphTransaction;
 import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.core.TitanVertex;
+import com.thinkaurelius.titan.core.TransactionBuilder;
+import com.thinkaurelius.titan.diskstorage.locking.TemporaryLockingException;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import com.tinkerpop.blueprints.Vertex;
 
 /**
  * This unit test checks the logic for active state and initialization.
@@ -80,6 +102,321 @@ public class TitanStoreTransactionTest {
 		transaction.rollback();
 	}
 
+	@Test
+	public void testBulkLoadCommits() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		when(titanGraph.newTransaction()).thenReturn(titanTransaction);
+		TransactionBuilder builder = mock(TransactionBuilder.class);
+		when(titanGraph.buildTransaction()).thenReturn(builder);
+		when(builder.start()).thenReturn(titanTransaction);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setBulkLoadCommitSize(2);
+		transaction.begin();
+		transaction.getTitanTransaction();
+		transaction.registerMutation();
+		transaction.registerMutation();
+		verify(titanTransaction, never()).commit();
+		transaction.setBulkLoad(true);
+		transaction.registerMutation();
+		verify(titanTransaction, times(1)).commit();
+		transaction.getTitanTransaction();
+		transaction.registerMutation();
+		transaction.registerMutation();
+		verify(titanTransaction, times(2)).commit();
+		transaction.getTitanTransaction();
+		transaction.commit();
+		verify(titanTransaction, times(3)).commit();
+		verify(titanGraph, times(1)).newTransaction();
+		verify(builder, times(2)).start();
+		verify(titanGraph, never()).commit();
+		assertFalse(transaction.isActive());
+	}
+
+	@Test
+	public void testTitanTransactionIsOpenedOnDemand() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		when(titanGraph.newTransaction()).thenReturn(titanTransaction);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.begin();
+		transaction.commit();
+		verify(titanGraph, never()).newTransaction();
+		transaction.begin();
+		assertSame(titanTransaction, transaction.getTitanTransaction());
+		assertSame(titanTransaction, transaction.getTitanTransaction());
+		transaction.rollback();
+		verify(titanGraph, times(1)).newTransaction();
+		verify(titanTransaction, times(1)).rollback();
+		verify(titanGraph, never()).rollback();
+	}
+
+	@Test
+	public void testElementsOfClosedTransactionsAreBound() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		when(titanGraph.newTransaction()).thenReturn(titanTransaction);
+		InternalVertex closedVertex = mock(InternalVertex.class);
+		when(closedVertex.getId()).thenReturn(42l);
+		TitanVertex vertex = mock(TitanVertex.class);
+		when(titanTransaction.getVertex((Object) 42l)).thenReturn(vertex);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		assertSame(vertex, transaction.bind(closedVertex));
+		assertSame(vertex, transaction.bind(vertex));
+	}
+
+	@Test
+	public void testTransactionProfileIsApplied() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		TransactionBuilder builder = mock(TransactionBuilder.class);
+		when(titanGraph.buildTransaction()).thenReturn(builder);
+		when(builder.start()).thenReturn(titanTransaction);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setTransactionProfile(new TransactionProfile()
+				.readOnly(true).vertexCacheSize(1000)
+				.consistencyChecks(false)
+				.commitTime(123l, TimeUnit.MILLISECONDS));
+		transaction.begin();
+		assertSame(titanTransaction, transaction.getTitanTransaction());
+		transaction.commit();
+		verify(builder).readOnly();
+		verify(builder).setVertexCacheSize(1000);
+		verify(builder).consistencyChecks(false);
+		verify(builder).setCommitTime(123l, TimeUnit.MILLISECONDS);
+		verify(builder, never()).checkInternalVertexExistence(false);
+		verify(titanGraph, never()).newTransaction();
+	}
+
+	@Test
+	public void testBulkLoadSkipsVertexExistenceChecks() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		TransactionBuilder builder = mock(TransactionBuilder.class);
+		when(titanGraph.buildTransaction()).thenReturn(builder);
+		when(builder.start()).thenReturn(titanTransaction);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setTransactionProfile(new TransactionProfile()
+				.checkExternalVertexExistence(true));
+		transaction.setBulkLoad(true);
+		transaction.begin();
+		assertSame(titanTransaction, transaction.getTitanTransaction());
+		transaction.commit();
+		verify(builder).checkInternalVertexExistence(false);
+		verify(builder).checkExternalVertexExistence(true);
+		verify(titanGraph, never()).newTransaction();
+		assertNull(transaction.getTransactionProfile()
+				.getCheckInternalVertexExistence());
+	}
+
+	@Test
+	public void testReadOnlyCommitClosesTitanTransaction() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		TransactionBuilder builder = mock(TransactionBuilder.class);
+		when(titanGraph.buildTransaction()).thenReturn(builder);
+		when(builder.start()).thenReturn(titanTransaction);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setTransactionProfile(new TransactionProfile()
+				.readOnly(true));
+		assertTrue(transaction.isReadOnly());
+		transaction.begin();
+		transaction.getTitanTransaction();
+		transaction.commit();
+		verify(titanTransaction, times(1)).rollback();
+		verify(titanTransaction, never()).commit();
+	}
+
+	@Test(expected = XOException.class)
+	public void testReadOnlyRejectsPropertyChanges() {
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraphMock);
+		transaction.setTransactionProfile(new TransactionProfile()
+				.readOnly(true));
+		transaction.begin();
+		transaction.writeProperty(mock(TitanVertex.class), "value", "1");
+	}
+
+	@Test
+	public void testLockingFailureIsRetriedWithReplay() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction failingTransaction = mock(TitanTransaction.class);
+		doThrow(
+				new TitanException("commit failed",
+						new TemporaryLockingException("lock"))).when(
+				failingTransaction).commit();
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		when(titanGraph.newTransaction()).thenReturn(failingTransaction,
+				titanTransaction);
+		Vertex vertex = mock(Vertex.class);
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setCommitRetryPolicy(policy);
+		transaction.begin();
+		transaction.getTitanTransaction();
+		transaction.writeProperty(vertex, "value", "1");
+		transaction.commit();
+		verify(vertex, times(2)).setProperty("value", "1");
+		verify(titanTransaction, times(1)).commit();
+		assertEquals(1l, policy.getCommits());
+		assertEquals(1l, policy.getRetries());
+		assertEquals(1l, policy.getRetriedCommits());
+	}
+
+	@Test
+	public void testRetriesAreLimited() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction failingTransaction = mock(TitanTransaction.class);
+		doThrow(
+				new TitanException("commit failed",
+						new TemporaryLockingException("lock"))).when(
+				failingTransaction).commit();
+		when(titanGraph.newTransaction()).thenReturn(failingTransaction);
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setCommitRetryPolicy(policy);
+		transaction.begin();
+		transaction.getTitanTransaction();
+		transaction.writeProperty(mock(Vertex.class), "value", "1");
+		try {
+			transaction.commit();
+			fail("The commit must fail after all attempts.");
+		} catch (TitanException e) {
+			// expected
+		}
+		verify(failingTransaction, times(3)).commit();
+		assertEquals(2l, policy.getRetries());
+		assertEquals(1l, policy.getFailedCommits());
+	}
+
+	@Test
+	public void testOtherFailuresAreNotRetried() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction failingTransaction = mock(TitanTransaction.class);
+		doThrow(
+				new TitanException("commit failed",
+						new SchemaViolationException("unique"))).when(
+				failingTransaction).commit();
+		when(titanGraph.newTransaction()).thenReturn(failingTransaction);
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setCommitRetryPolicy(policy);
+		transaction.begin();
+		transaction.getTitanTransaction();
+		transaction.writeProperty(mock(Vertex.class), "value", "1");
+		try {
+			transaction.commit();
+			fail("The commit must fail without retries.");
+		} catch (TitanException e) {
+			// expected
+		}
+		verify(failingTransaction, times(1)).commit();
+		assertEquals(0l, policy.getRetries());
+	}
+
+	@Test
+	public void testHandedOutTransactionIsNotRetried() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction failingTransaction = mock(TitanTransaction.class);
+		doThrow(
+				new TitanException("commit failed",
+						new TemporaryLockingException("lock"))).when(
+				failingTransaction).commit();
+		when(titanGraph.newTransaction()).thenReturn(failingTransaction);
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setCommitRetryPolicy(policy);
+		transaction.begin();
+		transaction.disableReplay();
+		transaction.getTitanTransaction();
+		transaction.writeProperty(mock(Vertex.class), "value", "1");
+		try {
+			transaction.commit();
+			fail("The commit must fail without retries.");
+		} catch (TitanException e) {
+			// expected
+		}
+		verify(failingTransaction, times(1)).commit();
+	}
+
+	@Test
+	public void testVertexOfSessionIsRetried() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction failingTransaction = mock(TitanTransaction.class);
+		doThrow(
+				new TitanException("commit failed",
+						new TemporaryLockingException("lock"))).when(
+				failingTransaction).commit();
+		when(failingTransaction.getVertex((Object) 1l)).thenReturn(
+				mock(InternalVertex.class));
+		TitanTransaction titanTransaction = mock(TitanTransaction.class);
+		when(titanGraph.newTransaction()).thenReturn(failingTransaction,
+				titanTransaction);
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		TitanStoreSession session = new TitanStoreSession(titanGraph,
+				new GremlinScriptCache(2), new GremlinQueryRegistry(),
+				mock(GremlinStartSelector.class),
+				DiscriminatorLayout.PROPERTY_PER_DISCRIMINATOR);
+		session.setCommitRetryPolicy(policy);
+		session.getDatastoreTransaction().begin();
+		assertTrue(session.getVertex(1l) instanceof TitanStoreVertex);
+		session.getDatastoreTransaction().commit();
+		verify(titanTransaction, times(1)).commit();
+		assertEquals(1l, policy.getRetries());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testTransactionUsedByGremlinIsNotRetried() {
+		TitanGraph titanGraph = mock(TitanGraph.class);
+		TitanTransaction failingTransaction = mock(TitanTransaction.class);
+		doThrow(
+				new TitanException("commit failed",
+						new TemporaryLockingException("lock"))).when(
+				failingTransaction).commit();
+		when(titanGraph.newTransaction()).thenReturn(failingTransaction);
+		CommitRetryPolicy policy = new CommitRetryPolicy(3, 0, 0);
+		TitanStoreTransaction transaction = new TitanStoreTransaction(
+				titanGraph);
+		transaction.setCommitRetryPolicy(policy);
+		GremlinStartSelector gremlinStartSelector = mock(GremlinStartSelector.class);
+		when(
+				gremlinStartSelector.getStarts(
+						any(TitanGraphTransaction.class),
+						any(GremlinExpression.class), anyString())).thenReturn(
+				Collections.<Vertex> emptyList());
+		GremlinQuery query = new GremlinQuery(transaction,
+				new GremlinScriptCache(2), new GremlinQueryRegistry(),
+				gremlinStartSelector);
+		transaction.begin();
+		query.execute("_()", Collections.<String, Object> emptyMap());
+		transaction.writeProperty(mock(Vertex.class), "value", "1");
+		try {
+			transaction.commit();
+			fail("The commit must fail without retries.");
+		} catch (TitanException e) {
+			// expected
+		}
+		verify(failingTransaction, times(1)).commit();
+		assertEquals(0l, policy.getRetries());
+		assertEquals(1l, policy.getFailedCommits());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBulkLoadCommitSize() {
+		new TitanStoreTransaction(titanGraphMock).setBulkLoadCommitSize(0);
+	}
+
 	@Test(expected = XOException.class)
 	public void testDoubleBegin() {
 		TitanStoreTransaction transaction = new TitanStoreTransaction(
@@ -0,0 +1,210 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.buschmais.xo.api.XOException;
+import com.buschmais.xo.spi.metadata.method.PrimitivePropertyMethodMetadata;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanPropertyMetadata;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.tinkerpop.blueprints.Vertex;
+
+public class TitanStoreVertexManagerTest {
+
+	private TitanStoreTransaction transaction;
+	private TitanStoreVertexManager vertexManager;
+	private Vertex vertex;
+
+	@Before
+	public void setup() {
+		transaction = new TitanStoreTransaction(mock(TitanGraph.class));
+		vertexManager = new TitanStoreVertexManager(transaction,
+				DiscriminatorLayout.PROPERTY_PER_DISCRIMINATOR);
+		vertex = mock(Vertex.class);
+		when(vertex.getId()).thenReturn(42l);
+		when(vertex.getPropertyKeys()).thenReturn(
+				new HashSet<>(Arrays.asList("_xo_discriminator_A",
+						"_xo_discriminator_B", "value")));
+		when(vertex.getProperty("_xo_discriminator_A")).thenReturn("A");
+		when(vertex.getProperty("_xo_discriminator_B")).thenReturn("B");
+	}
+
+	@Test
+	public void testDiscriminatorsAreCachedWithinTransaction() {
+		transaction.begin();
+		assertThat(vertexManager.getEntityDiscriminators(vertex),
+				containsInAnyOrder("A", "B"));
+		assertThat(vertexManager.getEntityDiscriminators(vertex),
+				containsInAnyOrder("A", "B"));
+		verify(vertex, times(1)).getPropertyKeys();
+		transaction.commit();
+		transaction.begin();
+		vertexManager.getEntityDiscriminators(vertex);
+		verify(vertex, times(2)).getPropertyKeys();
+		transaction.rollback();
+	}
+
+	@Test
+	public void testCacheIsClearedByRollback() {
+		transaction.begin();
+		vertexManager.getEntityDiscriminators(vertex);
+		transaction.rollback();
+		transaction.begin();
+		vertexManager.getEntityDiscriminators(vertex);
+		verify(vertex, times(2)).getPropertyKeys();
+		transaction.commit();
+	}
+
+	@Test
+	public void testCacheIsInvalidatedByDelete() {
+		transaction.begin();
+		vertexManager.getEntityDiscriminators(vertex);
+		vertexManager.deleteEntity(vertex);
+		vertexManager.getEntityDiscriminators(vertex);
+		verify(vertex, times(2)).getPropertyKeys();
+		transaction.commit();
+	}
+
+	@Test
+	public void testCacheIsInvalidatedByMigrate() {
+		transaction.begin();
+		vertexManager.getEntityDiscriminators(vertex);
+		vertexManager.migrateEntity(vertex, null,
+				new HashSet<>(Arrays.asList("A", "B")), null, new HashSet<>(
+						Arrays.asList("A", "B")));
+		vertexManager.getEntityDiscriminators(vertex);
+		verify(vertex, times(2)).getPropertyKeys();
+		transaction.commit();
+	}
+
+	@Test
+	public void testNothingIsCachedWithoutTransaction() {
+		vertexManager.getEntityDiscriminators(vertex);
+		vertexManager.getEntityDiscriminators(vertex);
+		verify(vertex, times(2)).getPropertyKeys();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCachedDiscriminatorsAreImmutable() {
+		transaction.begin();
+		vertexManager.getEntityDiscriminators(vertex).add("C");
+	}
+
+	@Test
+	public void testReadOnlySessionRejectsChanges() {
+		PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata = createPropertyMetadata("value");
+		transaction.setTransactionProfile(new TransactionProfile()
+				.readOnly(true));
+		transaction.begin();
+		try {
+			vertexManager.createEntity(null, new HashSet<String>(), null);
+			fail("Entities must not be created in a read-only session.");
+		} catch (XOException e) {
+			// expected
+		}
+		try {
+			vertexManager.setProperty(vertex, metadata, "2");
+			fail("Properties must not be set in a read-only session.");
+		} catch (XOException e) {
+			// expected
+		}
+		try {
+			vertexManager.deleteEntity(vertex);
+			fail("Entities must not be deleted in a read-only session.");
+		} catch (XOException e) {
+			// expected
+		}
+		verify(vertex, never()).setProperty("value", "2");
+		verify(vertex, never()).remove();
+		transaction.rollback();
+	}
+
+	@SuppressWarnings("unchecked")
+	private PrimitivePropertyMethodMetadata<TitanPropertyMetadata> createPropertyMetadata(
+			String name) {
+		PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata = mock(PrimitivePropertyMethodMetadata.class);
+		when(metadata.getDatastoreMetadata()).thenReturn(
+				new TitanPropertyMetadata(name));
+		return metadata;
+	}
+
+	@Test
+	public void testPropertyValuesAreCachedWithinTransaction() {
+		PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata = createPropertyMetadata("value");
+		when(vertex.getProperty("value")).thenReturn("1");
+		transaction.begin();
+		assertThat(vertexManager.hasProperty(vertex, metadata), is(true));
+		assertThat(vertexManager.getProperty(vertex, metadata),
+				is((Object) "1"));
+		verify(vertex, times(1)).getProperty("value");
+		vertexManager.setProperty(vertex, metadata, "2");
+		assertThat(vertexManager.getProperty(vertex, metadata),
+				is((Object) "2"));
+		vertexManager.removeProperty(vertex, metadata);
+		assertThat(vertexManager.hasProperty(vertex, metadata), is(false));
+		verify(vertex, times(1)).getProperty("value");
+		transaction.rollback();
+		transaction.begin();
+		assertThat(vertexManager.getProperty(vertex, metadata),
+				is((Object) "1"));
+		verify(vertex, times(2)).getProperty("value");
+		transaction.rollback();
+	}
+
+	@Test
+	public void testPropertyValuesAreInvalidatedByDelete() {
+		PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata = createPropertyMetadata("value");
+		transaction.begin();
+		vertexManager.getProperty(vertex, metadata);
+		vertexManager.deleteEntity(vertex);
+		vertexManager.getProperty(vertex, metadata);
+		verify(vertex, times(2)).getProperty("value");
+		transaction.rollback();
+	}
+
+	@Test
+	public void testWriteBehindCollapsesRepeatedWrites() {
+		PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata = createPropertyMetadata("value");
+		transaction.setWriteBehind(true);
+		transaction.begin();
+		vertexManager.setProperty(vertex, metadata, "1");
+		vertexManager.setProperty(vertex, metadata, "2");
+		assertThat(vertexManager.getProperty(vertex, metadata),
+				is((Object) "2"));
+		verify(vertex, never()).setProperty("value", "1");
+		verify(vertex, never()).setProperty("value", "2");
+		vertexManager.flushEntity(vertex);
+		verify(vertex, never()).setProperty("value", "1");
+		verify(vertex, times(1)).setProperty("value", "2");
+		vertexManager.removeProperty(vertex, metadata);
+		verify(vertex, never()).removeProperty("value");
+		transaction.commit();
+		verify(vertex, times(1)).removeProperty("value");
+	}
+
+	@Test
+	public void testWriteBehindIsDiscardedByRollback() {
+		PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata = createPropertyMetadata("value");
+		transaction.setWriteBehind(true);
+		transaction.begin();
+		vertexManager.setProperty(vertex, metadata, "1");
+		transaction.rollback();
+		transaction.begin();
+		transaction.commit();
+		verify(vertex, never()).setProperty("value", "1");
+	}
+}
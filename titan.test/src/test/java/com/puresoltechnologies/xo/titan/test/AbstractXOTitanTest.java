@@ -32,7 +32,7 @@ public abstract class AbstractXOTitanTest {
 
 	@Before
 	public final void setup() {
-		XOTitanTestUtils.dropTitanKeyspace("localhost", "titantest");
+		XOTitanTestUtils.dropTitanKeyspace(xoUnit);
 		xoManagerFactory = XO.createXOManagerFactory(xoUnit);
 		xoManager = xoManagerFactory.createXOManager();
 		XOTitanTestUtils.clearTitanKeyspace(xoUnit);
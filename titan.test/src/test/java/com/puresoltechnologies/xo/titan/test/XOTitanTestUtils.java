@@ -22,6 +22,7 @@ import com.buschmais.xo.spi.metadata.type.TypeMetadata;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Session;
 import com.puresoltechnologies.xo.titan.api.TitanXOProvider;
+import com.puresoltechnologies.xo.titan.impl.AbstractTitanStore;
 import com.puresoltechnologies.xo.titan.impl.TitanCassandraStore;
 import com.puresoltechnologies.xo.titan.test.data.TestData;
 import com.thinkaurelius.titan.core.TitanGraph;
@@ -37,14 +38,21 @@ public class XOTitanTestUtils {
 
     private static final String XO_CONFIGURATION_RESOURCE = "/META-INF/xo.xml";
 
+    /**
+     * This is the name of the system property which overrides the URI of the
+     * store for testing, e.g. with <code>titan-inmemory:///</code> to run the
+     * tests without a Cassandra server.
+     */
+    public static final String TEST_URI_PROPERTY = "xo.titan.test.uri";
+
     /**
      * This is the default local URI for testing.
      */
     private static final URI DEFAULT_LOCAL_URI;
     static {
 	try {
-	    DEFAULT_LOCAL_URI = new URI(
-		    "titan-cassandra://localhost:9160/titantest");
+	    DEFAULT_LOCAL_URI = new URI(System.getProperty(TEST_URI_PROPERTY,
+		    "titan-cassandra://localhost:9160/titantest"));
 	} catch (URISyntaxException e) {
 	    throw new RuntimeException(e);
 	}
@@ -56,6 +64,15 @@ public class XOTitanTestUtils {
 		AbstractXOTitanTest.class
 			.getResource(XO_CONFIGURATION_RESOURCE));
 	for (XOUnit xoUnit : readXOUnits) {
+	    if (System.getProperty(TEST_URI_PROPERTY) != null) {
+		xoUnit = new XOUnit(xoUnit.getName(), xoUnit.getDescription(),
+			DEFAULT_LOCAL_URI, xoUnit.getProvider(),
+			xoUnit.getTypes(), xoUnit.getInstanceListeners(),
+			xoUnit.getValidationMode(),
+			xoUnit.getConcurrencyMode(),
+			xoUnit.getDefaultTransactionAttribute(),
+			xoUnit.getProperties());
+	    }
 	    xoUnits.add(new XOUnit[] { xoUnit });
 	}
 	return xoUnits;
@@ -76,6 +93,14 @@ public class XOTitanTestUtils {
 		Transaction.TransactionAttribute.MANDATORY);
     }
 
+    public static Collection<XOUnit[]> xoUnits(Properties properties,
+	    Class<?>... types) {
+	return xoUnits(Arrays.asList(DEFAULT_LOCAL_URI), Arrays.asList(types),
+		Collections.<Class<?>> emptyList(), ValidationMode.AUTO,
+		ConcurrencyMode.SINGLETHREADED,
+		Transaction.TransactionAttribute.MANDATORY, properties);
+    }
+
     public static Collection<XOUnit[]> xoUnits(List<URI> uris,
 	    List<? extends Class<?>> types) {
 	return xoUnits(uris, types, Collections.<Class<?>> emptyList(),
@@ -97,12 +122,22 @@ public class XOTitanTestUtils {
 	    List<? extends Class<?>> instanceListenerTypes,
 	    ValidationMode valiationMode, ConcurrencyMode concurrencyMode,
 	    Transaction.TransactionAttribute transactionAttribute) {
+	return xoUnits(uris, types, instanceListenerTypes, valiationMode,
+		concurrencyMode, transactionAttribute, new Properties());
+    }
+
+    public static Collection<XOUnit[]> xoUnits(List<URI> uris,
+	    List<? extends Class<?>> types,
+	    List<? extends Class<?>> instanceListenerTypes,
+	    ValidationMode valiationMode, ConcurrencyMode concurrencyMode,
+	    Transaction.TransactionAttribute transactionAttribute,
+	    Properties properties) {
 	List<XOUnit[]> xoUnits = new ArrayList<>(uris.size());
 	for (URI uri : uris) {
 	    XOUnit xoUnit = new XOUnit("default", "Default XO unit", uri,
 		    TitanXOProvider.class, new HashSet<>(types),
 		    instanceListenerTypes, valiationMode, concurrencyMode,
-		    transactionAttribute, new Properties());
+		    transactionAttribute, properties);
 	    xoUnits.add(new XOUnit[] { xoUnit });
 	}
 	return xoUnits;
@@ -119,32 +154,19 @@ public class XOTitanTestUtils {
     public static void clearTitanKeyspace(XOUnit xoUnit) {
 	Class<?> provider = xoUnit.getProvider();
 	if (TitanXOProvider.class.equals(provider)) {
-	    clearTitanKeyspace(xoUnit.getUri());
-	}
-    }
-
-    /**
-     * Clears the keyspaces assigned to the specified URI.
-     * 
-     * @param uri
-     *            is an {@link URI} pointing to the keyspace to be cleaned.
-     */
-    private static void clearTitanKeyspace(URI uri) {
-	String host = uri.getHost();
-	int port = Integer.valueOf(uri.getPort());
-	String keyspace = TitanCassandraStore.retrieveKeyspaceFromURI(uri);
-	TitanCassandraStore titanCassandraStore = new TitanCassandraStore(host,
-		port, keyspace);
-	try {
-	    titanCassandraStore.init(new HashMap<Class<?>, TypeMetadata>());
-	    TitanGraph titanGraph = titanCassandraStore.getTitanGraph();
-	    Iterable<Vertex> vertices = titanGraph.query().vertices();
-	    for (Vertex vertex : vertices) {
-		vertex.remove();
+	    AbstractTitanStore titanStore = (AbstractTitanStore) new TitanXOProvider()
+		    .createDatastore(xoUnit);
+	    try {
+		titanStore.init(new HashMap<Class<?>, TypeMetadata>());
+		TitanGraph titanGraph = titanStore.getTitanGraph();
+		Iterable<Vertex> vertices = titanGraph.query().vertices();
+		for (Vertex vertex : vertices) {
+		    vertex.remove();
+		}
+		titanGraph.commit();
+	    } finally {
+		titanStore.close();
 	    }
-	    titanGraph.commit();
-	} finally {
-	    titanCassandraStore.close();
 	}
     }
 
@@ -167,6 +189,8 @@ public class XOTitanTestUtils {
 
     /**
      * Drops the whole keyspace for XO-Titan for a completely clean startup.
+     * Only stores on Cassandra have a keyspace to be dropped, all other stores
+     * are left untouched.
      * 
      * @param xoUnit
      *            is the {@link XOUnit} which points to the to be dropped
@@ -174,27 +198,14 @@ public class XOTitanTestUtils {
      */
     public static void dropTitanKeyspace(XOUnit xoUnit) {
 	Class<?> provider = xoUnit.getProvider();
-	if (TitanXOProvider.class.equals(provider)) {
-	    dropTitanKeyspace(xoUnit.getUri());
-	}
-    }
-
-    /**
-     * Drops the whole keyspace for XO-Titan for a completely clean startup.
-     * 
-     * @param uri
-     *            is an {@link URI} pointing to the keyspace to be dropped.
-     */
-    private static void dropTitanKeyspace(URI uri) {
-	String host = uri.getHost();
-	int port = Integer.valueOf(9042);
-	String keyspace = TitanCassandraStore.retrieveKeyspaceFromURI(uri);
-
-	try (Cluster cluster = Cluster.builder().addContactPoint(host)
-		.withPort(port).build()) {
-	    try (Session session = cluster.connect()) {
-		session.execute("DROP KEYSPACE " + keyspace);
+	URI uri = xoUnit.getUri();
+	if (TitanXOProvider.class.equals(provider)
+		&& "titan-cassandra".equals(uri.getScheme())) {
+	    String keyspace = TitanCassandraStore.retrieveKeyspaceFromURI(uri);
+	    if (keyspace.isEmpty()) {
+		keyspace = TitanCassandraStore.DEFAULT_TITAN_KEYSPACE;
 	    }
+	    dropTitanKeyspace(uri.getHost(), keyspace);
 	}
     }
 
@@ -0,0 +1,60 @@
+package com.puresoltechnologies.xo.titan.test.bootstrap;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.Query;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+
+/**
+ * This test checks the bootstrap of an embedded BerkeleyDB Java Edition store
+ * which is located in the build directory.
+ *
+ * @author Rick-Rainer Ludwig
+ */
+@RunWith(Parameterized.class)
+public class TitanBerkeleyJEStoreBootstrapIT extends AbstractXOTitanTest {
+
+	public TitanBerkeleyJEStoreBootstrapIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getCdoUnits() throws URISyntaxException {
+		File directory = new File("target/titan-berkeleyje")
+				.getAbsoluteFile();
+		URI uri = new URI("titan-berkeleyje", null, directory.getPath(), null);
+		return XOTitanTestUtils.xoUnits(Arrays.asList(uri),
+				Arrays.asList(TestEntity.class));
+	}
+
+	@Test
+	public void bootstrap() {
+		XOManager xoManager = getXOManager();
+
+		xoManager.currentTransaction().begin();
+		TestEntity a = xoManager.create(TestEntity.class);
+		a.setName("Test");
+		xoManager.currentTransaction().commit();
+
+		xoManager.currentTransaction().begin();
+		Query<TestEntity> query = xoManager.createQuery(
+				"_().has('name','Test')", TestEntity.class);
+		TestEntity readA = query.execute().getSingleResult();
+		assertEquals(a.getName(), readA.getName());
+		xoManager.currentTransaction().commit();
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.puresoltechnologies.xo.titan.test.discriminator;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+
+@VertexDefinition("A")
+public interface A {
+
+	@Indexed
+	String getValue();
+
+	void setValue(String value);
+
+}
@@ -0,0 +1,10 @@
+package com.puresoltechnologies.xo.titan.test.discriminator;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
+
+@Gremlin(value = "_()", name = "b", start = "_xo_discriminators='B'")
+public interface AllB {
+
+	B getB();
+
+}
@@ -0,0 +1,7 @@
+package com.puresoltechnologies.xo.titan.test.discriminator;
+
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+
+@VertexDefinition("B")
+public interface B extends A {
+}
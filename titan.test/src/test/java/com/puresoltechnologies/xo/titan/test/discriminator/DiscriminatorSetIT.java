@@ -0,0 +1,155 @@
+package com.puresoltechnologies.xo.titan.test.discriminator;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.CompositeObject;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.AbstractTitanStore;
+import com.puresoltechnologies.xo.titan.impl.DiscriminatorLayout;
+import com.puresoltechnologies.xo.titan.impl.DiscriminatorMigration;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.tinkerpop.blueprints.Vertex;
+
+@RunWith(Parameterized.class)
+public class DiscriminatorSetIT extends AbstractXOTitanTest {
+
+	public DiscriminatorSetIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		Properties properties = new Properties();
+		properties.setProperty(
+				AbstractTitanStore.DISCRIMINATOR_LAYOUT_PROPERTY,
+				DiscriminatorLayout.DISCRIMINATOR_SET.name());
+		return XOTitanTestUtils.xoUnits(properties, A.class, B.class);
+	}
+
+	@Test
+	public void createAndFind() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		B b = xoManager.create(B.class);
+		b.setValue("Value");
+		Vertex vertex = ((CompositeObject) b).getDelegate();
+		assertThat(vertex.getPropertyKeys(), containsInAnyOrder(
+				TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY, "value"));
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.find(A.class, "Value").getSingleResult(),
+				equalTo((A) b));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void query() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		xoManager.create(A.class).setValue("A");
+		B b = xoManager.create(B.class);
+		b.setValue("B");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.createQuery(AllB.class).execute()
+				.getSingleResult().getB(), equalTo(b));
+		assertThat(
+				xoManager
+						.createQuery(
+								"_().filter{it.getProperty('"
+										+ TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY
+										+ "').contains('B')}", B.class)
+						.execute().getSingleResult(), equalTo(b));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void migrate() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		B b = xoManager.create(B.class);
+		b.setValue("Value");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.migrate(b, A.class);
+		assertThat(a.getValue(), equalTo("Value"));
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		A found = xoManager.find(A.class, "Value").getSingleResult();
+		assertThat(found instanceof B, equalTo(false));
+		assertThat(found.getValue(), equalTo("Value"));
+		assertThat(xoManager.createQuery(AllB.class).execute().hasResult(),
+				equalTo(false));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void migrateExistingGraph() {
+		XOManager xoManager = getXOManager();
+		TitanStoreSession session = xoManager
+				.getDatastoreSession(TitanStoreSession.class);
+		TitanGraph titanGraph = session.getTitanGraph();
+		xoManager.currentTransaction().begin();
+		Vertex vertex = session.getTitanTransaction().addVertex(null);
+		vertex.setProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY + "A",
+				"A");
+		vertex.setProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY + "B",
+				"B");
+		vertex.setProperty("value", "Old");
+		xoManager.currentTransaction().commit();
+		assertThat(new DiscriminatorMigration(titanGraph, 1).migrate(),
+				equalTo(1l));
+		assertThat(new DiscriminatorMigration(titanGraph).migrate(),
+				equalTo(0l));
+		xoManager.currentTransaction().begin();
+		A a = xoManager.find(A.class, "Old").getSingleResult();
+		assertThat(a instanceof B, equalTo(true));
+		Vertex migrated = ((CompositeObject) a).getDelegate();
+		assertThat(migrated.getProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
+				+ "A"), nullValue());
+		assertThat(
+				DiscriminatorLayout.DISCRIMINATOR_SET
+						.getDiscriminators(migrated),
+				containsInAnyOrder("A", "B"));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void migrateInBatches() {
+		XOManager xoManager = getXOManager();
+		TitanStoreSession session = xoManager
+				.getDatastoreSession(TitanStoreSession.class);
+		TitanGraph titanGraph = session.getTitanGraph();
+		xoManager.currentTransaction().begin();
+		for (int i = 0; i < 5; i++) {
+			Vertex vertex = session.getTitanTransaction().addVertex(null);
+			vertex.setProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
+					+ "A", "A");
+			vertex.setProperty("value", "Old" + i);
+		}
+		xoManager.currentTransaction().commit();
+		assertThat(new DiscriminatorMigration(titanGraph, 2).migrate(),
+				equalTo(5l));
+		xoManager.currentTransaction().begin();
+		for (int i = 0; i < 5; i++) {
+			assertThat(xoManager.find(A.class, "Old" + i).getSingleResult()
+					.getValue(), equalTo("Old" + i));
+		}
+		xoManager.currentTransaction().commit();
+	}
+}
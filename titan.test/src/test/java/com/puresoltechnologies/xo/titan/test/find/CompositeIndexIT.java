@@ -0,0 +1,87 @@
+package com.puresoltechnologies.xo.titan.test.find;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.Example;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.PropertyKey;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
+
+@RunWith(Parameterized.class)
+public class CompositeIndexIT extends AbstractXOTitanTest {
+
+	public CompositeIndexIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(Customer.class);
+	}
+
+	@Test
+	public void indexIsCreated() {
+		TitanGraph titanGraph = getXOManager().getDatastoreSession(
+				TitanStoreSession.class).getTitanGraph();
+		TitanManagement managementSystem = titanGraph.getManagementSystem();
+		try {
+			TitanGraphIndex index = managementSystem
+					.getGraphIndex("byTenantAndName");
+			assertThat(index, notNullValue());
+			List<String> keys = new ArrayList<>();
+			for (PropertyKey propertyKey : index.getFieldKeys()) {
+				keys.add(propertyKey.getName());
+			}
+			assertThat(keys, contains("tenant", "name"));
+		} finally {
+			managementSystem.rollback();
+		}
+	}
+
+	@Test
+	public void findByTenantAndName() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Customer customer1 = createCustomer(xoManager, "tenant1", "ACME");
+		createCustomer(xoManager, "tenant2", "ACME");
+		createCustomer(xoManager, "tenant1", "Initech");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		Customer customer = xoManager.find(new Example<Customer>() {
+			@Override
+			public void prepare(Customer example) {
+				example.setTenant("tenant1");
+				example.setName("ACME");
+			}
+		}, Customer.class).getSingleResult();
+		assertThat(customer, equalTo(customer1));
+		xoManager.currentTransaction().commit();
+	}
+
+	private Customer createCustomer(XOManager xoManager, String tenant,
+			String name) {
+		Customer customer = xoManager.create(Customer.class);
+		customer.setTenant(tenant);
+		customer.setName(name);
+		return customer;
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.puresoltechnologies.xo.titan.test.find;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+
+@VertexDefinition("Customer")
+public interface Customer {
+
+	@Indexed(group = "byTenantAndName", order = 0)
+	String getTenant();
+
+	void setTenant(String tenant);
+
+	@Indexed(group = "byTenantAndName", order = 1)
+	String getName();
+
+	void setName(String name);
+
+}
@@ -0,0 +1,121 @@
+package com.puresoltechnologies.xo.titan.test.find;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.Example;
+import com.buschmais.xo.api.ResultIterable;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.api.Condition;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+
+@RunWith(Parameterized.class)
+public class FindIT extends AbstractXOTitanTest {
+
+	private Person johnSmith;
+	private Person janeSmith;
+	private Person johnSmithers;
+	private Person johnDoe;
+
+	public FindIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(Person.class);
+	}
+
+	@Before
+	public void createData() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		johnSmith = createPerson(xoManager, "Smith", "John", 42);
+		janeSmith = createPerson(xoManager, "Smith", "Jane", 40);
+		johnSmithers = createPerson(xoManager, "Smithers", "John", 23);
+		johnDoe = createPerson(xoManager, "Doe", "John", 42);
+		xoManager.currentTransaction().commit();
+	}
+
+	private Person createPerson(XOManager xoManager, String lastName,
+			String firstName, int age) {
+		Person person = xoManager.create(Person.class);
+		person.setLastName(lastName);
+		person.setFirstName(firstName);
+		person.setAge(age);
+		return person;
+	}
+
+	private List<Person> toList(ResultIterable<Person> result) {
+		List<Person> persons = new ArrayList<>();
+		for (Person person : result) {
+			persons.add(person);
+		}
+		return persons;
+	}
+
+	@Test
+	public void findByExampleWithSeveralProperties() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Person person = xoManager.find(new Example<Person>() {
+			@Override
+			public void prepare(Person example) {
+				example.setLastName("Smith");
+				example.setFirstName("John");
+			}
+		}, Person.class).getSingleResult();
+		assertThat(person, equalTo(johnSmith));
+		assertThat(toList(xoManager.find(new Example<Person>() {
+			@Override
+			public void prepare(Person example) {
+				example.setFirstName("John");
+				example.setAge(42);
+			}
+		}, Person.class)), containsInAnyOrder(johnSmith, johnDoe));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void findByPrefix() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		assertThat(
+				toList(xoManager.find(Person.class, Condition.prefix("Smith"))),
+				containsInAnyOrder(johnSmith, janeSmith, johnSmithers));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void findByRange() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		assertThat(
+				toList(xoManager.find(Person.class,
+						Condition.between("Doe", "Smith"))),
+				containsInAnyOrder(johnDoe));
+		assertThat(
+				toList(xoManager.find(Person.class,
+						Condition.greaterThan("Smith"))),
+				containsInAnyOrder(johnSmithers));
+		assertThat(
+				toList(xoManager.find(Person.class,
+						Condition.lessThanEqual("Smith"))),
+				containsInAnyOrder(johnSmith, janeSmith, johnDoe));
+		xoManager.currentTransaction().commit();
+	}
+
+}
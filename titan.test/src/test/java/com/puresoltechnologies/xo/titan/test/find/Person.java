@@ -0,0 +1,22 @@
+package com.puresoltechnologies.xo.titan.test.find;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+
+@VertexDefinition("Person")
+public interface Person {
+
+	@Indexed
+	String getLastName();
+
+	void setLastName(String lastName);
+
+	String getFirstName();
+
+	void setFirstName(String firstName);
+
+	int getAge();
+
+	void setAge(int age);
+
+}
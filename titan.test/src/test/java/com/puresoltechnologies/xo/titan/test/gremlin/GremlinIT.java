@@ -13,8 +13,10 @@ import org.junit.runners.Parameterized;
 
 import com.buschmais.xo.api.Query;
 import com.buschmais.xo.api.Query.Result;
+import com.buschmais.xo.api.Query.Result.CompositeRowObject;
 import com.buschmais.xo.api.XOManager;
 import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
 import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
 import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
 import com.puresoltechnologies.xo.titan.test.data.Person;
@@ -57,4 +59,53 @@ public class GremlinIT extends AbstractXOTitanTest {
 
 		xoManager.currentTransaction().commit();
 	}
+
+	@Test
+	public void verticesInMapResultsAreEntities() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		CompositeRowObject row = xoManager
+				.createQuery(
+						"_().has('firstName', 'Luke').transform{['person' : it, 'name' : it.firstName]}")
+				.execute().getSingleResult();
+		assertEquals("Luke", row.get("name", String.class));
+		Person luke = row.get("person", Person.class);
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertEquals("Skywalker", luke.getLastName());
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void gettersSeeChangesOfGremlinScripts() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Person luke = xoManager
+				.createQuery("_().has('firstName', 'Luke')", Person.class)
+				.execute().getSingleResult();
+		assertEquals("Skywalker", luke.getLastName());
+		for (CompositeRowObject row : xoManager.createQuery(
+				"_().has('firstName', 'Luke').sideEffect{it.lastName = 'Lars'}")
+				.execute()) {
+			assertNotNull(row);
+		}
+		assertEquals("Lars", luke.getLastName());
+		xoManager.currentTransaction().rollback();
+	}
+
+	@Test
+	public void gettersSeeChangesOfTitanTransaction() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Person luke = xoManager
+				.createQuery("_().has('firstName', 'Luke')", Person.class)
+				.execute().getSingleResult();
+		assertEquals("Skywalker", luke.getLastName());
+		TitanStoreSession session = xoManager
+				.getDatastoreSession(TitanStoreSession.class);
+		session.getTitanTransaction().getVertex(xoManager.getId(luke))
+				.setProperty("lastName", "Lars");
+		assertEquals("Lars", luke.getLastName());
+		xoManager.currentTransaction().rollback();
+	}
 }
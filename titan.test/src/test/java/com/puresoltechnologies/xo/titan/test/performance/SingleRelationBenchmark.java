@@ -0,0 +1,126 @@
+package com.puresoltechnologies.xo.titan.test.performance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import com.buschmais.xo.api.ConcurrencyMode;
+import com.buschmais.xo.api.Transaction;
+import com.buschmais.xo.api.ValidationMode;
+import com.buschmais.xo.api.XOException;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.XOManagerFactory;
+import com.buschmais.xo.api.bootstrap.XO;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.puresoltechnologies.xo.titan.test.relation.typed.TreeNode;
+import com.puresoltechnologies.xo.titan.test.relation.typed.TreeNodeRelation;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * This benchmark compares a full count of the edges of a hub vertex with the
+ * limited query used for single valued relations. It is started with its main
+ * method, because the setup of the hub takes too long for the integration
+ * tests. The number of edges is set with the system property
+ * <code>xo.titan.benchmark.edges</code>.
+ */
+public class SingleRelationBenchmark {
+
+	private static final int NUMBER_OF_RUNS = 5;
+	private static final int COMMIT_SIZE = 10000;
+
+	public static void main(String[] args) {
+		int numberOfEdges = Integer.getInteger("xo.titan.benchmark.edges",
+				1000000);
+		Collection<XOUnit[]> xoUnits = XOTitanTestUtils.xoUnits(Arrays
+				.<Class<?>> asList(TreeNode.class, TreeNodeRelation.class),
+				Collections.<Class<?>> emptyList(), ValidationMode.NONE,
+				ConcurrencyMode.SINGLETHREADED,
+				Transaction.TransactionAttribute.MANDATORY);
+		assertThat(xoUnits, hasSize(1));
+		XOUnit[] xoUnit = xoUnits.iterator().next();
+		assertThat(xoUnit.length, is(1));
+		XOTitanTestUtils.clearTitanKeyspace(xoUnit[0]);
+		try (XOManagerFactory xoManagerFactory = XO
+				.createXOManagerFactory(xoUnit[0]);
+				XOManager xoManager = xoManagerFactory.createXOManager()) {
+			new SingleRelationBenchmark(xoManager, numberOfEdges).run();
+		}
+	}
+
+	private final XOManager xoManager;
+	private final TitanGraph titanGraph;
+	private final int numberOfEdges;
+
+	public SingleRelationBenchmark(XOManager xoManager, int numberOfEdges) {
+		this.xoManager = xoManager;
+		this.titanGraph = xoManager.getDatastoreSession(
+				TitanStoreSession.class).getTitanGraph();
+		this.numberOfEdges = numberOfEdges;
+	}
+
+	public void run() {
+		Object hubId = createHub();
+		for (int run = 0; run < NUMBER_OF_RUNS; run++) {
+			xoManager.currentTransaction().begin();
+			Vertex hub = titanGraph.getVertex(hubId);
+			long start = System.nanoTime();
+			long count = hub.query().direction(Direction.IN)
+					.labels("treeNodeRelation").count();
+			long countDuration = System.nanoTime() - start;
+			start = System.nanoTime();
+			long limited = 0;
+			for (@SuppressWarnings("unused")
+			Edge edge : hub.query().direction(Direction.IN)
+					.labels("treeNodeRelation").limit(2).edges()) {
+				limited++;
+			}
+			long limitDuration = System.nanoTime() - start;
+			TreeNode node = xoManager.findById(TreeNode.class, hubId);
+			start = System.nanoTime();
+			try {
+				node.getParent();
+				throw new IllegalStateException(
+						"Multiple parents were expected.");
+			} catch (XOException e) {
+				// Expected, because the hub has more than one parent edge.
+			}
+			long xoDuration = System.nanoTime() - start;
+			xoManager.currentTransaction().rollback();
+			System.out.println("run " + (run + 1) + ": count()=" + count
+					+ " in " + countDuration / 1000000 + " ms, limit(2)="
+					+ limited + " in " + limitDuration / 1000 + " us, "
+					+ "getParent() in " + xoDuration / 1000 + " us");
+		}
+	}
+
+	private Object createHub() {
+		xoManager.currentTransaction().begin();
+		TreeNode hub = xoManager.create(TreeNode.class);
+		hub.setName("hub");
+		TreeNode parent = xoManager.create(TreeNode.class);
+		parent.setName("parent");
+		Object hubId = xoManager.getId(hub);
+		Object parentId = xoManager.getId(parent);
+		xoManager.currentTransaction().commit();
+		for (int i = 0; i < numberOfEdges; i += COMMIT_SIZE) {
+			Vertex hubVertex = titanGraph.getVertex(hubId);
+			Vertex parentVertex = titanGraph.getVertex(parentId);
+			for (int j = i; j < Math.min(i + COMMIT_SIZE, numberOfEdges); j++) {
+				parentVertex.addEdge("treeNodeRelation", hubVertex);
+			}
+			titanGraph.commit();
+		}
+		System.out.println(numberOfEdges + " edges were created.");
+		return hubId;
+	}
+
+}
@@ -92,6 +92,7 @@ public class XOVsTitanNativePerformanceIT {
 	}
 
 	private final List<Measurement> xoMeasurements = new ArrayList<>();
+	private final List<Measurement> xoBulkLoadMeasurements = new ArrayList<>();
 	private final List<Measurement> nativeMeasurements = new ArrayList<>();
 
 	@Test
@@ -99,6 +100,9 @@ public class XOVsTitanNativePerformanceIT {
 		for (int i = 0; i < NUMBER_OF_RUNS; i++) {
 			runWithXO();
 		}
+		for (int i = 0; i < NUMBER_OF_RUNS; i++) {
+			runWithXOBulkLoad();
+		}
 		for (int i = 0; i < NUMBER_OF_RUNS; i++) {
 			runNative();
 		}
@@ -151,6 +155,52 @@ public class XOVsTitanNativePerformanceIT {
 		return counter;
 	}
 
+	public void runWithXOBulkLoad() {
+		XOTitanTestUtils.clearTitanKeyspace(xoManagerFactory.getXOUnit());
+		try (XOManager xoManager = xoManagerFactory.createXOManager()) {
+			xoManager.getDatastoreSession(TitanStoreSession.class).setBulkLoad(
+					true);
+
+			long start = System.currentTimeMillis();
+
+			xoManager.currentTransaction().begin();
+			TreeNode root = xoManager.create(TreeNode.class);
+			root.setName("1");
+
+			long counter = 1;
+			counter += addChildrenXOBulkLoad(xoManager, root, 2, "1");
+			xoManager.currentTransaction().commit();
+			long stop = System.currentTimeMillis();
+
+			Measurement measurement = new Measurement(counter, start, stop);
+
+			System.err.println("counter=" + measurement.getCounter());
+			System.err.println("time=" + measurement.getDuration() + "ms");
+			System.err.println("speed=" + measurement.getSpeed()
+					+ " vertizes/s");
+			xoBulkLoadMeasurements.add(measurement);
+		}
+	}
+
+	private long addChildrenXOBulkLoad(XOManager xoManager, TreeNode parent,
+			int i, String namePrefix) {
+		if (i > TREE_DEPTH) {
+			return 0;
+		}
+		long counter = 0;
+		for (int id = 1; id <= i; id++) {
+			String name = namePrefix + id;
+
+			TreeNode child = xoManager.create(TreeNode.class);
+			child.setName(name);
+			xoManager.create(parent, TreeNodeRelation.class, child);
+			counter++;
+
+			counter += addChildrenXOBulkLoad(xoManager, child, i + 1, name);
+		}
+		return counter;
+	}
+
 	public void runNative() {
 		XOTitanTestUtils.clearTitanKeyspace(xoManagerFactory.getXOUnit());
 		try (XOManager xoManager = xoManagerFactory.createXOManager()) {
@@ -204,6 +254,11 @@ public class XOVsTitanNativePerformanceIT {
 		System.out.println("===========");
 		print(xoMeasurements);
 		System.out.println();
+		System.out.println("=====================");
+		System.out.println("XO Bulk Load Results:");
+		System.out.println("=====================");
+		print(xoBulkLoadMeasurements);
+		System.out.println();
 		System.out.println("===============");
 		System.out.println("Native Results:");
 		System.out.println("===============");
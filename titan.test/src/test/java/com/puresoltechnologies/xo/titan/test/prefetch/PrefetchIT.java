@@ -0,0 +1,105 @@
+package com.puresoltechnologies.xo.titan.test.prefetch;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.puresoltechnologies.xo.titan.test.vertexcentric.Follows;
+import com.puresoltechnologies.xo.titan.test.vertexcentric.User;
+import com.tinkerpop.blueprints.Vertex;
+
+@RunWith(Parameterized.class)
+public class PrefetchIT extends AbstractXOTitanTest {
+
+	private Object followerId;
+
+	public PrefetchIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(User.class, Follows.class);
+	}
+
+	@Before
+	public void createFollows() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		User follower = xoManager.create(User.class);
+		follower.setName("follower");
+		for (int i = 1; i <= 5; i++) {
+			User followed = xoManager.create(User.class);
+			followed.setName("user" + i);
+			xoManager.create(follower, Follows.class, followed);
+		}
+		followerId = xoManager.getId(follower);
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void collectionIsPrefetchedInBatches() {
+		getTitanStoreSession().setPrefetchSize(2);
+		assertThat(readFollowedNames(), containsInAnyOrder("user1", "user2",
+				"user3", "user4", "user5"));
+	}
+
+	@Test
+	public void collectionWithoutPrefetching() {
+		getTitanStoreSession().setPrefetchSize(0);
+		assertThat(readFollowedNames(), containsInAnyOrder("user1", "user2",
+				"user3", "user4", "user5"));
+	}
+
+	@Test
+	public void explicitPrefetch() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		TitanStoreSession session = getTitanStoreSession();
+		List<Vertex> vertices = new ArrayList<>();
+		User follower = xoManager.findById(User.class, followerId);
+		for (Follows follows : follower.getFollowing()) {
+			vertices.add(session.getVertex(xoManager.getId(follows
+					.getFollowed())));
+		}
+		session.prefetch(vertices, "follows");
+		List<String> names = new ArrayList<>();
+		for (Vertex vertex : vertices) {
+			names.add(vertex.<String> getProperty("name"));
+		}
+		assertThat(names, containsInAnyOrder("user1", "user2", "user3",
+				"user4", "user5"));
+		xoManager.currentTransaction().commit();
+	}
+
+	private List<String> readFollowedNames() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		List<String> names = new ArrayList<>();
+		User follower = xoManager.findById(User.class, followerId);
+		for (Follows follows : follower.getFollowing()) {
+			names.add(follows.getFollowed().getName());
+		}
+		xoManager.currentTransaction().commit();
+		return names;
+	}
+
+	private TitanStoreSession getTitanStoreSession() {
+		return getXOManager().getDatastoreSession(TitanStoreSession.class);
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.puresoltechnologies.xo.titan.test.search;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+import com.thinkaurelius.titan.core.schema.Mapping;
+
+@VertexDefinition("Article")
+public interface Article {
+
+	@Indexed
+	@MixedIndexed(mapping = Mapping.TEXT)
+	String getText();
+
+	void setText(String text);
+
+}
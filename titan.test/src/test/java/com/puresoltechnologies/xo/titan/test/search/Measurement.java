@@ -0,0 +1,16 @@
+package com.puresoltechnologies.xo.titan.test.search;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+
+@VertexDefinition("Measurement")
+public interface Measurement {
+
+	@Indexed
+	@MixedIndexed
+	Integer getMeasuredValue();
+
+	void setMeasuredValue(Integer measuredValue);
+
+}
@@ -0,0 +1,172 @@
+package com.puresoltechnologies.xo.titan.test.search;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.ResultIterable;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.api.Condition;
+import com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanIndexQuery.Result;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
+import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
+import com.tinkerpop.blueprints.Vertex;
+
+@RunWith(Parameterized.class)
+public class MixedIndexIT extends AbstractXOTitanTest {
+
+	private static final String INDEX_DIRECTORY_PROPERTY = "titan.index.search.directory";
+
+	public MixedIndexIT(XOUnit xoUnit) {
+		super(xoUnit);
+		// Each test gets its own index, because the index is not cleared
+		// together with the graph.
+		xoUnit.getProperties().setProperty(
+				INDEX_DIRECTORY_PROPERTY,
+				new File("target/lucene/" + UUID.randomUUID())
+						.getAbsolutePath());
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		Properties properties = new Properties();
+		properties.setProperty("titan.index.search.backend", "lucene");
+		return XOTitanTestUtils.xoUnits(properties, Article.class, Tag.class,
+				Measurement.class, Place.class);
+	}
+
+	private <T> List<T> toList(ResultIterable<T> result) {
+		List<T> list = new ArrayList<>();
+		for (T t : result) {
+			list.add(t);
+		}
+		return list;
+	}
+
+	@Test
+	public void indexIsCreated() {
+		TitanGraph titanGraph = getXOManager().getDatastoreSession(
+				TitanStoreSession.class).getTitanGraph();
+		TitanManagement managementSystem = titanGraph.getManagementSystem();
+		try {
+			TitanGraphIndex index = managementSystem
+					.getGraphIndex(MixedIndexed.DEFAULT_VERTEX_INDEX);
+			assertTrue(index.isMixedIndex());
+			assertThat(index.getFieldKeys().length, equalTo(4));
+		} finally {
+			managementSystem.rollback();
+		}
+	}
+
+	@Test
+	public void fullText() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Article article1 = xoManager.create(Article.class);
+		article1.setText("Titan is a scalable graph database");
+		Article article2 = xoManager.create(Article.class);
+		article2.setText("Lucene is a search engine library");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(
+				toList(xoManager.find(Article.class,
+						Condition.contains("graph"))),
+				containsInAnyOrder(article1));
+		assertThat(
+				toList(xoManager.find(Article.class,
+						Condition.containsPrefix("sea"))),
+				containsInAnyOrder(article2));
+		TitanGraph titanGraph = xoManager.getDatastoreSession(
+				TitanStoreSession.class).getTitanGraph();
+		int hits = 0;
+		for (Result<Vertex> result : titanGraph.indexQuery(
+				MixedIndexed.DEFAULT_VERTEX_INDEX, "v.text:graph").vertices()) {
+			assertThat(result.getElement().getId(),
+					equalTo(xoManager.getId(article1)));
+			hits++;
+		}
+		assertThat(hits, equalTo(1));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void prefix() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Tag database = xoManager.create(Tag.class);
+		database.setName("database");
+		Tag data = xoManager.create(Tag.class);
+		data.setName("data");
+		Tag graph = xoManager.create(Tag.class);
+		graph.setName("graph");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(toList(xoManager.find(Tag.class, Condition.prefix("data"))),
+				containsInAnyOrder(database, data));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void numericRange() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		List<Measurement> measurements = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Measurement measurement = xoManager.create(Measurement.class);
+			measurement.setMeasuredValue(i);
+			measurements.add(measurement);
+		}
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(
+				toList(xoManager.find(Measurement.class,
+						Condition.between(3, 6))),
+				containsInAnyOrder(measurements.get(3), measurements.get(4),
+						measurements.get(5)));
+		assertThat(
+				toList(xoManager.find(Measurement.class,
+						Condition.greaterThan(8))),
+				containsInAnyOrder(measurements.get(9)));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void geo() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		Place berlin = xoManager.create(Place.class);
+		berlin.setLocation(Geoshape.point(52.52, 13.40));
+		Place potsdam = xoManager.create(Place.class);
+		potsdam.setLocation(Geoshape.point(52.40, 13.07));
+		Place munich = xoManager.create(Place.class);
+		munich.setLocation(Geoshape.point(48.14, 11.58));
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(
+				toList(xoManager.find(Place.class,
+						Condition.within(Geoshape.circle(52.52, 13.40, 50)))),
+				containsInAnyOrder(berlin, potsdam));
+		xoManager.currentTransaction().commit();
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.puresoltechnologies.xo.titan.test.search;
+
+import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+import com.thinkaurelius.titan.core.schema.Mapping;
+
+@VertexDefinition("Tag")
+public interface Tag {
+
+	@Indexed
+	@MixedIndexed(mapping = Mapping.STRING)
+	String getName();
+
+	void setName(String name);
+
+}
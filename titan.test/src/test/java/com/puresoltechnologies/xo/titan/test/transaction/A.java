@@ -21,6 +21,8 @@ public interface A {
 
 	List<B> getListOfB();
 
+	AToB getAToB();
+
 	@ImplementedBy(ThrowException.class)
 	void throwException(String value) throws Exception;
 
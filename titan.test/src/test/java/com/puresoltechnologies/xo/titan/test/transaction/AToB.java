@@ -0,0 +1,20 @@
+package com.puresoltechnologies.xo.titan.test.transaction;
+
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition;
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Incoming;
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Outgoing;
+
+@EdgeDefinition("AToB")
+public interface AToB {
+
+	@Outgoing
+	A getA();
+
+	@Incoming
+	B getB();
+
+	int getWeight();
+
+	void setWeight(int weight);
+
+}
@@ -9,4 +9,6 @@ public interface B {
 
     void setIntValue(int intValue);
 
+    AToB getAToB();
+
 }
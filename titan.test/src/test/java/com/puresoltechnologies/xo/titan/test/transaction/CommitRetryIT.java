@@ -0,0 +1,123 @@
+package com.puresoltechnologies.xo.titan.test.transaction;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.AbstractTitanStore;
+import com.puresoltechnologies.xo.titan.impl.CommitRetryPolicy;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
+
+@RunWith(Parameterized.class)
+public class CommitRetryIT extends AbstractXOTitanTest {
+
+	public CommitRetryIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		Properties properties = new Properties();
+		properties.setProperty(AbstractTitanStore.COMMIT_ATTEMPTS_PROPERTY,
+				"3");
+		properties.setProperty(AbstractTitanStore.COMMIT_BACKOFF_PROPERTY,
+				"10");
+		return XOTitanTestUtils.xoUnits(properties, A.class, B.class);
+	}
+
+	@Test
+	public void retriesAreEnabled() {
+		CommitRetryPolicy policy = getTitanStoreSession()
+				.getCommitRetryPolicy();
+		assertThat(policy.isRetryEnabled(), equalTo(true));
+		assertThat(policy.getAttempts(), equalTo(3));
+	}
+
+	@Test
+	public void changesAreCommittedAndCounted() {
+		CommitRetryPolicy policy = getTitanStoreSession()
+				.getCommitRetryPolicy();
+		long commits = policy.getCommits();
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value");
+		B b1 = xoManager.create(B.class);
+		b1.setIntValue(1);
+		B b2 = xoManager.create(B.class);
+		b2.setIntValue(2);
+		a.getListOfB().add(b1);
+		a.getListOfB().add(b2);
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		a.getListOfB().remove(b1);
+		xoManager.delete(b1);
+		a.setValue("other");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.find(A.class, "other").getSingleResult(),
+				equalTo(a));
+		assertThat(a.getListOfB().size(), equalTo(1));
+		assertThat(a.getListOfB().get(0).getIntValue(), equalTo(2));
+		xoManager.currentTransaction().commit();
+		assertThat(policy.getCommits() - commits >= 2, equalTo(true));
+		assertThat(policy.getFailedCommits(), equalTo(0l));
+	}
+
+	@Test
+	public void lockingConflictIsRetried() {
+		TitanGraph titanGraph = getTitanStoreSession().getTitanGraph();
+		TitanManagement managementSystem = titanGraph.getManagementSystem();
+		managementSystem.setConsistency(
+				managementSystem.getPropertyKey("value"),
+				ConsistencyModifier.LOCK);
+		managementSystem.commit();
+		CommitRetryPolicy policy = getTitanStoreSession()
+				.getCommitRetryPolicy();
+		long retriedCommits = policy.getRetriedCommits();
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value");
+		xoManager.currentTransaction().commit();
+		XOManager otherXOManager = getXOManagerFactory().createXOManager();
+		try {
+			xoManager.currentTransaction().begin();
+			a.setValue("first");
+			otherXOManager.currentTransaction().begin();
+			A otherA = otherXOManager.find(A.class, "value")
+					.getSingleResult();
+			otherA.setValue("second");
+			otherXOManager.currentTransaction().commit();
+			// the lock on the old value fails and the change is replayed
+			xoManager.currentTransaction().commit();
+		} finally {
+			otherXOManager.close();
+		}
+		assertThat(policy.getRetriedCommits() - retriedCommits, equalTo(1l));
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.find(A.class, "first").getSingleResult(),
+				equalTo(a));
+		assertThat(a.getValue(), equalTo("first"));
+		xoManager.currentTransaction().commit();
+	}
+
+	private TitanStoreSession getTitanStoreSession() {
+		return getXOManager().getDatastoreSession(TitanStoreSession.class);
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.puresoltechnologies.xo.titan.test.transaction;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.net.URISyntaxException;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOException;
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+
+@RunWith(Parameterized.class)
+public class ReadOnlySessionIT extends AbstractXOTitanTest {
+
+	private A a;
+	private B b;
+
+	public ReadOnlySessionIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(A.class, B.class);
+	}
+
+	@Before
+	public void createData() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		a = xoManager.create(A.class);
+		a.setValue("value");
+		b = xoManager.create(B.class);
+		b.setIntValue(1);
+		a.getListOfB().add(b);
+		xoManager.currentTransaction().commit();
+		getTitanStoreSession().setReadOnly(true);
+		xoManager.currentTransaction().begin();
+	}
+
+	@After
+	public void rollback() {
+		XOManager xoManager = getXOManager();
+		if (xoManager.currentTransaction().isActive()) {
+			xoManager.currentTransaction().rollback();
+		}
+		getTitanStoreSession().setReadOnly(false);
+	}
+
+	@Test
+	public void entitiesAndRelationsAreRead() {
+		XOManager xoManager = getXOManager();
+		assertThat(getTitanStoreSession().isReadOnly(), equalTo(true));
+		assertThat(xoManager.find(A.class, "value").getSingleResult(),
+				equalTo(a));
+		assertThat(a.getListOfB().size(), equalTo(1));
+		assertThat(a.getListOfB().get(0).getIntValue(), equalTo(1));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void entitiesCannotBeCreated() {
+		try {
+			getXOManager().create(A.class);
+			fail("A read-only session must not create entities.");
+		} catch (XOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void propertiesCannotBeChanged() {
+		try {
+			a.setValue("other");
+			fail("A read-only session must not change properties.");
+		} catch (XOException e) {
+			// expected
+		}
+		assertThat(a.getValue(), equalTo("value"));
+	}
+
+	@Test
+	public void relationsCannotBeCreated() {
+		try {
+			a.getListOfB().add(b);
+			fail("A read-only session must not create relations.");
+		} catch (XOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void entitiesCannotBeDeleted() {
+		try {
+			getXOManager().delete(a);
+			fail("A read-only session must not delete entities.");
+		} catch (XOException e) {
+			// expected
+		}
+	}
+
+	private TitanStoreSession getTitanStoreSession() {
+		return getXOManager().getDatastoreSession(TitanStoreSession.class);
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.puresoltechnologies.xo.titan.test.transaction;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
+import com.puresoltechnologies.xo.titan.impl.AbstractTitanStore;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+
+@RunWith(Parameterized.class)
+public class TransactionProfileIT extends AbstractXOTitanTest {
+
+	public TransactionProfileIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		Properties properties = new Properties();
+		properties.setProperty(
+				AbstractTitanStore.TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY,
+				"1000");
+		properties
+				.setProperty(
+						AbstractTitanStore.TRANSACTION_CHECK_INTERNAL_VERTEX_EXISTENCE_PROPERTY,
+						"false");
+		return XOTitanTestUtils.xoUnits(properties, A.class, B.class);
+	}
+
+	@Test
+	public void profileIsTakenFromXOUnit() {
+		TransactionProfile profile = getTitanStoreSession()
+				.getTransactionProfile();
+		assertThat(profile.getVertexCacheSize(), equalTo(1000));
+		assertThat(profile.getCheckInternalVertexExistence(), equalTo(false));
+		assertThat(profile.isReadOnly(), equalTo(false));
+	}
+
+	@Test
+	public void entitiesAreWrittenWithProfile() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.find(A.class, "value").getSingleResult(),
+				equalTo(a));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void readOnlyProfileForbidsChanges() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value");
+		xoManager.currentTransaction().commit();
+		TitanStoreSession session = getTitanStoreSession();
+		session.setTransactionProfile(session.getTransactionProfile()
+				.readOnly(true));
+		xoManager.currentTransaction().begin();
+		assertThat(a.getValue(), equalTo("value"));
+		try {
+			xoManager.create(A.class);
+			fail("A read-only transaction must not create entities.");
+		} catch (RuntimeException e) {
+			// expected
+		}
+		xoManager.currentTransaction().rollback();
+	}
+
+	private TitanStoreSession getTitanStoreSession() {
+		return getXOManager().getDatastoreSession(TitanStoreSession.class);
+	}
+
+}
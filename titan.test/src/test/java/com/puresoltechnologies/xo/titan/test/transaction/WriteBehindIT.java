@@ -0,0 +1,107 @@
+package com.puresoltechnologies.xo.titan.test.transaction;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.impl.AbstractTitanStore;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+
+@RunWith(Parameterized.class)
+public class WriteBehindIT extends AbstractXOTitanTest {
+
+	public WriteBehindIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		Properties properties = new Properties();
+		properties.setProperty(AbstractTitanStore.WRITE_BEHIND_PROPERTY,
+				"true");
+		return XOTitanTestUtils.xoUnits(properties, A.class, B.class,
+				AToB.class);
+	}
+
+	@Test
+	public void writeBehindIsEnabled() {
+		assertThat(getXOManager().getDatastoreSession(TitanStoreSession.class)
+				.isWriteBehind(), equalTo(true));
+	}
+
+	@Test
+	public void repeatedChangesAreCommitted() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value1");
+		a.setValue("value2");
+		a.setValue("value3");
+		assertThat(a.getValue(), equalTo("value3"));
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.find(A.class, "value3").getSingleResult(),
+				equalTo(a));
+		assertThat(a.getValue(), equalTo("value3"));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void queriesSeePendingChanges() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value1");
+		assertThat(xoManager.find(A.class, "value1").getSingleResult(),
+				equalTo(a));
+		a.setValue("value2");
+		assertThat(a.getByValue("value2").getA(), equalTo(a));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void rollbackDiscardsPendingChanges() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value1");
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		a.setValue("value2");
+		xoManager.currentTransaction().rollback();
+		xoManager.currentTransaction().begin();
+		assertThat(a.getValue(), equalTo("value1"));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void pendingChangesOfRemovedEdgesAreDropped() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		A a = xoManager.create(A.class);
+		a.setValue("value1");
+		B b = xoManager.create(B.class);
+		AToB aToB = xoManager.create(a, AToB.class, b);
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		aToB.setWeight(42);
+		xoManager.delete(b);
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		assertThat(xoManager.find(A.class, "value1").getSingleResult(),
+				equalTo(a));
+		xoManager.currentTransaction().commit();
+	}
+
+}
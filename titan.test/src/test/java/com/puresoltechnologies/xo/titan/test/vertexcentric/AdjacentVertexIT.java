@@ -0,0 +1,109 @@
+package com.puresoltechnologies.xo.titan.test.vertexcentric;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.api.RelationQuery;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.Order;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+@RunWith(Parameterized.class)
+public class AdjacentVertexIT extends AbstractXOTitanTest {
+
+	private Object followerId;
+
+	public AdjacentVertexIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(User.class, Follows.class);
+	}
+
+	@Before
+	public void createFollows() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		User follower = xoManager.create(User.class);
+		follower.setName("follower");
+		for (long since = 1; since <= 5; since++) {
+			User followed = xoManager.create(User.class);
+			followed.setName("user" + since);
+			xoManager.create(follower, Follows.class, followed).setSince(
+					since);
+		}
+		followerId = xoManager.getId(follower);
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void adjacentVertices() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		TitanStoreSession session = getTitanStoreSession();
+		Vertex vertex = session.getVertex(followerId);
+		List<String> names = new ArrayList<>();
+		for (Vertex followed : session.getAdjacentVertices(vertex, "follows",
+				Direction.OUT, new RelationQuery().orderBy("since", Order.DESC)
+						.offset(1).limit(2))) {
+			names.add(followed.<String> getProperty("name"));
+		}
+		assertThat(names, contains("user4", "user3"));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void adjacentVertexIds() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		TitanStoreSession session = getTitanStoreSession();
+		Vertex vertex = session.getVertex(followerId);
+		List<String> names = new ArrayList<>();
+		for (Long id : session.getAdjacentVertexIds(vertex, "follows",
+				Direction.OUT, new RelationQuery().orderBy("since", Order.ASC)
+						.limit(3))) {
+			names.add(xoManager.findById(User.class, id).getName());
+		}
+		assertThat(names, contains("user1", "user2", "user3"));
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void singleReferenceAfterChange() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		User follower = xoManager.findById(User.class, followerId);
+		Follows follows = follower.getFollowing().get(0);
+		User followed = follows.getFollowed();
+		assertThat(follows.getFollower(), equalTo(follower));
+		xoManager.delete(follows);
+		Follows newFollows = xoManager.create(followed, Follows.class,
+				follower);
+		assertThat(newFollows.getFollower(), equalTo(followed));
+		assertThat(newFollows.getFollowed(), equalTo(follower));
+		xoManager.currentTransaction().commit();
+	}
+
+	private TitanStoreSession getTitanStoreSession() {
+		return getXOManager().getDatastoreSession(TitanStoreSession.class);
+	}
+
+}
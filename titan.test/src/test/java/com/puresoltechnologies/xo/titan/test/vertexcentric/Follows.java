@@ -0,0 +1,24 @@
+package com.puresoltechnologies.xo.titan.test.vertexcentric;
+
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition;
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Incoming;
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Outgoing;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexCentricIndex;
+import com.thinkaurelius.titan.core.Order;
+import com.tinkerpop.blueprints.Direction;
+
+@EdgeDefinition("follows")
+@VertexCentricIndex(name = "followsBySince", keys = "since", direction = Direction.OUT, order = Order.DESC)
+public interface Follows {
+
+	long getSince();
+
+	void setSince(long since);
+
+	@Outgoing
+	User getFollower();
+
+	@Incoming
+	User getFollowed();
+
+}
@@ -0,0 +1,109 @@
+package com.puresoltechnologies.xo.titan.test.vertexcentric;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.api.RelationQuery;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.Order;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+@RunWith(Parameterized.class)
+public class RelationPagingIT extends AbstractXOTitanTest {
+
+	private Object followerId;
+
+	public RelationPagingIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(User.class, Follows.class);
+	}
+
+	@Before
+	public void createFollows() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		User follower = xoManager.create(User.class);
+		follower.setName("follower");
+		for (long since = 1; since <= 10; since++) {
+			User followed = xoManager.create(User.class);
+			followed.setName("user" + since);
+			xoManager.create(follower, Follows.class, followed).setSince(
+					since);
+		}
+		followerId = xoManager.getId(follower);
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void pagesWithCursor() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		List<List<Long>> pages = new ArrayList<>();
+		Long cursor = null;
+		do {
+			RelationQuery query = new RelationQuery().orderBy("since",
+					Order.DESC).limit(4);
+			if (cursor != null) {
+				query.after(cursor);
+			}
+			List<Long> page = getSince(query);
+			pages.add(page);
+			cursor = page.isEmpty() ? null : page.get(page.size() - 1);
+		} while (cursor != null);
+		assertThat(pages.get(0), contains(10l, 9l, 8l, 7l));
+		assertThat(pages.get(1), contains(6l, 5l, 4l, 3l));
+		assertThat(pages.get(2), contains(2l, 1l));
+		assertThat(pages.get(3), empty());
+		xoManager.currentTransaction().commit();
+	}
+
+	@Test
+	public void pagesWithOffset() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		assertThat(
+				getSince(new RelationQuery().orderBy("since", Order.ASC)
+						.offset(3).limit(3)), contains(4l, 5l, 6l));
+		assertThat(
+				getSince(new RelationQuery().orderBy("since", Order.ASC)
+						.offset(8).limit(3)), contains(9l, 10l));
+		assertThat(
+				getSince(new RelationQuery().orderBy("since", Order.ASC)
+						.offset(10)), empty());
+		xoManager.currentTransaction().commit();
+	}
+
+	private List<Long> getSince(RelationQuery query) {
+		TitanStoreSession session = getXOManager().getDatastoreSession(
+				TitanStoreSession.class);
+		Vertex vertex = session.getVertex(followerId);
+		List<Long> since = new ArrayList<>();
+		for (Edge edge : session.getRelations(vertex, "follows",
+				Direction.OUT, query)) {
+			since.add(edge.<Long> getProperty("since"));
+		}
+		return since;
+	}
+
+}
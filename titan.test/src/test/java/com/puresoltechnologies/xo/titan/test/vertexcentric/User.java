@@ -0,0 +1,22 @@
+package com.puresoltechnologies.xo.titan.test.vertexcentric;
+
+import java.util.List;
+
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Incoming;
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Outgoing;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+
+@VertexDefinition("User")
+public interface User {
+
+	String getName();
+
+	void setName(String name);
+
+	@Outgoing
+	List<Follows> getFollowing();
+
+	@Incoming
+	List<Follows> getFollowers();
+
+}
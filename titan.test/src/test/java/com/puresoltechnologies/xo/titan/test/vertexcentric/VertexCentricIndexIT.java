@@ -0,0 +1,113 @@
+package com.puresoltechnologies.xo.titan.test.vertexcentric;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.buschmais.xo.api.XOManager;
+import com.buschmais.xo.api.bootstrap.XOUnit;
+import com.puresoltechnologies.xo.titan.api.Condition;
+import com.puresoltechnologies.xo.titan.api.RelationQuery;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreEdgeManager;
+import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
+import com.puresoltechnologies.xo.titan.test.AbstractXOTitanTest;
+import com.puresoltechnologies.xo.titan.test.XOTitanTestUtils;
+import com.thinkaurelius.titan.core.Order;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.schema.RelationTypeIndex;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+@RunWith(Parameterized.class)
+public class VertexCentricIndexIT extends AbstractXOTitanTest {
+
+	public VertexCentricIndexIT(XOUnit xoUnit) {
+		super(xoUnit);
+	}
+
+	@Parameterized.Parameters
+	public static Collection<XOUnit[]> getXOUnits() throws URISyntaxException {
+		return XOTitanTestUtils.xoUnits(User.class, Follows.class);
+	}
+
+	@Test
+	public void indexIsCreated() {
+		TitanGraph titanGraph = getTitanStoreSession().getTitanGraph();
+		TitanManagement managementSystem = titanGraph.getManagementSystem();
+		try {
+			RelationTypeIndex index = managementSystem.getRelationIndex(
+					managementSystem.getEdgeLabel("follows"), "followsBySince");
+			assertThat(index, notNullValue());
+			assertThat(index.getDirection(), equalTo(Direction.OUT));
+			assertThat(index.getSortOrder(), equalTo(Order.DESC));
+			assertThat(index.getSortKey()[0].getName(), equalTo("since"));
+		} finally {
+			managementSystem.rollback();
+		}
+	}
+
+	@Test
+	public void orderedLimitedAndFilteredRelations() {
+		XOManager xoManager = getXOManager();
+		xoManager.currentTransaction().begin();
+		User follower = createUser(xoManager, "follower");
+		for (long since = 1; since <= 10; since++) {
+			User followed = createUser(xoManager, "user" + since);
+			Follows follows = xoManager.create(follower, Follows.class,
+					followed);
+			follows.setSince(since);
+		}
+		xoManager.currentTransaction().commit();
+		xoManager.currentTransaction().begin();
+		TitanStoreSession session = getTitanStoreSession();
+		Vertex vertex = session.getVertex(xoManager.getId(follower));
+		TitanStoreEdgeManager edgeManager = (TitanStoreEdgeManager) session
+				.getDatastoreRelationManager();
+		assertThat(
+				getSince(edgeManager.getRelations(vertex, "follows",
+						Direction.OUT, new RelationQuery().orderBy("since",
+								Order.DESC).limit(3))), contains(10l, 9l, 8l));
+		assertThat(
+				getSince(edgeManager.getRelations(vertex, "follows",
+						Direction.OUT,
+						new RelationQuery().has("since",
+								Condition.between(4l, 7l)).orderBy("since",
+								Order.ASC))), contains(4l, 5l, 6l));
+		assertThat(
+				getSince(edgeManager.getRelations(vertex, "follows",
+						Direction.OUT, new RelationQuery().has("since", 2l))),
+				contains(2l));
+		xoManager.currentTransaction().commit();
+	}
+
+	private TitanStoreSession getTitanStoreSession() {
+		return getXOManager().getDatastoreSession(TitanStoreSession.class);
+	}
+
+	private User createUser(XOManager xoManager, String name) {
+		User user = xoManager.create(User.class);
+		user.setName(name);
+		return user;
+	}
+
+	private List<Long> getSince(Iterable<Edge> edges) {
+		List<Long> since = new ArrayList<>();
+		for (Edge edge : edges) {
+			since.add(edge.<Long> getProperty("since"));
+		}
+		return since;
+	}
+
+}
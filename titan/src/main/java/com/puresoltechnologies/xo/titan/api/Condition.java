@@ -0,0 +1,203 @@
+package com.puresoltechnologies.xo.titan.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.thinkaurelius.titan.core.attribute.Cmp;
+import com.thinkaurelius.titan.core.attribute.Geo;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
+import com.thinkaurelius.titan.core.attribute.Text;
+import com.thinkaurelius.titan.core.schema.Mapping;
+import com.tinkerpop.blueprints.Predicate;
+import com.tinkerpop.blueprints.Query;
+
+/**
+ * <p>
+ * This class contains a condition for an indexed property which is more than
+ * an exact match. A condition is given as value to the find method of the
+ * XOManager:
+ * </p>
+ * 
+ * <pre>
+ * xoManager.find(Person.class, Condition.prefix(&quot;Sm&quot;));
+ * xoManager.find(Person.class, Condition.between(&quot;A&quot;, &quot;N&quot;));
+ * </pre>
+ * <p>
+ * The condition is applied to the indexed property of the type. Titan answers
+ * the conditions with a mixed index on the property, which is declared with
+ * {@link com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed}.
+ * Otherwise the vertices found with the discriminator index are filtered.
+ * Full-text conditions need the mapping {@link Mapping#TEXT} and prefix
+ * conditions the mapping {@link Mapping#STRING} in the mixed index.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public final class Condition {
+
+    /**
+     * Creates a condition for all values greater than the given value.
+     * 
+     * @param value
+     *            is the exclusive lower bound.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition greaterThan(Comparable<?> value) {
+	return new Condition(Cmp.GREATER_THAN, value);
+    }
+
+    /**
+     * Creates a condition for all values greater than or equal to the given
+     * value.
+     * 
+     * @param value
+     *            is the inclusive lower bound.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition greaterThanEqual(Comparable<?> value) {
+	return new Condition(Cmp.GREATER_THAN_EQUAL, value);
+    }
+
+    /**
+     * Creates a condition for all values less than the given value.
+     * 
+     * @param value
+     *            is the exclusive upper bound.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition lessThan(Comparable<?> value) {
+	return new Condition(Cmp.LESS_THAN, value);
+    }
+
+    /**
+     * Creates a condition for all values less than or equal to the given
+     * value.
+     * 
+     * @param value
+     *            is the inclusive upper bound.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition lessThanEqual(Comparable<?> value) {
+	return new Condition(Cmp.LESS_THAN_EQUAL, value);
+    }
+
+    /**
+     * Creates a condition for all values within the given range.
+     * 
+     * @param lower
+     *            is the inclusive lower bound.
+     * @param upper
+     *            is the exclusive upper bound.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition between(Comparable<?> lower, Comparable<?> upper) {
+	return greaterThanEqual(lower).and(Cmp.LESS_THAN, upper);
+    }
+
+    /**
+     * Creates a condition for all string values starting with the given
+     * prefix.
+     * 
+     * @param prefix
+     *            is the prefix of the values.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition prefix(String prefix) {
+	return new Condition(Text.PREFIX, prefix);
+    }
+
+    /**
+     * Creates a full-text condition for all string values containing the
+     * given word.
+     * 
+     * @param word
+     *            is the word to be contained.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition contains(String word) {
+	return new Condition(Text.CONTAINS, word);
+    }
+
+    /**
+     * Creates a full-text condition for all string values containing a word
+     * with the given prefix.
+     * 
+     * @param prefix
+     *            is the prefix of a contained word.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition containsPrefix(String prefix) {
+	return new Condition(Text.CONTAINS_PREFIX, prefix);
+    }
+
+    /**
+     * Creates a geo condition for all {@link Geoshape} values within the
+     * given shape.
+     * 
+     * @param shape
+     *            is the shape, for example a {@link Geoshape#circle(double,
+     *            double, double)}.
+     * @return A {@link Condition} is returned.
+     */
+    public static Condition within(Geoshape shape) {
+	return new Condition(Geo.WITHIN, shape);
+    }
+
+    private final List<Predicate> predicates;
+    private final List<Object> values;
+
+    private Condition(Predicate predicate, Object value) {
+	this(Collections.<Predicate> emptyList(), Collections.emptyList(),
+		predicate, value);
+    }
+
+    private Condition(List<Predicate> predicates, List<Object> values,
+	    Predicate predicate, Object value) {
+	if (value == null) {
+	    throw new IllegalArgumentException(
+		    "The value of a condition must not be null.");
+	}
+	List<Predicate> newPredicates = new ArrayList<>(predicates);
+	newPredicates.add(predicate);
+	List<Object> newValues = new ArrayList<>(values);
+	newValues.add(value);
+	this.predicates = Collections.unmodifiableList(newPredicates);
+	this.values = Collections.unmodifiableList(newValues);
+    }
+
+    private Condition and(Predicate predicate, Object value) {
+	return new Condition(predicates, values, predicate, value);
+    }
+
+    /**
+     * Adds this condition for the given property key to a graph or vertex
+     * query.
+     * 
+     * @param query
+     *            is the query to add the condition to.
+     * @param key
+     *            is the name of the property key.
+     * @return The query is returned for chaining.
+     */
+    @SuppressWarnings("unchecked")
+    public <Q extends Query> Q applyTo(Q query, String key) {
+	for (int i = 0; i < predicates.size(); i++) {
+	    query = (Q) query.has(key, predicates.get(i), values.get(i));
+	}
+	return query;
+    }
+
+    @Override
+    public String toString() {
+	StringBuilder builder = new StringBuilder();
+	for (int i = 0; i < predicates.size(); i++) {
+	    if (i > 0) {
+		builder.append(" and ");
+	    }
+	    builder.append(predicates.get(i)).append(' ').append(values.get(i));
+	}
+	return builder.toString();
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.puresoltechnologies.xo.titan.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.buschmais.xo.api.XOException;
+import com.thinkaurelius.titan.core.Order;
+import com.thinkaurelius.titan.core.TitanVertexQuery;
+import com.thinkaurelius.titan.core.attribute.Cmp;
+
+/**
+ * <p>
+ * This class contains the filter, the order and the limit for the navigation
+ * of the edges of a vertex:
+ * </p>
+ * 
+ * <pre>
+ * new RelationQuery().has(&quot;since&quot;, Condition.greaterThan(date))
+ * 	.orderBy(&quot;since&quot;, Order.DESC).limit(50);
+ * </pre>
+ * <p>
+ * Everything is handed over to the Titan vertex query. Only with a
+ * vertex-centric index on the used properties, declared with
+ * {@link com.puresoltechnologies.xo.titan.api.annotation.VertexCentricIndex},
+ * the query reads just the matching part of the adjacency list.
+ * </p>
+ * <p>
+ * Pages are read either with an offset or with a cursor. The offset skips the
+ * given number of edges, which still need to be read. The cursor is the value
+ * of the order key of the last edge of the previous page, so that the next
+ * page starts directly behind it:
+ * </p>
+ * 
+ * <pre>
+ * new RelationQuery().orderBy(&quot;since&quot;, Order.DESC).after(lastSince)
+ * 	.limit(50);
+ * </pre>
+ * <p>
+ * Edges with the same value of the order key as the cursor are skipped, so
+ * the order key should be unique for the edges of a vertex when cursors are
+ * used.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class RelationQuery {
+
+    private final Map<String, Object> conditions = new LinkedHashMap<>();
+    private String orderKey = null;
+    private Order order = Order.ASC;
+    private int limit = -1;
+    private int offset = 0;
+    private Object cursor = null;
+
+    /**
+     * Adds a condition for an edge property. All conditions need to be
+     * fulfilled.
+     * 
+     * @param key
+     *            is the name of the edge property.
+     * @param value
+     *            is the value of the property or a {@link Condition}.
+     * @return This query is returned for chaining.
+     */
+    public RelationQuery has(String key, Object value) {
+	if (value == null) {
+	    throw new IllegalArgumentException(
+		    "The value for key '" + key + "' must not be null.");
+	}
+	conditions.put(key, value);
+	return this;
+    }
+
+    /**
+     * Sets the edge property to order the edges by.
+     * 
+     * @param key
+     *            is the name of the edge property.
+     * @param order
+     *            is the sort {@link Order}.
+     * @return This query is returned for chaining.
+     */
+    public RelationQuery orderBy(String key, Order order) {
+	this.orderKey = key;
+	this.order = order;
+	return this;
+    }
+
+    /**
+     * Sets the maximum number of edges to be returned.
+     * 
+     * @param limit
+     *            is the maximum number of edges. It must not be negative.
+     * @return This query is returned for chaining.
+     */
+    public RelationQuery limit(int limit) {
+	if (limit < 0) {
+	    throw new IllegalArgumentException(
+		    "The limit must not be negative, but was '" + limit + "'.");
+	}
+	this.limit = limit;
+	return this;
+    }
+
+    /**
+     * Sets the number of edges to be skipped before the first returned edge.
+     * 
+     * @param offset
+     *            is the number of edges to be skipped. It must not be
+     *            negative.
+     * @return This query is returned for chaining.
+     */
+    public RelationQuery offset(int offset) {
+	if (offset < 0) {
+	    throw new IllegalArgumentException(
+		    "The offset must not be negative, but was '" + offset + "'.");
+	}
+	this.offset = offset;
+	return this;
+    }
+
+    /**
+     * Sets the cursor to start behind. Only edges with a value of the order
+     * key behind the cursor in the sort order are returned. A cursor needs an
+     * order key set with {@link #orderBy(String, Order)}.
+     * 
+     * @param cursor
+     *            is the value of the order key of the last edge of the
+     *            previous page.
+     * @return This query is returned for chaining.
+     */
+    public RelationQuery after(Object cursor) {
+	if (cursor == null) {
+	    throw new IllegalArgumentException("The cursor must not be null.");
+	}
+	this.cursor = cursor;
+	return this;
+    }
+
+    /**
+     * @return The conditions are returned, keyed by the property names.
+     */
+    public Map<String, Object> getConditions() {
+	return Collections.unmodifiableMap(conditions);
+    }
+
+    /**
+     * @return The name of the property to order by is returned or
+     *         <code>null</code>, if the edges are not ordered.
+     */
+    public String getOrderKey() {
+	return orderKey;
+    }
+
+    /**
+     * @return The sort {@link Order} is returned.
+     */
+    public Order getOrder() {
+	return order;
+    }
+
+    /**
+     * @return The limit is returned or -1, if the number of edges is not
+     *         limited.
+     */
+    public int getLimit() {
+	return limit;
+    }
+
+    /**
+     * @return The number of edges to be skipped is returned.
+     */
+    public int getOffset() {
+	return offset;
+    }
+
+    /**
+     * @return The cursor is returned or <code>null</code>, if no cursor is
+     *         set.
+     */
+    public Object getCursor() {
+	return cursor;
+    }
+
+    /**
+     * Adds the conditions, the cursor, the order and the limit to a vertex
+     * query. The limit includes the offset, because the offset cannot be
+     * handed over to Titan. The edges of the offset need to be skipped by the
+     * caller.
+     * 
+     * @param query
+     *            is the vertex query to be restricted.
+     * @return The query is returned for chaining.
+     */
+    public TitanVertexQuery<?> applyTo(TitanVertexQuery<?> query) {
+	for (Entry<String, Object> condition : conditions.entrySet()) {
+	    if (condition.getValue() instanceof Condition) {
+		query = ((Condition) condition.getValue()).applyTo(query,
+			condition.getKey());
+	    } else {
+		query = query.has(condition.getKey(), condition.getValue());
+	    }
+	}
+	if (cursor != null) {
+	    if (orderKey == null) {
+		throw new XOException("The cursor '" + cursor
+			+ "' needs an order key.");
+	    }
+	    query = query.has(orderKey,
+		    order == Order.DESC ? Cmp.LESS_THAN : Cmp.GREATER_THAN,
+		    cursor);
+	}
+	if (orderKey != null) {
+	    query = query.orderBy(orderKey, order);
+	}
+	if (limit >= 0) {
+	    query = query.limit(limit + offset);
+	}
+	return query;
+    }
+
+}
@@ -1,12 +1,17 @@
 package com.puresoltechnologies.xo.titan.api;
 
+import java.io.File;
 import java.net.URI;
 
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.api.bootstrap.XOUnit;
 import com.buschmais.xo.spi.bootstrap.XODatastoreProvider;
 import com.buschmais.xo.spi.datastore.Datastore;
+import com.puresoltechnologies.xo.titan.impl.AbstractTitanStore;
+import com.puresoltechnologies.xo.titan.impl.TitanBerkeleyJEStore;
 import com.puresoltechnologies.xo.titan.impl.TitanCassandraStore;
+import com.puresoltechnologies.xo.titan.impl.TitanHBaseStore;
+import com.puresoltechnologies.xo.titan.impl.TitanInMemoryStore;
 import com.puresoltechnologies.xo.titan.impl.TitanStoreSession;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanEdgeMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexMetadata;
@@ -33,6 +38,27 @@ public class TitanXOProvider
     private static final String TITAN_CASSANDRA_SCHEME = TITAN_SCHEME_PREFIX
 	    + "cassandra";
 
+    /**
+     * This constant contains {@value #TITAN_HBASE_SCHEME} as protocol a Titan
+     * store provider on HBase.
+     */
+    private static final String TITAN_HBASE_SCHEME = TITAN_SCHEME_PREFIX
+	    + "hbase";
+
+    /**
+     * This constant contains {@value #TITAN_BERKELEYJE_SCHEME} as protocol a
+     * Titan store provider on an embedded BerkeleyDB Java Edition.
+     */
+    private static final String TITAN_BERKELEYJE_SCHEME = TITAN_SCHEME_PREFIX
+	    + "berkeleyje";
+
+    /**
+     * This constant contains {@value #TITAN_INMEMORY_SCHEME} as protocol a
+     * Titan store provider which keeps the graph in memory only.
+     */
+    private static final String TITAN_INMEMORY_SCHEME = TITAN_SCHEME_PREFIX
+	    + "inmemory";
+
     @Override
     public Datastore<TitanStoreSession, TitanVertexMetadata, String, TitanEdgeMetadata, String> createDatastore(
 	    XOUnit xoUnit) {
@@ -48,12 +74,25 @@ public class TitanXOProvider
 	    throw new XOException("Only URIs starting with '"
 		    + TITAN_SCHEME_PREFIX + "' are supported by this store.");
 	}
-	String host = uri.getHost();
-	int port = uri.getPort();
-	String keyspace = TitanCassandraStore.retrieveKeyspaceFromURI(uri);
 	switch (scheme) {
 	case TITAN_CASSANDRA_SCHEME:
-	    return new TitanCassandraStore(host, port, keyspace);
+	    return new TitanCassandraStore(uri.getHost(), uri.getPort(),
+		    TitanCassandraStore.retrieveKeyspaceFromURI(uri),
+		    xoUnit.getProperties());
+	case TITAN_HBASE_SCHEME:
+	    return new TitanHBaseStore(uri.getHost(), uri.getPort(),
+		    AbstractTitanStore.retrieveNameFromURI(uri),
+		    xoUnit.getProperties());
+	case TITAN_BERKELEYJE_SCHEME:
+	    String path = uri.getPath();
+	    if ((path == null) || (path.isEmpty()) || ("/".equals(path))) {
+		throw new XOException("No directory is specified in URI '"
+			+ uri + "' for the BerkeleyDB store.");
+	    }
+	    return new TitanBerkeleyJEStore(new File(path),
+		    xoUnit.getProperties());
+	case TITAN_INMEMORY_SCHEME:
+	    return new TitanInMemoryStore(xoUnit.getProperties());
 	default:
 	    throw new XOException("Scheme '" + scheme
 		    + "' is not supported by this store.");
@@ -0,0 +1,294 @@
+package com.puresoltechnologies.xo.titan.api;
+
+import java.util.concurrent.TimeUnit;
+
+import com.thinkaurelius.titan.core.TransactionBuilder;
+
+/**
+ * <p>
+ * This class contains the options of the Titan transactions opened by a
+ * session. Options which are not set keep the Titan defaults:
+ * </p>
+ * 
+ * <pre>
+ * new TransactionProfile().readOnly(true).consistencyChecks(false)
+ * 	.vertexCacheSize(50000);
+ * </pre>
+ * <p>
+ * Read-only sessions for reporting may skip locking and consistency checks,
+ * while sessions of bulk writers may skip the vertex existence checks. The
+ * profile of a session is set with the XOUnit properties of the store or
+ * with
+ * {@link com.puresoltechnologies.xo.titan.impl.TitanStoreSession#setTransactionProfile(TransactionProfile)}
+ * and is applied to each Titan transaction opened afterwards.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class TransactionProfile {
+
+    private Boolean readOnly = null;
+    private Integer vertexCacheSize = null;
+    private Boolean checkInternalVertexExistence = null;
+    private Boolean checkExternalVertexExistence = null;
+    private Boolean consistencyChecks = null;
+    private Long commitTime = null;
+    private TimeUnit commitTimeUnit = null;
+    private String logIdentifier = null;
+
+    /**
+     * This is the default constructor for a profile with the Titan defaults.
+     */
+    public TransactionProfile() {
+    }
+
+    /**
+     * This is the copy constructor.
+     * 
+     * @param profile
+     *            is the profile to be copied.
+     */
+    public TransactionProfile(TransactionProfile profile) {
+	this.readOnly = profile.readOnly;
+	this.vertexCacheSize = profile.vertexCacheSize;
+	this.checkInternalVertexExistence = profile.checkInternalVertexExistence;
+	this.checkExternalVertexExistence = profile.checkExternalVertexExistence;
+	this.consistencyChecks = profile.consistencyChecks;
+	this.commitTime = profile.commitTime;
+	this.commitTimeUnit = profile.commitTimeUnit;
+	this.logIdentifier = profile.logIdentifier;
+    }
+
+    /**
+     * Sets whether the transactions are read-only. Read-only transactions
+     * cannot change the graph.
+     * 
+     * @param readOnly
+     *            is to be set to <code>true</code> for read-only
+     *            transactions.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile readOnly(boolean readOnly) {
+	this.readOnly = readOnly;
+	return this;
+    }
+
+    /**
+     * Sets the number of vertices kept in the vertex cache of a transaction.
+     * 
+     * @param vertexCacheSize
+     *            is the number of vertices. It must not be negative.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile vertexCacheSize(int vertexCacheSize) {
+	if (vertexCacheSize < 0) {
+	    throw new IllegalArgumentException(
+		    "The vertex cache size must not be negative, but was '"
+			    + vertexCacheSize + "'.");
+	}
+	this.vertexCacheSize = vertexCacheSize;
+	return this;
+    }
+
+    /**
+     * Sets whether the existence of vertices read by id is checked against
+     * the storage backend.
+     * 
+     * @param checkInternalVertexExistence
+     *            is to be set to <code>false</code> to skip the check.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile checkInternalVertexExistence(
+	    boolean checkInternalVertexExistence) {
+	this.checkInternalVertexExistence = checkInternalVertexExistence;
+	return this;
+    }
+
+    /**
+     * Sets whether the existence of vertices handed in by the user is checked
+     * against the storage backend.
+     * 
+     * @param checkExternalVertexExistence
+     *            is to be set to <code>false</code> to skip the check.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile checkExternalVertexExistence(
+	    boolean checkExternalVertexExistence) {
+	this.checkExternalVertexExistence = checkExternalVertexExistence;
+	return this;
+    }
+
+    /**
+     * Sets whether the transactions check the consistency of the schema
+     * constraints, like the uniqueness of properties, with locks on commit.
+     * 
+     * @param consistencyChecks
+     *            is to be set to <code>false</code> to skip the checks.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile consistencyChecks(boolean consistencyChecks) {
+	this.consistencyChecks = consistencyChecks;
+	return this;
+    }
+
+    /**
+     * Sets the time stamp which is used for the mutations of the
+     * transactions instead of the time of the commit.
+     * 
+     * @param commitTime
+     *            is the time stamp.
+     * @param unit
+     *            is the {@link TimeUnit} of the time stamp.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile commitTime(long commitTime, TimeUnit unit) {
+	if (unit == null) {
+	    throw new IllegalArgumentException(
+		    "The unit of the commit time must not be null.");
+	}
+	this.commitTime = commitTime;
+	this.commitTimeUnit = unit;
+	return this;
+    }
+
+    /**
+     * Sets the identifier of the Titan transaction log the changes of the
+     * transactions are written to.
+     * 
+     * @param logIdentifier
+     *            is the name of the log.
+     * @return This profile is returned for chaining.
+     */
+    public TransactionProfile logIdentifier(String logIdentifier) {
+	if ((logIdentifier == null) || (logIdentifier.isEmpty())) {
+	    throw new IllegalArgumentException(
+		    "The log identifier must not be empty.");
+	}
+	this.logIdentifier = logIdentifier;
+	return this;
+    }
+
+    /**
+     * @return <code>true</code> is returned if no option is set and the
+     *         transactions keep the Titan defaults.
+     */
+    public boolean isDefault() {
+	return (readOnly == null) && (vertexCacheSize == null)
+		&& (checkInternalVertexExistence == null)
+		&& (checkExternalVertexExistence == null)
+		&& (consistencyChecks == null) && (commitTime == null)
+		&& (logIdentifier == null);
+    }
+
+    /**
+     * @return <code>true</code> is returned if the transactions are
+     *         read-only.
+     */
+    public boolean isReadOnly() {
+	return (readOnly != null) && readOnly;
+    }
+
+    /**
+     * @return The vertex cache size is returned or <code>null</code> if it is
+     *         not set.
+     */
+    public Integer getVertexCacheSize() {
+	return vertexCacheSize;
+    }
+
+    /**
+     * @return Whether internal vertices are checked is returned or
+     *         <code>null</code> if it is not set.
+     */
+    public Boolean getCheckInternalVertexExistence() {
+	return checkInternalVertexExistence;
+    }
+
+    /**
+     * @return Whether external vertices are checked is returned or
+     *         <code>null</code> if it is not set.
+     */
+    public Boolean getCheckExternalVertexExistence() {
+	return checkExternalVertexExistence;
+    }
+
+    /**
+     * @return Whether consistency checks are done is returned or
+     *         <code>null</code> if it is not set.
+     */
+    public Boolean getConsistencyChecks() {
+	return consistencyChecks;
+    }
+
+    /**
+     * @return The commit time is returned in the unit of
+     *         {@link #getCommitTimeUnit()} or <code>null</code> if it is not
+     *         set.
+     */
+    public Long getCommitTime() {
+	return commitTime;
+    }
+
+    /**
+     * @return The {@link TimeUnit} of the commit time is returned or
+     *         <code>null</code> if it is not set.
+     */
+    public TimeUnit getCommitTimeUnit() {
+	return commitTimeUnit;
+    }
+
+    /**
+     * @return The identifier of the transaction log is returned or
+     *         <code>null</code> if it is not set.
+     */
+    public String getLogIdentifier() {
+	return logIdentifier;
+    }
+
+    /**
+     * This method applies the options which are set to a Titan
+     * {@link TransactionBuilder}.
+     * 
+     * @param builder
+     *            is the {@link TransactionBuilder} to be configured.
+     * @return The builder is returned for chaining.
+     */
+    public TransactionBuilder applyTo(TransactionBuilder builder) {
+	if (isReadOnly()) {
+	    builder.readOnly();
+	}
+	if (vertexCacheSize != null) {
+	    builder.setVertexCacheSize(vertexCacheSize);
+	}
+	if (checkInternalVertexExistence != null) {
+	    builder.checkInternalVertexExistence(checkInternalVertexExistence);
+	}
+	if (checkExternalVertexExistence != null) {
+	    builder.checkExternalVertexExistence(checkExternalVertexExistence);
+	}
+	if (consistencyChecks != null) {
+	    builder.consistencyChecks(consistencyChecks);
+	}
+	if (commitTime != null) {
+	    builder.setCommitTime(commitTime, commitTimeUnit);
+	}
+	if (logIdentifier != null) {
+	    builder.setLogIdentifier(logIdentifier);
+	}
+	return builder;
+    }
+
+    @Override
+    public String toString() {
+	return "TransactionProfile [readOnly=" + isReadOnly()
+		+ ", vertexCacheSize=" + vertexCacheSize
+		+ ", checkInternalVertexExistence="
+		+ checkInternalVertexExistence
+		+ ", checkExternalVertexExistence="
+		+ checkExternalVertexExistence + ", consistencyChecks="
+		+ consistencyChecks + ", commitTime=" + commitTime
+		+ ", commitTimeUnit=" + commitTimeUnit + ", logIdentifier="
+		+ logIdentifier + "]";
+    }
+
+}
@@ -31,4 +31,16 @@ public @interface Gremlin {
 	 *         property type.
 	 */
 	String name() default "";
+
+	/**
+	 * @return A hint for the start vertices of the query is returned. The hint
+	 *         is the name of an indexed property key, optionally followed by
+	 *         <code>={parameter}</code> to name the parameter containing the
+	 *         value or by <code>='literal'</code> for a fixed value. Without
+	 *         a value, the parameter with the name of the key is used or, for
+	 *         a discriminator, the discriminator itself. If no hint is given,
+	 *         the start vertices are derived from the expression where
+	 *         possible.
+	 */
+	String start() default "";
 }
@@ -14,6 +14,13 @@ import com.buschmais.xo.spi.annotation.IndexDefinition;
  * <p>
  * An indexed property is used to find instances using XOManager.
  * </p>
+ * <p>
+ * Properties with the same {@link #group()} are indexed together in one
+ * composite index named after the group. The properties of the group may be
+ * declared in the type and its super types and are sorted by
+ * {@link #order()}. A find with values for all properties of a group, for
+ * example with an Example, is answered by this index.
+ * </p>
  */
 @IndexDefinition
 @Retention(RetentionPolicy.RUNTIME)
@@ -22,4 +29,16 @@ public @interface Indexed {
 
     boolean unique() default false;
 
+    /**
+     * The name of the composite index the property belongs to. The default
+     * is an empty string, which creates an index for this property only.
+     */
+    String group() default "";
+
+    /**
+     * The position of the property within the composite index of its
+     * {@link #group()}.
+     */
+    int order() default 0;
+
 }
@@ -0,0 +1,54 @@
+package com.puresoltechnologies.xo.titan.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.thinkaurelius.titan.core.schema.Mapping;
+
+/**
+ * <p>
+ * Adds a property to a mixed index of Titan. Mixed indexes are stored in an
+ * external index backend like Lucene or Elasticsearch and answer full-text,
+ * prefix, range and geo conditions, which are not supported by the composite
+ * indexes of {@link Indexed}.
+ * </p>
+ * <p>
+ * The index backend is configured with the Titan settings
+ * <code>index.search.*</code>, which are given as XOUnit properties with the
+ * prefix <code>titan.</code>, for example
+ * <code>titan.index.search.backend=lucene</code> and
+ * <code>titan.index.search.directory=/path/to/index</code>.
+ * </p>
+ * <p>
+ * All properties of a vertex or edge type with the same index name are kept
+ * in one mixed index. Additionally annotated with {@link Indexed}, the
+ * property can be found with the conditions of
+ * {@link com.puresoltechnologies.xo.titan.api.Condition}.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MixedIndexed {
+
+    String DEFAULT_VERTEX_INDEX = "vertexSearch";
+
+    String DEFAULT_EDGE_INDEX = "edgeSearch";
+
+    /**
+     * @return The name of the mixed index. Lucene accepts only alphanumeric
+     *         names. The default is
+     *         {@value #DEFAULT_VERTEX_INDEX} for vertices and
+     *         {@value #DEFAULT_EDGE_INDEX} for edges.
+     */
+    String value() default "";
+
+    /**
+     * @return The {@link Mapping} of a string property: {@link Mapping#TEXT}
+     *         for full-text conditions (the default for strings) or
+     *         {@link Mapping#STRING} for exact and prefix conditions.
+     */
+    Mapping mapping() default Mapping.DEFAULT;
+
+}
@@ -0,0 +1,52 @@
+package com.puresoltechnologies.xo.titan.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.thinkaurelius.titan.core.Order;
+import com.tinkerpop.blueprints.Direction;
+
+/**
+ * <p>
+ * Declares a vertex-centric index for the edges of an edge type. The index is
+ * kept per vertex and sorts the adjacent edges with the label of the edge type
+ * by the given properties of the edges. Navigations on vertices with many
+ * edges, which filter, order or limit by these properties, only read the
+ * matching part of the adjacency list.
+ * </p>
+ * <p>
+ * This annotation is used together with {@link EdgeDefinition} on a relation
+ * type. The edges are read with a
+ * {@link com.puresoltechnologies.xo.titan.api.RelationQuery}.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface VertexCentricIndex {
+
+    /**
+     * @return The name of the index, which is unique for the edge label.
+     */
+    String name();
+
+    /**
+     * @return The names of the edge properties used as sort keys in the given
+     *         order.
+     */
+    String[] keys();
+
+    /**
+     * @return The {@link Direction} of the edges to be indexed. The default is
+     *         {@link Direction#BOTH}.
+     */
+    Direction direction() default Direction.BOTH;
+
+    /**
+     * @return The sort {@link Order} of the index. The default is
+     *         {@link Order#ASC}.
+     */
+    Order order() default Order.ASC;
+
+}
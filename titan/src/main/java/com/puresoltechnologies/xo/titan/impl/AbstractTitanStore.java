@@ -0,0 +1,1286 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.buschmais.xo.api.CompositeObject;
+import com.buschmais.xo.api.XOException;
+import com.buschmais.xo.spi.datastore.Datastore;
+import com.buschmais.xo.spi.datastore.DatastoreMetadataFactory;
+import com.buschmais.xo.spi.metadata.method.IndexedPropertyMethodMetadata;
+import com.buschmais.xo.spi.metadata.type.EntityTypeMetadata;
+import com.buschmais.xo.spi.metadata.type.RelationTypeMetadata;
+import com.buschmais.xo.spi.metadata.type.TypeMetadata;
+import com.buschmais.xo.spi.reflection.AnnotatedType;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
+import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanCompositeIndexMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanEdgeMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanIndexedPropertyMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanMixedIndexMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanMixedIndexedPropertyMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexCentricIndexMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexMetadata;
+import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.EdgeLabel;
+import com.thinkaurelius.titan.core.PropertyKey;
+import com.thinkaurelius.titan.core.TitanFactory;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.schema.PropertyKeyMaker;
+import com.thinkaurelius.titan.core.schema.SchemaStatus;
+import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
+import com.thinkaurelius.titan.core.schema.TitanManagement.IndexBuilder;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * <p>
+ * This class is the base class of the XO Datastores for Titan. It contains
+ * everything which is independent of the storage backend: the schema
+ * initialization, the Gremlin query infrastructure and the sessions.
+ * </p>
+ * <p>
+ * The implementations only need to provide the name of the storage backend
+ * and the backend specific configuration.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public abstract class AbstractTitanStore
+	implements
+	Datastore<TitanStoreSession, TitanVertexMetadata, String, TitanEdgeMetadata, String> {
+
+    private static final Logger logger = LoggerFactory
+	    .getLogger(AbstractTitanStore.class);
+
+    /**
+     * This constant contains the name of the index to be used for properties.
+     */
+    public static final String INDEX_NAME = "standard";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #GREMLIN_CACHE_SIZE_PROPERTY} which sets the maximum number of
+     * compiled Gremlin scripts kept in the {@link GremlinScriptCache}.
+     */
+    public static final String GREMLIN_CACHE_SIZE_PROPERTY = "xo.titan.gremlin.cache.size";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #BULK_LOAD_PROPERTY} which enables the bulk load mode. In bulk
+     * load mode Titan's <code>storage.batch-loading</code> is enabled and all
+     * sessions commit automatically after a number of mutations.
+     */
+    public static final String BULK_LOAD_PROPERTY = "xo.titan.bulk-load";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #BULK_LOAD_COMMIT_SIZE_PROPERTY} which sets the number of
+     * mutations after which a session in bulk load mode commits.
+     */
+    public static final String BULK_LOAD_COMMIT_SIZE_PROPERTY = "xo.titan.bulk-load.commit-size";
+
+    /**
+     * This constant contains the default number of mutations after which a
+     * session in bulk load mode commits.
+     */
+    public static final int DEFAULT_BULK_LOAD_COMMIT_SIZE = 10000;
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #WRITE_BEHIND_PROPERTY} which enables the write-behind mode of
+     * the sessions. In write-behind mode property changes are collected and
+     * written when the entity or relation is flushed.
+     */
+    public static final String WRITE_BEHIND_PROPERTY = "xo.titan.write-behind";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #PREFETCH_SIZE_PROPERTY} which sets the number of entities of a
+     * collection property whose properties are loaded together with one
+     * multi-query. 0 disables the prefetching.
+     */
+    public static final String PREFETCH_SIZE_PROPERTY = "xo.titan.prefetch-size";
+
+    /**
+     * This constant contains the default number of entities of a collection
+     * property which are prefetched together.
+     */
+    public static final int DEFAULT_PREFETCH_SIZE = 100;
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #INDEX_AWAIT_TIMEOUT_PROPERTY} which sets the time in
+     * milliseconds to wait during initialization for the newly created
+     * indexes to become available.
+     */
+    public static final String INDEX_AWAIT_TIMEOUT_PROPERTY = "xo.titan.index.await-timeout";
+
+    /**
+     * This constant contains the default time in milliseconds to wait for
+     * newly created indexes.
+     */
+    public static final int DEFAULT_INDEX_AWAIT_TIMEOUT = 60000;
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #DISCRIMINATOR_LAYOUT_PROPERTY} which selects the
+     * {@link DiscriminatorLayout} by its name. The default is
+     * {@link DiscriminatorLayout#PROPERTY_PER_DISCRIMINATOR}.
+     */
+    public static final String DISCRIMINATOR_LAYOUT_PROPERTY = "xo.titan.discriminator-layout";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #MIXED_INDEX_BACKEND_PROPERTY} which selects the Titan index
+     * backend for the mixed indexes of
+     * {@link com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed}.
+     * The backend is configured with the Titan settings
+     * <code>index.&lt;backend&gt;.*</code>.
+     */
+    public static final String MIXED_INDEX_BACKEND_PROPERTY = "xo.titan.mixed-index.backend";
+
+    /**
+     * This constant contains the default value of
+     * {@value #MIXED_INDEX_BACKEND_PROPERTY}.
+     */
+    public static final String DEFAULT_MIXED_INDEX_BACKEND = "search";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_READ_ONLY_PROPERTY} which opens the Titan
+     * transactions of the sessions read-only.
+     */
+    public static final String TRANSACTION_READ_ONLY_PROPERTY = "xo.titan.transaction.read-only";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY} which sets the size of
+     * the vertex cache of the Titan transactions of the sessions.
+     */
+    public static final String TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY = "xo.titan.transaction.vertex-cache-size";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_CHECK_INTERNAL_VERTEX_EXISTENCE_PROPERTY} which
+     * enables or disables the existence check of vertices read by id.
+     */
+    public static final String TRANSACTION_CHECK_INTERNAL_VERTEX_EXISTENCE_PROPERTY = "xo.titan.transaction.check-internal-vertex-existence";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_CHECK_EXTERNAL_VERTEX_EXISTENCE_PROPERTY} which
+     * enables or disables the existence check of vertices handed in by the
+     * user.
+     */
+    public static final String TRANSACTION_CHECK_EXTERNAL_VERTEX_EXISTENCE_PROPERTY = "xo.titan.transaction.check-external-vertex-existence";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_CONSISTENCY_CHECKS_PROPERTY} which enables or
+     * disables the consistency checks of the Titan transactions on commit.
+     */
+    public static final String TRANSACTION_CONSISTENCY_CHECKS_PROPERTY = "xo.titan.transaction.consistency-checks";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_COMMIT_TIME_PROPERTY} which sets the time stamp in
+     * milliseconds used for the mutations of the Titan transactions.
+     */
+    public static final String TRANSACTION_COMMIT_TIME_PROPERTY = "xo.titan.transaction.commit-time";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #TRANSACTION_LOG_IDENTIFIER_PROPERTY} which sets the Titan
+     * transaction log the changes of the sessions are written to.
+     */
+    public static final String TRANSACTION_LOG_IDENTIFIER_PROPERTY = "xo.titan.transaction.log-identifier";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #COMMIT_ATTEMPTS_PROPERTY} which sets the maximum number of
+     * attempts for a commit failing due to locking conflicts. The default of 1
+     * disables the retries. See {@link CommitRetryPolicy}.
+     */
+    public static final String COMMIT_ATTEMPTS_PROPERTY = "xo.titan.commit.attempts";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #COMMIT_BACKOFF_PROPERTY} which sets the backoff in milliseconds
+     * before the first retry of a commit.
+     */
+    public static final String COMMIT_BACKOFF_PROPERTY = "xo.titan.commit.backoff";
+
+    /**
+     * This constant contains the name of the XOUnit property
+     * {@value #COMMIT_MAX_BACKOFF_PROPERTY} which sets the maximum backoff in
+     * milliseconds before a retry of a commit.
+     */
+    public static final String COMMIT_MAX_BACKOFF_PROPERTY = "xo.titan.commit.max-backoff";
+
+    /**
+     * This constant contains the prefix {@value #TITAN_PROPERTY_PREFIX} of
+     * the XOUnit properties which are forwarded into the Titan configuration.
+     * The prefix is removed, so the property
+     * <code>titan.ids.block-size</code> sets Titan's
+     * <code>ids.block-size</code>.
+     */
+    public static final String TITAN_PROPERTY_PREFIX = "titan.";
+
+    /**
+     * This is a helper method to retrieve a name like a keyspace or a table
+     * name from a store URI. The name is taken from the path part of the URI
+     * and may be empty, if the default name is to be used.
+     * 
+     * @param uri
+     *            is the URI where the name is to be extracted from.
+     * @return The name is returned as {@link String} .
+     */
+    public static String retrieveNameFromURI(URI uri) {
+	String path = uri.getPath();
+	if (path.startsWith("/")) {
+	    path = path.substring(1);
+	}
+	if (path.endsWith("/")) {
+	    path = path.substring(0, path.length() - 1);
+	}
+	String[] splits = path.split("/");
+	if (splits.length > 1) {
+	    throw new XOException(
+		    "The URI for this store may only contain a single path entry for the name.");
+	}
+	return splits[0];
+    }
+
+    /**
+     * This field contains the whole titanGraph after connection to the
+     * database.
+     */
+    private TitanGraph titanGraph = null;
+
+    /**
+     * This field contains the cache for compiled Gremlin scripts shared by all
+     * sessions.
+     */
+    private final GremlinScriptCache gremlinScriptCache;
+    /**
+     * This field stores whether the bulk load mode is enabled.
+     */
+    private final boolean bulkLoad;
+    /**
+     * This field contains the number of mutations after which a session in
+     * bulk load mode commits.
+     */
+    private final int bulkLoadCommitSize;
+    /**
+     * This field stores whether the write-behind mode is enabled.
+     */
+    private final boolean writeBehind;
+    /**
+     * This field contains the number of entities of a collection property
+     * which are prefetched together.
+     */
+    private final int prefetchSize;
+    /**
+     * This field contains the Titan settings taken from the XOUnit
+     * properties with the prefix {@value #TITAN_PROPERTY_PREFIX}.
+     */
+    private final Map<String, String> titanProperties = new TreeMap<>();
+    /**
+     * This field contains the time in milliseconds to wait for newly created
+     * indexes.
+     */
+    private final int indexAwaitTimeout;
+    /**
+     * This field contains the layout of the discriminators in the vertices.
+     */
+    private final DiscriminatorLayout discriminatorLayout;
+    /**
+     * This field contains the name of the Titan index backend for mixed
+     * indexes.
+     */
+    private final String mixedIndexBackend;
+    /**
+     * This field contains the {@link TransactionProfile} of the sessions.
+     */
+    private final TransactionProfile transactionProfile;
+    /**
+     * This field contains the {@link CommitRetryPolicy} shared by all
+     * sessions.
+     */
+    private final CommitRetryPolicy commitRetryPolicy;
+    /**
+     * This field contains the registry of all Gremlin expressions which are
+     * precompiled during initialization.
+     */
+    private GremlinQueryRegistry gremlinQueryRegistry = new GremlinQueryRegistry();
+    /**
+     * This field contains the selector for the start vertices of Gremlin
+     * queries, which knows about the indexed vertex properties.
+     */
+    private GremlinStartSelector gremlinStartSelector = new GremlinStartSelector();
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param properties
+     *            are the properties of the XOUnit to configure the store.
+     */
+    protected AbstractTitanStore(Properties properties) {
+	this.gremlinScriptCache = new GremlinScriptCache(getIntegerProperty(
+		properties, GREMLIN_CACHE_SIZE_PROPERTY,
+		GremlinScriptCache.DEFAULT_CACHE_SIZE));
+	this.bulkLoad = getBooleanProperty(properties, BULK_LOAD_PROPERTY,
+		false);
+	this.bulkLoadCommitSize = getIntegerProperty(properties,
+		BULK_LOAD_COMMIT_SIZE_PROPERTY, DEFAULT_BULK_LOAD_COMMIT_SIZE);
+	if (bulkLoadCommitSize <= 0) {
+	    throw new XOException("Property '"
+		    + BULK_LOAD_COMMIT_SIZE_PROPERTY
+		    + "' needs to be positive, but was '" + bulkLoadCommitSize
+		    + "'.");
+	}
+	this.writeBehind = getBooleanProperty(properties,
+		WRITE_BEHIND_PROPERTY, false);
+	this.prefetchSize = getIntegerProperty(properties,
+		PREFETCH_SIZE_PROPERTY, DEFAULT_PREFETCH_SIZE);
+	if (prefetchSize < 0) {
+	    throw new XOException("Property '" + PREFETCH_SIZE_PROPERTY
+		    + "' must not be negative, but was '" + prefetchSize
+		    + "'.");
+	}
+	this.indexAwaitTimeout = getIntegerProperty(properties,
+		INDEX_AWAIT_TIMEOUT_PROPERTY, DEFAULT_INDEX_AWAIT_TIMEOUT);
+	String discriminatorLayout = properties.getProperty(
+		DISCRIMINATOR_LAYOUT_PROPERTY,
+		DiscriminatorLayout.PROPERTY_PER_DISCRIMINATOR.name()).trim();
+	try {
+	    this.discriminatorLayout = DiscriminatorLayout
+		    .valueOf(discriminatorLayout);
+	} catch (IllegalArgumentException e) {
+	    throw new XOException("Property '" + DISCRIMINATOR_LAYOUT_PROPERTY
+		    + "' needs to be one of "
+		    + Arrays.toString(DiscriminatorLayout.values())
+		    + ", but was '" + discriminatorLayout + "'.", e);
+	}
+	this.mixedIndexBackend = properties.getProperty(
+		MIXED_INDEX_BACKEND_PROPERTY, DEFAULT_MIXED_INDEX_BACKEND).trim();
+	this.transactionProfile = createTransactionProfile(properties);
+	try {
+	    this.commitRetryPolicy = new CommitRetryPolicy(getIntegerProperty(
+		    properties, COMMIT_ATTEMPTS_PROPERTY,
+		    CommitRetryPolicy.DEFAULT_ATTEMPTS), getIntegerProperty(
+		    properties, COMMIT_BACKOFF_PROPERTY,
+		    CommitRetryPolicy.DEFAULT_BACKOFF), getIntegerProperty(
+		    properties, COMMIT_MAX_BACKOFF_PROPERTY,
+		    CommitRetryPolicy.DEFAULT_MAX_BACKOFF));
+	} catch (IllegalArgumentException e) {
+	    throw new XOException("Properties '" + COMMIT_ATTEMPTS_PROPERTY
+		    + "', '" + COMMIT_BACKOFF_PROPERTY + "' and '"
+		    + COMMIT_MAX_BACKOFF_PROPERTY + "' are invalid: "
+		    + e.getMessage(), e);
+	}
+	for (String name : properties.stringPropertyNames()) {
+	    if (name.startsWith(TITAN_PROPERTY_PREFIX)
+		    && (name.length() > TITAN_PROPERTY_PREFIX.length())) {
+		titanProperties.put(
+			name.substring(TITAN_PROPERTY_PREFIX.length()),
+			properties.getProperty(name));
+	    }
+	}
+    }
+
+    /**
+     * This method creates the {@link TransactionProfile} of the sessions out
+     * of the XOUnit properties. Options which are not set keep the Titan
+     * defaults.
+     * 
+     * @param properties
+     *            are the properties to read from.
+     * @return A {@link TransactionProfile} is returned.
+     */
+    private static TransactionProfile createTransactionProfile(
+	    Properties properties) {
+	TransactionProfile profile = new TransactionProfile();
+	if (isSet(properties, TRANSACTION_READ_ONLY_PROPERTY)) {
+	    profile.readOnly(getBooleanProperty(properties,
+		    TRANSACTION_READ_ONLY_PROPERTY, false));
+	}
+	if (isSet(properties, TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY)) {
+	    int vertexCacheSize = getIntegerProperty(properties,
+		    TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY, 0);
+	    if (vertexCacheSize < 0) {
+		throw new XOException("Property '"
+			+ TRANSACTION_VERTEX_CACHE_SIZE_PROPERTY
+			+ "' must not be negative, but was '"
+			+ vertexCacheSize + "'.");
+	    }
+	    profile.vertexCacheSize(vertexCacheSize);
+	}
+	if (isSet(properties,
+		TRANSACTION_CHECK_INTERNAL_VERTEX_EXISTENCE_PROPERTY)) {
+	    profile.checkInternalVertexExistence(getBooleanProperty(
+		    properties,
+		    TRANSACTION_CHECK_INTERNAL_VERTEX_EXISTENCE_PROPERTY, true));
+	}
+	if (isSet(properties,
+		TRANSACTION_CHECK_EXTERNAL_VERTEX_EXISTENCE_PROPERTY)) {
+	    profile.checkExternalVertexExistence(getBooleanProperty(
+		    properties,
+		    TRANSACTION_CHECK_EXTERNAL_VERTEX_EXISTENCE_PROPERTY, true));
+	}
+	if (isSet(properties, TRANSACTION_CONSISTENCY_CHECKS_PROPERTY)) {
+	    profile.consistencyChecks(getBooleanProperty(properties,
+		    TRANSACTION_CONSISTENCY_CHECKS_PROPERTY, true));
+	}
+	if (isSet(properties, TRANSACTION_COMMIT_TIME_PROPERTY)) {
+	    String value = properties.getProperty(
+		    TRANSACTION_COMMIT_TIME_PROPERTY).trim();
+	    try {
+		profile.commitTime(Long.parseLong(value), TimeUnit.MILLISECONDS);
+	    } catch (NumberFormatException e) {
+		throw new XOException("Property '"
+			+ TRANSACTION_COMMIT_TIME_PROPERTY
+			+ "' needs to be a time in milliseconds, but was '"
+			+ value + "'.", e);
+	    }
+	}
+	if (isSet(properties, TRANSACTION_LOG_IDENTIFIER_PROPERTY)) {
+	    profile.logIdentifier(properties.getProperty(
+		    TRANSACTION_LOG_IDENTIFIER_PROPERTY).trim());
+	}
+	return profile;
+    }
+
+    /**
+     * Checks whether a non-empty value is set for an XOUnit property.
+     * 
+     * @param properties
+     *            are the properties to read from.
+     * @param name
+     *            is the name of the property.
+     * @return <code>true</code> is returned if a value is set.
+     */
+    private static boolean isSet(Properties properties, String name) {
+	String value = properties.getProperty(name);
+	return (value != null) && (!value.trim().isEmpty());
+    }
+
+    /**
+     * This is a helper method to read a boolean value out of the XOUnit
+     * properties.
+     * 
+     * @param properties
+     *            are the properties to read from.
+     * @param name
+     *            is the name of the property.
+     * @param defaultValue
+     *            is the value to be returned if the property is not set.
+     * @return The value is returned as <code>boolean</code>.
+     */
+    protected static boolean getBooleanProperty(Properties properties,
+	    String name, boolean defaultValue) {
+	String value = properties.getProperty(name);
+	if ((value == null) || (value.trim().isEmpty())) {
+	    return defaultValue;
+	}
+	value = value.trim();
+	if ("true".equalsIgnoreCase(value)) {
+	    return true;
+	} else if ("false".equalsIgnoreCase(value)) {
+	    return false;
+	}
+	throw new XOException("Property '" + name
+		+ "' needs to be 'true' or 'false', but was '" + value + "'.");
+    }
+
+    /**
+     * This is a helper method to read an integer value out of the XOUnit
+     * properties.
+     * 
+     * @param properties
+     *            are the properties to read from.
+     * @param name
+     *            is the name of the property.
+     * @param defaultValue
+     *            is the value to be returned if the property is not set.
+     * @return The value is returned as <code>int</code>.
+     */
+    protected static int getIntegerProperty(Properties properties, String name,
+	    int defaultValue) {
+	String value = properties.getProperty(name);
+	if ((value == null) || (value.trim().isEmpty())) {
+	    return defaultValue;
+	}
+	try {
+	    return Integer.parseInt(value.trim());
+	} catch (NumberFormatException e) {
+	    throw new XOException("Property '" + name
+		    + "' needs to be an integer, but was '" + value + "'.", e);
+	}
+    }
+
+    /**
+     * Returns the name of the Titan storage backend, which is set as
+     * <code>storage.backend</code>.
+     * 
+     * @return A {@link String} is returned containing the backend name.
+     */
+    public abstract String getStorageBackend();
+
+    /**
+     * This method adds the backend specific settings to the Titan
+     * configuration. The storage backend itself is already set.
+     * 
+     * @param configuration
+     *            is the {@link Configuration} to be completed.
+     */
+    protected abstract void configureStorage(Configuration configuration);
+
+    /**
+     * This method returns the TitanGraph object when database is connected.
+     * 
+     * @return A TitanGraph is returned.
+     */
+    public final TitanGraph getTitanGraph() {
+	return titanGraph;
+    }
+
+    /**
+     * This method returns whether the bulk load mode is enabled.
+     * 
+     * @return <code>true</code> is returned if bulk load mode is enabled.
+     */
+    public final boolean isBulkLoad() {
+	return bulkLoad;
+    }
+
+    /**
+     * This method returns the {@link TransactionProfile} the sessions are
+     * created with.
+     * 
+     * @return A copy of the {@link TransactionProfile} is returned.
+     */
+    public final TransactionProfile getTransactionProfile() {
+	return new TransactionProfile(transactionProfile);
+    }
+
+    /**
+     * This method returns the {@link CommitRetryPolicy} shared by all
+     * sessions, which also counts the commits and retries.
+     * 
+     * @return A {@link CommitRetryPolicy} is returned.
+     */
+    public final CommitRetryPolicy getCommitRetryPolicy() {
+	return commitRetryPolicy;
+    }
+
+    /**
+     * This method returns the layout of the discriminators in the vertices.
+     * 
+     * @return A {@link DiscriminatorLayout} is returned.
+     */
+    public final DiscriminatorLayout getDiscriminatorLayout() {
+	return discriminatorLayout;
+    }
+
+    /**
+     * This method returns the cache of compiled Gremlin scripts.
+     * 
+     * @return A {@link GremlinScriptCache} is returned.
+     */
+    public final GremlinScriptCache getGremlinScriptCache() {
+	return gremlinScriptCache;
+    }
+
+    /**
+     * This method returns the registry of the precompiled Gremlin
+     * expressions.
+     * 
+     * @return A {@link GremlinQueryRegistry} is returned.
+     */
+    public final GremlinQueryRegistry getGremlinQueryRegistry() {
+	return gremlinQueryRegistry;
+    }
+
+    /**
+     * This method returns the selector for the start vertices of Gremlin
+     * queries.
+     * 
+     * @return A {@link GremlinStartSelector} is returned.
+     */
+    public final GremlinStartSelector getGremlinStartSelector() {
+	return gremlinStartSelector;
+    }
+
+    @Override
+    public DatastoreMetadataFactory<TitanVertexMetadata, String, TitanEdgeMetadata, String> getMetadataFactory() {
+	return new TitanMetadataFactory();
+    }
+
+    @Override
+    public void init(Map<Class<?>, TypeMetadata> registeredMetadata) {
+	logger.info("Initializing eXtended Objects for Titan on '"
+		+ getStorageBackend() + "'...");
+	gremlinQueryRegistry = new GremlinQueryRegistry(
+		registeredMetadata.values(), gremlinScriptCache);
+	Configuration configuration = createConfiguration();
+	logConfiguration(configuration);
+	titanGraph = TitanFactory.open(configuration);
+	Set<String> indexedVertexKeys = new HashSet<>();
+	Map<String, SchemaStatus> createdIndexes = new HashMap<>();
+	try {
+	    long start = System.nanoTime();
+	    int createdEdgeIndexes;
+	    TitanManagement managementSystem = titanGraph.getManagementSystem();
+	    try {
+		checkAndInitializeDiscriminatorProperties(managementSystem,
+			registeredMetadata, indexedVertexKeys, createdIndexes);
+		checkAndInitializePropertyIndizes(managementSystem,
+			registeredMetadata, indexedVertexKeys, createdIndexes);
+		checkAndInitializeCompositeIndizes(managementSystem,
+			registeredMetadata, createdIndexes);
+		checkAndInitializeMixedIndizes(managementSystem,
+			registeredMetadata, configuration, createdIndexes);
+		createdEdgeIndexes = checkAndInitializeVertexCentricIndizes(
+			managementSystem, registeredMetadata);
+		if (createdIndexes.isEmpty() && (createdEdgeIndexes == 0)) {
+		    managementSystem.rollback();
+		} else {
+		    managementSystem.commit();
+		}
+	    } catch (RuntimeException e) {
+		if (managementSystem.isOpen()) {
+		    managementSystem.rollback();
+		}
+		throw e;
+	    }
+	    awaitIndexes(createdIndexes);
+	    logger.info("Schema initialization with "
+		    + (createdIndexes.size() + createdEdgeIndexes)
+		    + " new indexes took "
+		    + (System.nanoTime() - start) / 1000000 + "ms.");
+	} finally {
+	    titanGraph.commit();
+	}
+	gremlinStartSelector = new GremlinStartSelector(indexedVertexKeys);
+    }
+
+    /**
+     * This method creates the Titan configuration out of the backend settings,
+     * the bulk load mode and the Titan settings of the XOUnit properties. The
+     * Titan settings of the XOUnit are applied last and overrule all other
+     * settings.
+     * 
+     * @return A {@link Configuration} is returned to open the Titan graph.
+     */
+    Configuration createConfiguration() {
+	Configuration configuration = new BaseConfiguration();
+	configuration.setProperty("storage.backend", getStorageBackend());
+	configureStorage(configuration);
+	if (bulkLoad) {
+	    logger.info("Bulk load mode is enabled with a commit size of "
+		    + bulkLoadCommitSize + " mutations.");
+	    configuration.setProperty("storage.batch-loading", true);
+	}
+	for (Entry<String, String> titanProperty : titanProperties.entrySet()) {
+	    configuration.setProperty(titanProperty.getKey(),
+		    titanProperty.getValue());
+	}
+	return configuration;
+    }
+
+    private static void logConfiguration(Configuration configuration) {
+	StringBuilder builder = new StringBuilder(
+		"Opening Titan with the configuration:");
+	Iterator<String> keys = configuration.getKeys();
+	while (keys.hasNext()) {
+	    String key = keys.next();
+	    builder.append("\n\t").append(key).append(" = ");
+	    if (key.contains("password")) {
+		builder.append("********");
+	    } else {
+		builder.append(configuration.getProperty(key));
+	    }
+	}
+	logger.info(builder.toString());
+    }
+
+    private void checkAndInitializeDiscriminatorProperties(
+	    TitanManagement managementSystem,
+	    Map<Class<?>, TypeMetadata> registeredMetadata,
+	    Set<String> indexedVertexKeys,
+	    Map<String, SchemaStatus> createdIndexes) {
+	for (TypeMetadata metadata : registeredMetadata.values()) {
+	    AnnotatedType annotatedType = metadata.getAnnotatedType();
+	    if (CompositeObject.class.equals(annotatedType
+		    .getAnnotatedElement())) {
+		continue;
+	    }
+	    Class<? extends Element> type;
+	    String discriminatorName;
+	    if (annotatedType.getAnnotation(VertexDefinition.class) != null) {
+		type = Vertex.class;
+		TitanVertexMetadata datastoreMetadata = (TitanVertexMetadata) ((EntityTypeMetadata<?>) metadata)
+			.getDatastoreMetadata();
+		discriminatorName = discriminatorLayout
+			.getPropertyKey(datastoreMetadata.getDiscriminator());
+	    } else if ((annotatedType.getAnnotation(EdgeDefinition.class) != null)
+		    && (discriminatorLayout == DiscriminatorLayout.PROPERTY_PER_DISCRIMINATOR)) {
+		type = Edge.class;
+		TitanEdgeMetadata datastoreMetadata = (TitanEdgeMetadata) ((RelationTypeMetadata<?>) metadata)
+			.getDatastoreMetadata();
+		discriminatorName = TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
+			+ datastoreMetadata.getDiscriminator();
+	    } else {
+		continue;
+	    }
+	    logger.info("Discriminator '"
+		    + discriminatorName
+		    + "' is used in vertizes or edges. Check for presence of index...");
+	    checkAndCreatePropertyIndex(managementSystem, discriminatorName,
+		    String.class, discriminatorLayout.getCardinality(), type,
+		    false, createdIndexes);
+	    if (Vertex.class.equals(type)) {
+		indexedVertexKeys.add(discriminatorName);
+	    }
+	}
+    }
+
+    /**
+     * This method creates the indexes of the indexed properties. A property
+     * key may be indexed by several types, but Titan has only one index per
+     * key. This index is unique only if all types declare it unique, so that
+     * no type is restricted by another one.
+     */
+    private void checkAndInitializePropertyIndizes(
+	    TitanManagement managementSystem,
+	    Map<Class<?>, TypeMetadata> registeredMetadata,
+	    Set<String> indexedVertexKeys,
+	    Map<String, SchemaStatus> createdIndexes) {
+	Map<String, TitanIndexedPropertyMetadata> indexedProperties = new TreeMap<>();
+	Set<String> nonUniqueNames = new HashSet<>();
+	for (TypeMetadata metadata : registeredMetadata.values()) {
+	    IndexedPropertyMethodMetadata<?> indexedProperty = metadata
+		    .getIndexedProperty();
+	    if (indexedProperty != null) {
+		TitanIndexedPropertyMetadata datastoreMetadata = (TitanIndexedPropertyMetadata) indexedProperty
+			.getDatastoreMetadata();
+		if (datastoreMetadata.isGrouped()) {
+		    continue;
+		}
+		String name = datastoreMetadata.getName();
+		if (!datastoreMetadata.isUnique()) {
+		    nonUniqueNames.add(name);
+		}
+		TitanIndexedPropertyMetadata known = indexedProperties
+			.get(name);
+		if (known == null) {
+		    indexedProperties.put(name, datastoreMetadata);
+		} else if (known.isUnique() != datastoreMetadata.isUnique()) {
+		    logger.warn("Indexed property '" + name
+			    + "' is declared unique and non-unique."
+			    + " A non-unique index is used.");
+		}
+	    }
+	}
+	for (TitanIndexedPropertyMetadata datastoreMetadata : indexedProperties
+		.values()) {
+	    String name = datastoreMetadata.getName();
+	    Class<?> dataType = datastoreMetadata.getDataType();
+	    Class<? extends Element> type = datastoreMetadata.getType();
+	    boolean unique = !nonUniqueNames.contains(name);
+	    logger.info("Indexed property '" + name
+		    + "' was found. Check for presence of index...");
+	    checkAndCreatePropertyIndex(managementSystem, name, dataType,
+		    Cardinality.SINGLE, type, unique, createdIndexes);
+	    if (Vertex.class.equals(type)) {
+		indexedVertexKeys.add(name);
+	    }
+	}
+    }
+
+    private void checkAndInitializeCompositeIndizes(
+	    TitanManagement managementSystem,
+	    Map<Class<?>, TypeMetadata> registeredMetadata,
+	    Map<String, SchemaStatus> createdIndexes) {
+	Map<String, TitanCompositeIndexMetadata> compositeIndexes = new TreeMap<>();
+	for (TypeMetadata metadata : registeredMetadata.values()) {
+	    Collection<TitanCompositeIndexMetadata> typeIndexes;
+	    if (metadata instanceof EntityTypeMetadata) {
+		typeIndexes = ((TitanVertexMetadata) ((EntityTypeMetadata<?>) metadata)
+			.getDatastoreMetadata()).getCompositeIndexes();
+	    } else if (metadata instanceof RelationTypeMetadata) {
+		typeIndexes = ((TitanEdgeMetadata) ((RelationTypeMetadata<?>) metadata)
+			.getDatastoreMetadata()).getCompositeIndexes();
+	    } else {
+		continue;
+	    }
+	    for (TitanCompositeIndexMetadata compositeIndex : typeIndexes) {
+		TitanCompositeIndexMetadata known = compositeIndexes
+			.get(compositeIndex.getName());
+		if (known == null) {
+		    compositeIndexes.put(compositeIndex.getName(),
+			    compositeIndex);
+		} else if (!getKeyNames(known).equals(
+			getKeyNames(compositeIndex))) {
+		    throw new XOException("Index group '"
+			    + compositeIndex.getName()
+			    + "' is declared with different properties "
+			    + getKeyNames(known) + " and "
+			    + getKeyNames(compositeIndex) + ".");
+		}
+	    }
+	}
+	for (TitanCompositeIndexMetadata compositeIndex : compositeIndexes
+		.values()) {
+	    checkAndCreateCompositeIndex(managementSystem, compositeIndex,
+		    createdIndexes);
+	}
+    }
+
+    private static List<String> getKeyNames(
+	    TitanCompositeIndexMetadata compositeIndex) {
+	List<String> names = new ArrayList<>();
+	for (TitanIndexedPropertyMetadata property : compositeIndex
+		.getProperties()) {
+	    names.add(property.getName());
+	}
+	return names;
+    }
+
+    /**
+     * This method checks for the property keys and the composite index of an
+     * index group and adds the missing ones to the management transaction.
+     * An existing index with other keys than declared leads to an
+     * {@link XOException}.
+     * 
+     * @param managementSystem
+     *            is the management transaction to add the schema to.
+     * @param compositeIndex
+     *            is the metadata of the index group.
+     * @param createdIndexes
+     *            contains the names of the created indexes together with
+     *            the status they are expected to reach.
+     */
+    private void checkAndCreateCompositeIndex(
+	    TitanManagement managementSystem,
+	    TitanCompositeIndexMetadata compositeIndex,
+	    Map<String, SchemaStatus> createdIndexes) {
+	String indexName = compositeIndex.getName();
+	List<String> keyNames = getKeyNames(compositeIndex);
+	TitanGraphIndex graphIndex = managementSystem.getGraphIndex(indexName);
+	if (graphIndex != null) {
+	    List<String> existingKeyNames = new ArrayList<>();
+	    for (PropertyKey propertyKey : graphIndex.getFieldKeys()) {
+		existingKeyNames.add(propertyKey.getName());
+	    }
+	    if (!existingKeyNames.equals(keyNames)) {
+		throw new XOException("Index '" + indexName
+			+ "' exists with the properties " + existingKeyNames
+			+ ", but " + keyNames + " are declared.");
+	    }
+	    return;
+	}
+	logger.info("Create composite index '" + indexName
+		+ "' for properties " + keyNames + ".");
+	IndexBuilder indexBuilder = managementSystem.buildIndex(indexName,
+		compositeIndex.getType());
+	SchemaStatus expectedStatus = SchemaStatus.ENABLED;
+	for (TitanIndexedPropertyMetadata property : compositeIndex
+		.getProperties()) {
+	    PropertyKey propertyKey = managementSystem.getPropertyKey(property
+		    .getName());
+	    if (propertyKey == null) {
+		propertyKey = managementSystem
+			.makePropertyKey(property.getName())
+			.cardinality(Cardinality.SINGLE)
+			.dataType(property.getDataType()).make();
+	    } else {
+		expectedStatus = SchemaStatus.REGISTERED;
+	    }
+	    indexBuilder.addKey(propertyKey);
+	}
+	if (expectedStatus == SchemaStatus.REGISTERED) {
+	    logger.warn("Composite index '" + indexName
+		    + "' uses existing property keys and needs to be"
+		    + " reindexed before it can be enabled.");
+	}
+	if (compositeIndex.isUnique()) {
+	    indexBuilder.unique();
+	}
+	indexBuilder.buildCompositeIndex();
+	createdIndexes.put(indexName, expectedStatus);
+    }
+
+    private void checkAndInitializeMixedIndizes(
+	    TitanManagement managementSystem,
+	    Map<Class<?>, TypeMetadata> registeredMetadata,
+	    Configuration configuration,
+	    Map<String, SchemaStatus> createdIndexes) {
+	Map<String, Class<? extends Element>> indexTypes = new TreeMap<>();
+	Map<String, Map<String, TitanMixedIndexedPropertyMetadata>> indexProperties = new TreeMap<>();
+	for (TypeMetadata metadata : registeredMetadata.values()) {
+	    Collection<TitanMixedIndexMetadata> typeIndexes;
+	    if (metadata instanceof EntityTypeMetadata) {
+		typeIndexes = ((TitanVertexMetadata) ((EntityTypeMetadata<?>) metadata)
+			.getDatastoreMetadata()).getMixedIndexes();
+	    } else if (metadata instanceof RelationTypeMetadata) {
+		typeIndexes = ((TitanEdgeMetadata) ((RelationTypeMetadata<?>) metadata)
+			.getDatastoreMetadata()).getMixedIndexes();
+	    } else {
+		continue;
+	    }
+	    for (TitanMixedIndexMetadata mixedIndex : typeIndexes) {
+		String indexName = mixedIndex.getName();
+		Class<? extends Element> type = indexTypes.get(indexName);
+		if (type == null) {
+		    indexTypes.put(indexName, mixedIndex.getType());
+		    indexProperties.put(indexName,
+			    new TreeMap<String, TitanMixedIndexedPropertyMetadata>());
+		} else if (!type.equals(mixedIndex.getType())) {
+		    throw new XOException("Mixed index '" + indexName
+			    + "' is used for vertices and edges.");
+		}
+		Map<String, TitanMixedIndexedPropertyMetadata> properties = indexProperties
+			.get(indexName);
+		for (TitanMixedIndexedPropertyMetadata property : mixedIndex
+			.getProperties()) {
+		    TitanMixedIndexedPropertyMetadata known = properties
+			    .get(property.getName());
+		    if (known == null) {
+			properties.put(property.getName(), property);
+		    } else if (known.getMapping() != property.getMapping()) {
+			throw new XOException("Property '" + property.getName()
+				+ "' is added to mixed index '" + indexName
+				+ "' with the mappings " + known.getMapping()
+				+ " and " + property.getMapping() + ".");
+		    }
+		}
+	    }
+	}
+	if (indexTypes.isEmpty()) {
+	    return;
+	}
+	if (!configuration.containsKey("index." + mixedIndexBackend
+		+ ".backend")) {
+	    throw new XOException("Mixed indexes " + indexTypes.keySet()
+		    + " are declared, but the index backend '"
+		    + mixedIndexBackend
+		    + "' is not configured. Set the XOUnit property '"
+		    + TITAN_PROPERTY_PREFIX + "index." + mixedIndexBackend
+		    + ".backend', for example to 'lucene'.");
+	}
+	for (Entry<String, Class<? extends Element>> index : indexTypes
+		.entrySet()) {
+	    checkAndCreateMixedIndex(managementSystem, index.getKey(),
+		    index.getValue(), indexProperties.get(index.getKey())
+			    .values(), createdIndexes);
+	}
+    }
+
+    /**
+     * This method checks for the property keys and the mixed index and adds
+     * the missing ones to the management transaction. Properties missing in
+     * an existing mixed index are added to it.
+     * 
+     * @param managementSystem
+     *            is the management transaction to add the schema to.
+     * @param indexName
+     *            is the name of the mixed index.
+     * @param type
+     *            is the type of the elements to be indexed.
+     * @param properties
+     *            are the properties to be indexed.
+     * @param createdIndexes
+     *            contains the names of the created indexes together with
+     *            the status they are expected to reach.
+     */
+    private void checkAndCreateMixedIndex(TitanManagement managementSystem,
+	    String indexName, Class<? extends Element> type,
+	    Collection<TitanMixedIndexedPropertyMetadata> properties,
+	    Map<String, SchemaStatus> createdIndexes) {
+	TitanGraphIndex graphIndex = managementSystem.getGraphIndex(indexName);
+	if ((graphIndex != null) && (!graphIndex.isMixedIndex())) {
+	    throw new XOException("Index '" + indexName
+		    + "' exists, but is not a mixed index.");
+	}
+	Set<String> indexedKeys = new HashSet<>();
+	if (graphIndex != null) {
+	    for (PropertyKey propertyKey : graphIndex.getFieldKeys()) {
+		indexedKeys.add(propertyKey.getName());
+	    }
+	}
+	IndexBuilder indexBuilder = null;
+	if (graphIndex == null) {
+	    logger.info("Create mixed index '" + indexName + "' on backend '"
+		    + mixedIndexBackend + "'.");
+	    indexBuilder = managementSystem.buildIndex(indexName, type);
+	}
+	SchemaStatus expectedStatus = SchemaStatus.ENABLED;
+	boolean changed = false;
+	for (TitanMixedIndexedPropertyMetadata property : properties) {
+	    if (indexedKeys.contains(property.getName())) {
+		continue;
+	    }
+	    PropertyKey propertyKey = managementSystem.getPropertyKey(property
+		    .getName());
+	    if (propertyKey == null) {
+		propertyKey = managementSystem
+			.makePropertyKey(property.getName())
+			.cardinality(Cardinality.SINGLE)
+			.dataType(property.getDataType()).make();
+	    } else {
+		expectedStatus = SchemaStatus.REGISTERED;
+	    }
+	    if (indexBuilder != null) {
+		indexBuilder.addKey(propertyKey, property.getMapping()
+			.getParameter());
+	    } else {
+		logger.info("Add property '" + property.getName()
+			+ "' to mixed index '" + indexName + "'.");
+		managementSystem.addIndexKey(graphIndex, propertyKey, property
+			.getMapping().getParameter());
+	    }
+	    changed = true;
+	}
+	if (indexBuilder != null) {
+	    indexBuilder.buildMixedIndex(mixedIndexBackend);
+	}
+	if (changed) {
+	    if (expectedStatus == SchemaStatus.REGISTERED) {
+		logger.warn("Mixed index '" + indexName
+			+ "' uses existing property keys and needs to be"
+			+ " reindexed before it can be enabled.");
+	    }
+	    createdIndexes.put(indexName, expectedStatus);
+	}
+    }
+
+    /**
+     * This method creates the vertex-centric indexes declared for the edge
+     * types. An index on an edge label which existed before is not enabled
+     * automatically, because the existing edges need to be reindexed.
+     * 
+     * @param managementSystem
+     *            is the management transaction to add the schema to.
+     * @param registeredMetadata
+     *            contains the metadata of all registered types.
+     * @return The number of created indexes is returned.
+     */
+    private int checkAndInitializeVertexCentricIndizes(
+	    TitanManagement managementSystem,
+	    Map<Class<?>, TypeMetadata> registeredMetadata) {
+	int created = 0;
+	for (TypeMetadata metadata : registeredMetadata.values()) {
+	    if (!(metadata instanceof RelationTypeMetadata)) {
+		continue;
+	    }
+	    TitanEdgeMetadata edgeMetadata = (TitanEdgeMetadata) ((RelationTypeMetadata<?>) metadata)
+		    .getDatastoreMetadata();
+	    TitanVertexCentricIndexMetadata vertexCentricIndex = edgeMetadata
+		    .getVertexCentricIndex();
+	    if (vertexCentricIndex == null) {
+		continue;
+	    }
+	    String label = edgeMetadata.getDiscriminator();
+	    String indexName = vertexCentricIndex.getName();
+	    EdgeLabel edgeLabel = managementSystem.getEdgeLabel(label);
+	    if (edgeLabel == null) {
+		edgeLabel = managementSystem.makeEdgeLabel(label).make();
+	    } else if (managementSystem.containsRelationIndex(edgeLabel,
+		    indexName)) {
+		continue;
+	    } else {
+		logger.warn("Edge label '" + label
+			+ "' already exists. The new vertex-centric index '"
+			+ indexName
+			+ "' needs to be reindexed before it can be enabled.");
+	    }
+	    List<PropertyKey> sortKeys = new ArrayList<>();
+	    for (Entry<String, Class<?>> sortKey : vertexCentricIndex
+		    .getSortKeys().entrySet()) {
+		PropertyKey propertyKey = managementSystem
+			.getPropertyKey(sortKey.getKey());
+		if (propertyKey == null) {
+		    propertyKey = managementSystem
+			    .makePropertyKey(sortKey.getKey())
+			    .cardinality(Cardinality.SINGLE)
+			    .dataType(sortKey.getValue()).make();
+		}
+		sortKeys.add(propertyKey);
+	    }
+	    logger.info("Create vertex-centric index '" + indexName
+		    + "' for edge label '" + label + "' on " + sortKeys + ".");
+	    managementSystem.buildEdgeIndex(edgeLabel, indexName,
+		    vertexCentricIndex.getDirection(),
+		    vertexCentricIndex.getOrder(),
+		    sortKeys.toArray(new PropertyKey[sortKeys.size()]));
+	    created++;
+	}
+	return created;
+    }
+
+    /**
+     * This method checks for the property key and the composite index of a
+     * property and adds the missing ones to the management transaction.
+     * Nothing is committed here, so that the whole schema is created within a
+     * single management transaction.
+     * 
+     * @param managementSystem
+     *            is the management transaction to add the schema to.
+     * @param name
+     *            is the name of the property.
+     * @param dataType
+     *            is the data type of the property.
+     * @param cardinality
+     *            is the cardinality of the property key.
+     * @param type
+     *            is the type of the elements to be indexed.
+     * @param unique
+     *            is to be set to <code>true</code> for a unique index.
+     * @param createdIndexes
+     *            contains the names of the created indexes together with
+     *            the status they are expected to reach.
+     */
+    private void checkAndCreatePropertyIndex(TitanManagement managementSystem,
+	    String name, Class<?> dataType, Cardinality cardinality,
+	    Class<? extends Element> type, boolean unique,
+	    Map<String, SchemaStatus> createdIndexes) {
+	String indexName = name + "_index";
+	if (managementSystem.getGraphIndex(indexName) != null) {
+	    return;
+	}
+	PropertyKey propertyKey = managementSystem.getPropertyKey(name);
+	SchemaStatus expectedStatus;
+	if (propertyKey == null) {
+	    logger.info("Create index for property (or discriminator) '"
+		    + name + "'.");
+	    PropertyKeyMaker propertyKeyMake = managementSystem
+		    .makePropertyKey(name);
+	    propertyKeyMake.cardinality(cardinality);
+	    propertyKeyMake.dataType(dataType);
+	    propertyKey = propertyKeyMake.make();
+	    expectedStatus = SchemaStatus.ENABLED;
+	} else {
+	    logger.warn("Property key '" + name
+		    + "' already exists without an index. The new index '"
+		    + indexName
+		    + "' needs to be reindexed before it can be enabled.");
+	    expectedStatus = SchemaStatus.REGISTERED;
+	}
+	IndexBuilder indexBuilder = managementSystem.buildIndex(indexName,
+		type);
+	indexBuilder.addKey(propertyKey);
+	if (unique) {
+	    indexBuilder.unique();
+	}
+	indexBuilder.buildCompositeIndex();
+	createdIndexes.put(indexName, expectedStatus);
+    }
+
+    /**
+     * This method waits for all created indexes to reach their expected
+     * status. All indexes are checked together in one management transaction
+     * per check and the waiting is limited by
+     * {@value #INDEX_AWAIT_TIMEOUT_PROPERTY}.
+     * 
+     * @param createdIndexes
+     *            contains the names of the created indexes together with
+     *            the status they are expected to reach.
+     */
+    private void awaitIndexes(Map<String, SchemaStatus> createdIndexes) {
+	if (createdIndexes.isEmpty()) {
+	    return;
+	}
+	Map<String, SchemaStatus> pendingIndexes = new HashMap<>(
+		createdIndexes);
+	long deadline = System.currentTimeMillis() + indexAwaitTimeout;
+	while (true) {
+	    TitanManagement managementSystem = titanGraph
+		    .getManagementSystem();
+	    try {
+		Iterator<Entry<String, SchemaStatus>> iterator = pendingIndexes
+			.entrySet().iterator();
+		while (iterator.hasNext()) {
+		    Entry<String, SchemaStatus> pendingIndex = iterator.next();
+		    TitanGraphIndex graphIndex = managementSystem
+			    .getGraphIndex(pendingIndex.getKey());
+		    boolean reached = true;
+		    for (PropertyKey propertyKey : graphIndex.getFieldKeys()) {
+			SchemaStatus status = graphIndex
+				.getIndexStatus(propertyKey);
+			if ((status != pendingIndex.getValue())
+				&& (status != SchemaStatus.ENABLED)) {
+			    reached = false;
+			}
+		    }
+		    if (reached) {
+			iterator.remove();
+		    }
+		}
+	    } finally {
+		managementSystem.rollback();
+	    }
+	    if (pendingIndexes.isEmpty()) {
+		return;
+	    }
+	    if (System.currentTimeMillis() >= deadline) {
+		logger.warn("Indexes " + pendingIndexes
+			+ " did not reach the expected status within "
+			+ indexAwaitTimeout + "ms.");
+		return;
+	    }
+	    try {
+		Thread.sleep(500);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new XOException("Waiting for indexes was interrupted.", e);
+	    }
+	}
+    }
+
+    @Override
+    public TitanStoreSession createSession() {
+	TitanStoreSession session = new TitanStoreSession(titanGraph,
+		gremlinScriptCache, gremlinQueryRegistry, gremlinStartSelector,
+		discriminatorLayout);
+	session.setBulkLoadCommitSize(bulkLoadCommitSize);
+	session.setBulkLoad(bulkLoad);
+	session.setWriteBehind(writeBehind);
+	session.setPrefetchSize(prefetchSize);
+	session.setTransactionProfile(transactionProfile);
+	session.setCommitRetryPolicy(commitRetryPolicy);
+	return session;
+    }
+
+    @Override
+    public void close() {
+	logger.info("Shutting down eXtended Objects for Titan on '"
+		+ getStorageBackend() + "'...");
+	logger.info("Gremlin script cache statistics: " + gremlinScriptCache);
+	logger.info("Commit statistics: " + commitRetryPolicy);
+	titanGraph.shutdown();
+	titanGraph = null;
+    }
+}
@@ -0,0 +1,229 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.thinkaurelius.titan.diskstorage.TemporaryBackendException;
+import com.thinkaurelius.titan.diskstorage.locking.PermanentLockingException;
+
+/**
+ * <p>
+ * This class contains the policy for retrying the commits of the Titan
+ * transactions, which failed due to locking conflicts with concurrent
+ * transactions, for example on properties with a unique index.
+ * </p>
+ * <p>
+ * A failed Titan transaction is rolled back by Titan, so the
+ * {@link TitanStoreTransaction} records its mutations and replays them in a
+ * new Titan transaction before the commit is retried. Between the attempts
+ * the transaction waits with an exponential backoff and a random jitter, so
+ * that the conflicting transactions do not collide again. The policy is
+ * shared by all sessions of a store and counts the commits and retries.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class CommitRetryPolicy {
+
+    /**
+     * This constant contains the default number of commit attempts, which is
+     * a single attempt without retries.
+     */
+    public static final int DEFAULT_ATTEMPTS = 1;
+
+    /**
+     * This constant contains the default backoff in milliseconds before the
+     * first retry.
+     */
+    public static final int DEFAULT_BACKOFF = 50;
+
+    /**
+     * This constant contains the default maximum backoff in milliseconds.
+     */
+    public static final int DEFAULT_MAX_BACKOFF = 2000;
+
+    /**
+     * This is a helper method to check whether a commit failed due to a
+     * locking conflict or a temporary backend failure, so that it may succeed
+     * when it is retried.
+     * 
+     * @param exception
+     *            is the exception thrown by the commit.
+     * @return <code>true</code> is returned if the commit may be retried.
+     */
+    static boolean isRetryable(Throwable exception) {
+	Throwable cause = exception;
+	while (cause != null) {
+	    if ((cause instanceof PermanentLockingException)
+		    || (cause instanceof TemporaryBackendException)) {
+		return true;
+	    }
+	    cause = cause.getCause();
+	}
+	return false;
+    }
+
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriedCommits = new AtomicLong();
+    private final AtomicLong failedCommits = new AtomicLong();
+
+    private final int attempts;
+    private final int backoff;
+    private final int maxBackoff;
+
+    /**
+     * This is the default constructor for a policy without retries.
+     */
+    public CommitRetryPolicy() {
+	this(DEFAULT_ATTEMPTS, DEFAULT_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param attempts
+     *            is the maximum number of attempts for a commit. It must be
+     *            positive and 1 disables the retries.
+     * @param backoff
+     *            is the backoff in milliseconds before the first retry. It is
+     *            doubled for each further retry. It must not be negative.
+     * @param maxBackoff
+     *            is the maximum backoff in milliseconds. It must not be
+     *            smaller than the backoff.
+     */
+    public CommitRetryPolicy(int attempts, int backoff, int maxBackoff) {
+	if (attempts <= 0) {
+	    throw new IllegalArgumentException(
+		    "The number of attempts must be positive, but was '"
+			    + attempts + "'.");
+	}
+	if (backoff < 0) {
+	    throw new IllegalArgumentException(
+		    "The backoff must not be negative, but was '" + backoff
+			    + "'.");
+	}
+	if (maxBackoff < backoff) {
+	    throw new IllegalArgumentException("The maximum backoff '"
+		    + maxBackoff + "' must not be smaller than the backoff '"
+		    + backoff + "'.");
+	}
+	this.attempts = attempts;
+	this.backoff = backoff;
+	this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Returns the maximum number of attempts for a commit.
+     * 
+     * @return The number of attempts is returned.
+     */
+    public int getAttempts() {
+	return attempts;
+    }
+
+    /**
+     * Returns whether failed commits are retried at all.
+     * 
+     * @return <code>true</code> is returned if more than one attempt is
+     *         allowed.
+     */
+    public boolean isRetryEnabled() {
+	return attempts > 1;
+    }
+
+    /**
+     * Returns the time to wait before a retry. The time is doubled with each
+     * retry up to the maximum backoff and a random value of up to the half of
+     * it is subtracted as jitter.
+     * 
+     * @param retry
+     *            is the number of the retry starting with 1.
+     * @return The time to wait in milliseconds is returned.
+     */
+    long getBackoff(int retry) {
+	long delay = backoff;
+	for (int i = 1; (i < retry) && (delay < maxBackoff); i++) {
+	    delay *= 2;
+	}
+	delay = Math.min(delay, maxBackoff);
+	if (delay < 2) {
+	    return delay;
+	}
+	return delay - ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Counts a successful commit.
+     * 
+     * @param retried
+     *            is <code>true</code> if the commit succeeded only after
+     *            retries.
+     */
+    void committed(boolean retried) {
+	commits.incrementAndGet();
+	if (retried) {
+	    retriedCommits.incrementAndGet();
+	}
+    }
+
+    /**
+     * Counts a retry of a commit.
+     */
+    void retried() {
+	retries.incrementAndGet();
+    }
+
+    /**
+     * Counts a commit which failed finally.
+     */
+    void failed() {
+	failedCommits.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of successful commits.
+     * 
+     * @return The number of commits is returned.
+     */
+    public long getCommits() {
+	return commits.get();
+    }
+
+    /**
+     * Returns the number of retries of all commits.
+     * 
+     * @return The number of retries is returned.
+     */
+    public long getRetries() {
+	return retries.get();
+    }
+
+    /**
+     * Returns the number of commits which succeeded only after retries.
+     * 
+     * @return The number of retried commits is returned.
+     */
+    public long getRetriedCommits() {
+	return retriedCommits.get();
+    }
+
+    /**
+     * Returns the number of commits which failed finally, because they were
+     * not retryable or all attempts failed.
+     * 
+     * @return The number of failed commits is returned.
+     */
+    public long getFailedCommits() {
+	return failedCommits.get();
+    }
+
+    @Override
+    public String toString() {
+	return "CommitRetryPolicy(attempts=" + attempts + ", backoff="
+		+ backoff + ", maxBackoff=" + maxBackoff + ", commits="
+		+ getCommits() + ", retries=" + getRetries()
+		+ ", retriedCommits=" + getRetriedCommits()
+		+ ", failedCommits=" + getFailedCommits() + ")";
+    }
+}
@@ -0,0 +1,191 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.TitanProperty;
+import com.thinkaurelius.titan.core.TitanVertex;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * <p>
+ * This enumeration contains the layouts how the discriminators of an entity
+ * are stored in a vertex.
+ * </p>
+ * <p>
+ * The layout is selected with the XOUnit property
+ * {@value AbstractTitanStore#DISCRIMINATOR_LAYOUT_PROPERTY}. Existing graphs
+ * can be converted from {@link #PROPERTY_PER_DISCRIMINATOR} to
+ * {@link #DISCRIMINATOR_SET} with {@link DiscriminatorMigration}.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public enum DiscriminatorLayout {
+
+    /**
+     * Each discriminator is stored in its own property
+     * {@value TitanStoreSession#XO_DISCRIMINATORS_PROPERTY}
+     * <code>&lt;discriminator&gt;</code> with the discriminator as value. Each
+     * discriminator gets its own composite index. This is the default layout.
+     */
+    PROPERTY_PER_DISCRIMINATOR {
+
+	@Override
+	public String getPropertyKey(String discriminator) {
+	    return TitanStoreSession.XO_DISCRIMINATORS_PROPERTY + discriminator;
+	}
+
+	@Override
+	public Cardinality getCardinality() {
+	    return Cardinality.SINGLE;
+	}
+
+	@Override
+	public Set<String> getDiscriminators(Vertex vertex) {
+	    Set<String> discriminators = new HashSet<>();
+	    for (String key : vertex.getPropertyKeys()) {
+		if (key.startsWith(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY)) {
+		    String discriminator = vertex.getProperty(key);
+		    discriminators.add(discriminator);
+		}
+	    }
+	    return discriminators;
+	}
+
+	@Override
+	public void addDiscriminator(Vertex vertex, String discriminator) {
+	    vertex.setProperty(getPropertyKey(discriminator), discriminator);
+	}
+
+	@Override
+	public void removeDiscriminator(Vertex vertex, String discriminator) {
+	    vertex.removeProperty(getPropertyKey(discriminator));
+	}
+
+    },
+
+    /**
+     * All discriminators are stored in the single set-valued property
+     * {@value TitanStoreSession#XO_DISCRIMINATOR_SET_PROPERTY} with one
+     * composite index for all discriminators. Edges are not affected, because
+     * they are identified by their labels.
+     * <p>
+     * A <code>has('_xo_discriminators', 'A')</code> step inside of a Gremlin
+     * pipe does not match set-valued properties. Gremlin queries select the
+     * start vertices with the hint <code>start = "_xo_discriminators='A'"</code>
+     * or filter with
+     * <code>filter{it.getProperty('_xo_discriminators').contains('A')}</code>
+     * instead.
+     * </p>
+     */
+    DISCRIMINATOR_SET {
+
+	@Override
+	public String getPropertyKey(String discriminator) {
+	    return TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY;
+	}
+
+	@Override
+	public Cardinality getCardinality() {
+	    return Cardinality.SET;
+	}
+
+	@Override
+	public Set<String> getDiscriminators(Vertex vertex) {
+	    Set<String> discriminators = new HashSet<>();
+	    for (TitanProperty property : toTitanVertex(vertex).getProperties(
+		    TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY)) {
+		discriminators.add((String) property.getValue());
+	    }
+	    return discriminators;
+	}
+
+	@Override
+	public void addDiscriminator(Vertex vertex, String discriminator) {
+	    TitanVertex titanVertex = toTitanVertex(vertex);
+	    for (TitanProperty property : titanVertex
+		    .getProperties(TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY)) {
+		if (discriminator.equals(property.getValue())) {
+		    return;
+		}
+	    }
+	    titanVertex.addProperty(
+		    TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY, discriminator);
+	}
+
+	@Override
+	public void removeDiscriminator(Vertex vertex, String discriminator) {
+	    for (TitanProperty property : toTitanVertex(vertex).getProperties(
+		    TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY)) {
+		if (discriminator.equals(property.getValue())) {
+		    property.remove();
+		}
+	    }
+	}
+
+    };
+
+    /**
+     * Returns the name of the property key which stores the given
+     * discriminator. The value of the property is the discriminator itself,
+     * so that a vertex with the discriminator is found with
+     * <code>has(getPropertyKey(discriminator), discriminator)</code>.
+     * 
+     * @param discriminator
+     *            is the discriminator.
+     * @return The name of the property key is returned.
+     */
+    public abstract String getPropertyKey(String discriminator);
+
+    /**
+     * Returns the cardinality of the discriminator property keys.
+     * 
+     * @return A {@link Cardinality} is returned.
+     */
+    public abstract Cardinality getCardinality();
+
+    /**
+     * Reads all discriminators of a vertex.
+     * 
+     * @param vertex
+     *            is the vertex to read the discriminators from.
+     * @return A {@link Set} of discriminators is returned. It is empty, if
+     *         the vertex has no discriminators.
+     */
+    public abstract Set<String> getDiscriminators(Vertex vertex);
+
+    /**
+     * Adds a discriminator to a vertex.
+     * 
+     * @param vertex
+     *            is the vertex to add the discriminator to.
+     * @param discriminator
+     *            is the discriminator to be added.
+     */
+    public abstract void addDiscriminator(Vertex vertex, String discriminator);
+
+    /**
+     * Removes a discriminator from a vertex.
+     * 
+     * @param vertex
+     *            is the vertex to remove the discriminator from.
+     * @param discriminator
+     *            is the discriminator to be removed.
+     */
+    public abstract void removeDiscriminator(Vertex vertex,
+	    String discriminator);
+
+    /**
+     * Returns the Titan vertex of a vertex, which may be the vertex of an
+     * entity as it is handed out to XO.
+     */
+    private static TitanVertex toTitanVertex(Vertex vertex) {
+	if (vertex instanceof TitanStoreVertex) {
+	    return (TitanVertex) ((TitanStoreVertex) vertex).getElement();
+	}
+	return (TitanVertex) vertex;
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.buschmais.xo.api.XOException;
+import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.PropertyKey;
+import com.thinkaurelius.titan.core.TitanFactory;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * <p>
+ * This class converts the discriminators of an existing graph from
+ * {@link DiscriminatorLayout#PROPERTY_PER_DISCRIMINATOR} to
+ * {@link DiscriminatorLayout#DISCRIMINATOR_SET}.
+ * </p>
+ * <p>
+ * The set-valued property key and its index are created, if they are missing.
+ * Afterwards each discriminator property of each vertex is moved into the
+ * set-valued property. The old property keys and indexes are kept in the
+ * schema and can be disabled with the {@link TitanManagement}. The vertices
+ * are read by their discriminator properties in batches of the commit size,
+ * so that the memory needed does not grow with the size of the graph. The
+ * migration can be run again after an interruption, because already
+ * migrated vertices have no discriminator properties left.
+ * </p>
+ * <p>
+ * The migration can be started from the command line with the Titan
+ * configuration file of the graph as argument.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class DiscriminatorMigration {
+
+    private static final Logger logger = LoggerFactory
+	    .getLogger(DiscriminatorMigration.class);
+
+    /**
+     * This constant contains the default number of vertices which are
+     * migrated within one transaction.
+     */
+    public static final int DEFAULT_COMMIT_SIZE = 10000;
+
+    /**
+     * This is the main method to run the migration from the command line.
+     * 
+     * @param args
+     *            contains the Titan configuration file as first argument and
+     *            optionally the number of vertices per transaction as second
+     *            argument.
+     */
+    public static void main(String[] args) {
+	if ((args.length < 1) || (args.length > 2)) {
+	    System.err.println("Usage: " + DiscriminatorMigration.class.getName()
+		    + " <titan configuration file> [<commit size>]");
+	    System.exit(1);
+	}
+	int commitSize = args.length > 1 ? Integer.parseInt(args[1])
+		: DEFAULT_COMMIT_SIZE;
+	TitanGraph titanGraph = TitanFactory.open(args[0]);
+	try {
+	    long migrated = new DiscriminatorMigration(titanGraph, commitSize)
+		    .migrate();
+	    System.out.println(migrated + " vertices were migrated.");
+	} finally {
+	    titanGraph.shutdown();
+	}
+    }
+
+    private final TitanGraph titanGraph;
+    private final int commitSize;
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param titanGraph
+     *            is the graph to be migrated.
+     */
+    public DiscriminatorMigration(TitanGraph titanGraph) {
+	this(titanGraph, DEFAULT_COMMIT_SIZE);
+    }
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param titanGraph
+     *            is the graph to be migrated.
+     * @param commitSize
+     *            is the number of vertices which are migrated within one
+     *            transaction. It must be positive.
+     */
+    public DiscriminatorMigration(TitanGraph titanGraph, int commitSize) {
+	if (titanGraph == null) {
+	    throw new IllegalArgumentException(
+		    "The Titan graph must not be null.");
+	}
+	if (commitSize <= 0) {
+	    throw new IllegalArgumentException(
+		    "The commit size must be positive, but was '" + commitSize
+			    + "'.");
+	}
+	this.titanGraph = titanGraph;
+	this.commitSize = commitSize;
+    }
+
+    /**
+     * This method runs the migration.
+     * 
+     * @return The number of migrated vertices is returned.
+     */
+    public long migrate() {
+	checkAndCreateDiscriminatorSet();
+	List<String> discriminators = getDiscriminators();
+	logger.info("Migrating the discriminators " + discriminators + "...");
+	long migrated = 0;
+	try {
+	    for (String discriminator : discriminators) {
+		String key = DiscriminatorLayout.PROPERTY_PER_DISCRIMINATOR
+			.getPropertyKey(discriminator);
+		int batch;
+		do {
+		    /*
+		     * Migrated vertices lose their discriminator properties, so
+		     * each query finds the next batch and no vertex ids need to
+		     * be kept.
+		     */
+		    batch = 0;
+		    for (Vertex vertex : titanGraph.query()
+			    .has(key, discriminator).limit(commitSize)
+			    .vertices()) {
+			if (migrate(vertex)) {
+			    batch++;
+			}
+		    }
+		    titanGraph.commit();
+		    migrated += batch;
+		    if (batch > 0) {
+			logger.info(migrated + " vertices migrated...");
+		    }
+		} while (batch > 0);
+	    }
+	} catch (RuntimeException e) {
+	    titanGraph.rollback();
+	    throw e;
+	}
+	logger.info("Migration finished, " + migrated
+		+ " vertices were migrated.");
+	return migrated;
+    }
+
+    /**
+     * Returns the discriminators which are stored in properties of their own.
+     * They are taken from the names of the property keys in the schema.
+     * 
+     * @return A {@link List} of discriminators is returned.
+     */
+    private List<String> getDiscriminators() {
+	List<String> discriminators = new ArrayList<>();
+	TitanManagement managementSystem = titanGraph.getManagementSystem();
+	try {
+	    for (PropertyKey propertyKey : managementSystem
+		    .getRelationTypes(PropertyKey.class)) {
+		String name = propertyKey.getName();
+		if (name.startsWith(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY)) {
+		    discriminators.add(name
+			    .substring(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
+				    .length()));
+		}
+	    }
+	} finally {
+	    managementSystem.rollback();
+	}
+	return discriminators;
+    }
+
+    private boolean migrate(Vertex vertex) {
+	List<String> keys = new ArrayList<>();
+	for (String key : vertex.getPropertyKeys()) {
+	    if (key.startsWith(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY)) {
+		keys.add(key);
+	    }
+	}
+	for (String key : keys) {
+	    String discriminator = vertex.removeProperty(key);
+	    DiscriminatorLayout.DISCRIMINATOR_SET.addDiscriminator(vertex,
+		    discriminator);
+	}
+	return !keys.isEmpty();
+    }
+
+    private void checkAndCreateDiscriminatorSet() {
+	String name = TitanStoreSession.XO_DISCRIMINATOR_SET_PROPERTY;
+	TitanManagement managementSystem = titanGraph.getManagementSystem();
+	try {
+	    PropertyKey propertyKey = managementSystem.getPropertyKey(name);
+	    if (propertyKey == null) {
+		logger.info("Create property key and index for '" + name
+			+ "'.");
+		propertyKey = managementSystem.makePropertyKey(name)
+			.dataType(String.class).cardinality(Cardinality.SET)
+			.make();
+		managementSystem.buildIndex(name + "_index", Vertex.class)
+			.addKey(propertyKey).buildCompositeIndex();
+		managementSystem.commit();
+	    } else if (propertyKey.getCardinality() != Cardinality.SET) {
+		throw new XOException("Property key '" + name
+			+ "' exists, but has cardinality '"
+			+ propertyKey.getCardinality() + "' instead of '"
+			+ Cardinality.SET + "'.");
+	    } else {
+		managementSystem.rollback();
+	    }
+	} catch (RuntimeException e) {
+	    if (managementSystem.isOpen()) {
+		managementSystem.rollback();
+	    }
+	    throw e;
+	}
+    }
+
+}
@@ -1,20 +1,32 @@
 package com.puresoltechnologies.xo.titan.impl;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
 
 public class GremlinExpression {
 
 	private final String resultName;
 	private final String expression;
+	private final Map<String, Object> parameters;
 
 	public GremlinExpression(String expression) {
 		this("", expression);
 	}
 
 	public GremlinExpression(String resultName, String expression) {
+		this(resultName, expression, Collections.<String, Object> emptyMap());
+	}
+
+	public GremlinExpression(String resultName, String expression,
+			Map<String, Object> parameters) {
 		super();
 		this.resultName = resultName;
 		this.expression = expression;
+		this.parameters = Collections
+				.unmodifiableMap(new HashMap<String, Object>(parameters));
 	}
 
 	public GremlinExpression(Gremlin gremlin) {
@@ -30,6 +42,10 @@ public class GremlinExpression {
 		return expression;
 	}
 
+	public Map<String, Object> getParameters() {
+		return parameters;
+	}
+
 	@Override
 	public String toString() {
 		return resultName + ":=" + expression;
@@ -1,18 +1,19 @@
 package com.puresoltechnologies.xo.titan.impl;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.spi.reflection.AnnotatedElement;
 import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
-import com.tinkerpop.blueprints.Edge;
-import com.tinkerpop.blueprints.Vertex;
 
 /**
  * This class manages the Gremlin expressions for the
- * {@link TitanCassandraStore}.
+ * {@link AbstractTitanStore}.
  * 
  * @author Rick-Rainer Ludwig
  */
@@ -87,48 +88,23 @@ public class GremlinManager {
 
     private static GremlinExpression applyParameters(
 	    Map<String, Object> parameters, GremlinExpression gremlinExpression) {
-	StringBuffer typeDefinitions = createTypeDefinitions(parameters);
+	/*
+	 * The values are passed as bindings and never put into the expression
+	 * text, so one compiled expression is used for all values.
+	 */
 	String expressionString = gremlinExpression.getExpression();
-	for (String type : parameters.keySet()) {
-	    String placeholder = "\\{" + type + "\\}";
-	    if (!"this".equals(type)) {
+	Map<String, Object> bindings = new HashMap<>();
+	for (Entry<String, Object> entry : parameters.entrySet()) {
+	    String name = entry.getKey();
+	    if (!"this".equals(name)) {
+		String placeholder = "\\{" + Pattern.quote(name) + "\\}";
 		expressionString = expressionString.replaceAll(placeholder,
-			type);
+			Matcher.quoteReplacement(name));
+		bindings.put(name, entry.getValue());
 	    }
 	}
-	String enhancedExpressionString = typeDefinitions.toString()
-		+ expressionString;
 	return new GremlinExpression(gremlinExpression.getResultName(),
-		enhancedExpressionString);
-    }
-
-    private static StringBuffer createTypeDefinitions(
-	    Map<String, Object> parameters) {
-	StringBuffer typeDefinitions = new StringBuffer();
-	for (Entry<String, Object> entry : parameters.entrySet()) {
-	    String type = entry.getKey();
-	    if (!"this".equals(type)) {
-		Object value = entry.getValue();
-		if (String.class.equals(value.getClass())) {
-		    typeDefinitions.append(type);
-		    typeDefinitions.append("=");
-		    typeDefinitions.append("'");
-		    typeDefinitions.append(value);
-		    typeDefinitions.append("'");
-		    typeDefinitions.append("\n");
-		} else if (Edge.class.isAssignableFrom(value.getClass())) {
-		    continue;
-		} else if (Vertex.class.isAssignableFrom(value.getClass())) {
-		    continue;
-		} else {
-		    typeDefinitions.append(type);
-		    typeDefinitions.append("=");
-		    typeDefinitions.append(value);
-		    typeDefinitions.append("\n");
-		}
-	    }
-	}
-	return typeDefinitions;
+		expressionString, bindings);
     }
 
 }
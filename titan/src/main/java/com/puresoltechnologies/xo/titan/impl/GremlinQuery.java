@@ -1,25 +1,44 @@
 package com.puresoltechnologies.xo.titan.impl;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
 
 import com.buschmais.xo.api.ResultIterator;
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.spi.datastore.DatastoreQuery;
 import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
-import com.thinkaurelius.titan.core.TitanGraph;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.pipes.Pipe;
 
 public class GremlinQuery implements DatastoreQuery<Gremlin> {
 
-	private final TitanGraph titanGraph;
+	private final TitanStoreTransaction transaction;
+	private final GremlinScriptCache gremlinScriptCache;
+	private final GremlinQueryRegistry gremlinQueryRegistry;
+	private final GremlinStartSelector gremlinStartSelector;
 
-	GremlinQuery(TitanGraph titanGraph) {
-		this.titanGraph = titanGraph;
+	GremlinQuery(TitanStoreTransaction transaction,
+			GremlinScriptCache gremlinScriptCache,
+			GremlinQueryRegistry gremlinQueryRegistry,
+			GremlinStartSelector gremlinStartSelector) {
+		this.transaction = transaction;
+		this.gremlinScriptCache = gremlinScriptCache;
+		this.gremlinQueryRegistry = gremlinQueryRegistry;
+		this.gremlinStartSelector = gremlinStartSelector;
 	}
 
 	@Override
@@ -27,7 +46,7 @@ public class GremlinQuery implements DatastoreQuery<Gremlin> {
 			Map<String, Object> parameters) {
 		final GremlinExpression gremlinExpression = GremlinManager
 				.getGremlinExpression(query, parameters);
-		return execute(parameters, gremlinExpression);
+		return execute(parameters, gremlinExpression, null);
 	}
 
 	@Override
@@ -35,23 +54,35 @@ public class GremlinQuery implements DatastoreQuery<Gremlin> {
 			Map<String, Object> parameters) {
 		final GremlinExpression gremlinExpression = GremlinManager
 				.getGremlinExpression(query, parameters);
-		return execute(parameters, gremlinExpression);
+		return execute(parameters, gremlinExpression, query.start());
 	}
 
 	private ResultIterator<Map<String, Object>> execute(
 			Map<String, Object> parameters,
-			final GremlinExpression gremlinExpression) {
+			final GremlinExpression gremlinExpression, String startHint) {
+		transaction.flush();
+		/*
+		 * Changes done by the script are not recorded, so the Titan
+		 * transaction cannot be replayed after a failed commit anymore and
+		 * the cached property values need to be read again.
+		 */
+		transaction.disableReplay();
+		transaction.invalidateCaches();
 		String expression = gremlinExpression.getExpression();
-		@SuppressWarnings("unchecked")
-		final Pipe<Vertex, ?> pipe = com.tinkerpop.gremlin.groovy.Gremlin
-				.compile(expression);
+		CompiledScript compiledScript = gremlinQueryRegistry
+				.getCompiledScript(expression);
+		if (compiledScript == null) {
+			compiledScript = gremlinScriptCache.getCompiledScript(expression);
+		}
+		final Pipe<Vertex, ?> pipe = createPipe(compiledScript,
+				gremlinExpression);
 		if (parameters.containsKey("this")) {
 			Object setThis = parameters.get("this");
 			if (Vertex.class.isAssignableFrom(setThis.getClass())) {
-				Vertex vertex = (Vertex) setThis;
+				Vertex vertex = transaction.bind((Vertex) setThis);
 				pipe.setStarts(Arrays.asList(vertex));
 			} else if (Edge.class.isAssignableFrom(setThis.getClass())) {
-				Edge edge = (Edge) setThis;
+				Edge edge = transaction.bind((Edge) setThis);
 				pipe.setStarts(Arrays.asList(edge.getVertex(Direction.IN),
 						edge.getVertex(Direction.OUT)));
 			} else {
@@ -60,31 +91,32 @@ public class GremlinQuery implements DatastoreQuery<Gremlin> {
 						+ setThis.getClass() + ")");
 			}
 		} else {
-			pipe.setStarts(titanGraph.query().vertices());
+			pipe.setStarts(gremlinStartSelector.getStarts(
+					transaction.getTitanTransaction(), gremlinExpression,
+					startHint));
 		}
+		final String resultName = gremlinExpression.getResultName();
 		return new ResultIterator<Map<String, Object>>() {
 
+			private boolean exhausted = false;
+
 			@Override
 			public boolean hasNext() {
-				return pipe.hasNext();
+				boolean hasNext = pipe.hasNext();
+				if (!hasNext && !exhausted) {
+					/*
+					 * The script ran lazily while iterating, so the properties
+					 * read in the meantime may be changed by it.
+					 */
+					exhausted = true;
+					transaction.invalidateCaches();
+				}
+				return hasNext;
 			}
 
 			@Override
 			public Map<String, Object> next() {
-				Map<String, Object> results = new HashMap<>();
-				Object next = pipe.next();
-				if (next instanceof Vertex) {
-					results.put(gremlinExpression.getResultName(), next);
-				} else if (next instanceof Edge) {
-					results.put(gremlinExpression.getResultName(), next);
-				} else if (next instanceof Map) {
-					@SuppressWarnings("unchecked")
-					Map<String, Object> map = (Map<String, Object>) next;
-					results.putAll(map);
-				} else {
-					results.put("unknown_type", next);
-				}
-				return results;
+				return createRow(resultName, wrap(pipe.next()));
 			}
 
 			@Override
@@ -99,4 +131,124 @@ public class GremlinQuery implements DatastoreQuery<Gremlin> {
 		};
 	}
 
+	/**
+	 * Wraps the vertices and edges of the result, so that they can be handed
+	 * out to XO. The vertices and edges within map results are wrapped when
+	 * they are read from the map.
+	 */
+	private Object wrap(Object next) {
+		if (next instanceof Vertex) {
+			return transaction.wrap((Vertex) next);
+		} else if (next instanceof Edge) {
+			return transaction.wrap((Edge) next);
+		} else if (next instanceof Map) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> map = (Map<String, Object>) next;
+			return new WrappingMap(map);
+		}
+		return next;
+	}
+
+	/**
+	 * Creates a result row without copying: vertices and edges are wrapped
+	 * into a single entry map and map results are returned as read-only view.
+	 */
+	static Map<String, Object> createRow(String resultName, Object next) {
+		if ((next instanceof Vertex) || (next instanceof Edge)) {
+			return Collections.singletonMap(resultName, next);
+		} else if (next instanceof Map) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> map = (Map<String, Object>) next;
+			return Collections.unmodifiableMap(map);
+		} else {
+			return Collections.singletonMap("unknown_type", next);
+		}
+	}
+
+	/**
+	 * This is a read-only view of a map result of a Gremlin query, which
+	 * wraps the vertices and edges of the map on access instead of copying
+	 * the map.
+	 */
+	private class WrappingMap extends AbstractMap<String, Object> {
+
+		private final Map<String, Object> map;
+
+		private WrappingMap(Map<String, Object> map) {
+			this.map = map;
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return map.containsKey(key);
+		}
+
+		@Override
+		public Object get(Object key) {
+			return wrap(map.get(key));
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					final Iterator<Entry<String, Object>> iterator = map
+							.entrySet().iterator();
+					return new Iterator<Entry<String, Object>>() {
+
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							Entry<String, Object> entry = iterator.next();
+							return new SimpleImmutableEntry<String, Object>(
+									entry.getKey(), wrap(entry.getValue()));
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException(
+									"Gremlin results are read-only.");
+						}
+					};
+				}
+			};
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Pipe<Vertex, ?> createPipe(CompiledScript compiledScript,
+			GremlinExpression gremlinExpression) {
+		Map<String, Object> bindings = new HashMap<>(
+				gremlinExpression.getParameters());
+		for (Entry<String, Object> binding : bindings.entrySet()) {
+			if (binding.getValue() instanceof Element) {
+				binding.setValue(transaction.bind((Element) binding
+						.getValue()));
+			}
+		}
+		try {
+			return (Pipe<Vertex, ?>) compiledScript.eval(new SimpleBindings(
+					bindings));
+		} catch (ScriptException e) {
+			throw new XOException("Could not evaluate Gremlin expression '"
+					+ gremlinExpression.getExpression() + "'.", e);
+		}
+	}
+
 }
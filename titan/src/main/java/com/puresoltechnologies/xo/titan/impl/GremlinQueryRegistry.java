@@ -0,0 +1,270 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.script.CompiledScript;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.buschmais.xo.api.annotation.ResultOf;
+import com.buschmais.xo.spi.metadata.method.MethodMetadata;
+import com.buschmais.xo.spi.metadata.method.ResultOfMethodMetadata;
+import com.buschmais.xo.spi.metadata.type.TypeMetadata;
+import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
+
+/**
+ * <p>
+ * This class is an immutable registry of all Gremlin expressions which are
+ * declared with {@link Gremlin} annotations on the registered types and their
+ * methods.
+ * </p>
+ * <p>
+ * All expressions are compiled when the registry is created during the
+ * initialization of the store. A syntax error in an expression lets the
+ * initialization fail and the queries do not need to compile their
+ * expressions later on.
+ * </p>
+ * <p>
+ * The expressions of queries used by {@link ResultOf} methods are compiled
+ * with the placeholders of the method parameters resolved, like they are
+ * executed. The parameters of all other expressions are not known before
+ * they are executed, so all placeholders in argument positions are resolved
+ * for them, see {@link #resolvePlaceholders(String)}. The normalized
+ * expressions are only used as keys.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class GremlinQueryRegistry {
+
+    private static final Logger logger = LoggerFactory
+	    .getLogger(GremlinQueryRegistry.class);
+
+    /**
+     * This pattern matches the parameter placeholders <code>{name}</code> in
+     * an expression.
+     */
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern
+	    .compile("\\{([A-Za-z_$][A-Za-z0-9_$]*)\\}");
+
+    /**
+     * These names in curly braces are never taken as placeholders of
+     * parameters with unknown names.
+     */
+    private static final Set<String> KEPT_NAMES = new HashSet<>(
+	    Arrays.asList("this", "it", "true", "false", "null"));
+
+    /**
+     * This is a helper method to replace the placeholders of the given
+     * parameters in the expression by their variable names in the same way as
+     * {@link GremlinManager} does it at run time. Other expressions in curly
+     * braces like the closures <code>{true}</code> or <code>{it}</code> and
+     * the placeholder <code>{this}</code> are kept.
+     * 
+     * @param expression
+     *            is the expression from the {@link Gremlin} annotation.
+     * @param parameterNames
+     *            are the names of the parameters passed to the expression.
+     * @return A {@link String} is returned containing the expression as it is
+     *         executed.
+     */
+    static String resolvePlaceholders(String expression,
+	    Collection<String> parameterNames) {
+	Matcher matcher = PLACEHOLDER_PATTERN.matcher(expression);
+	StringBuffer resolved = new StringBuffer();
+	while (matcher.find()) {
+	    String name = matcher.group(1);
+	    if (!"this".equals(name) && parameterNames.contains(name)) {
+		matcher.appendReplacement(resolved,
+			Matcher.quoteReplacement(name));
+	    } else {
+		matcher.appendReplacement(resolved,
+			Matcher.quoteReplacement(matcher.group()));
+	    }
+	}
+	matcher.appendTail(resolved);
+	return resolved.toString();
+    }
+
+    /**
+     * This is a helper method to replace the placeholders of an expression
+     * whose parameters are not known. A <code>{name}</code> is taken as
+     * placeholder if it stands in an argument position, which means that it
+     * follows an opening parenthesis or bracket, a comma, an operator or the
+     * start of the expression. Closures like <code>filter{x}</code> follow a
+     * method name and are kept as well as <code>{this}</code>,
+     * <code>{it}</code> and the literals <code>{true}</code>,
+     * <code>{false}</code> and <code>{null}</code>. If a placeholder is not
+     * passed as parameter at run time, the precompiled script is not found
+     * and the expression is compiled on its first execution.
+     * 
+     * @param expression
+     *            is the expression from the {@link Gremlin} annotation.
+     * @return A {@link String} is returned containing the expression as it is
+     *         executed with all parameters passed.
+     */
+    static String resolvePlaceholders(String expression) {
+	Matcher matcher = PLACEHOLDER_PATTERN.matcher(expression);
+	StringBuffer resolved = new StringBuffer();
+	while (matcher.find()) {
+	    String name = matcher.group(1);
+	    if (!KEPT_NAMES.contains(name)
+		    && isArgumentPosition(expression, matcher.start())) {
+		matcher.appendReplacement(resolved,
+			Matcher.quoteReplacement(name));
+	    } else {
+		matcher.appendReplacement(resolved,
+			Matcher.quoteReplacement(matcher.group()));
+	    }
+	}
+	matcher.appendTail(resolved);
+	return resolved.toString();
+    }
+
+    private static boolean isArgumentPosition(String expression, int position) {
+	for (int i = position - 1; i >= 0; i--) {
+	    char c = expression.charAt(i);
+	    if (!Character.isWhitespace(c)) {
+		return "([,=<>!+-*/%&|?:".indexOf(c) >= 0;
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * This is a helper method to collect the names of the parameters XO
+     * passes to the query of a {@link ResultOfMethodMetadata}. These are the
+     * parameters of the method and the name the entity itself is passed with.
+     * 
+     * @param resultOfMethodMetadata
+     *            is the metadata of the method.
+     * @return A {@link Set} of parameter names is returned.
+     */
+    private static Set<String> getParameterNames(
+	    ResultOfMethodMetadata<?> resultOfMethodMetadata) {
+	Set<String> parameterNames = new HashSet<>();
+	if (resultOfMethodMetadata.getParameters() != null) {
+	    for (ResultOf.Parameter parameter : resultOfMethodMetadata
+		    .getParameters()) {
+		parameterNames.add(parameter.value());
+	    }
+	}
+	if (resultOfMethodMetadata.getUsingThisAs() != null) {
+	    parameterNames.add(resultOfMethodMetadata.getUsingThisAs());
+	}
+	return parameterNames;
+    }
+
+    private final Map<String, CompiledScript> compiledScripts;
+    private final long compilationTime;
+
+    /**
+     * This constructor creates an empty registry.
+     */
+    public GremlinQueryRegistry() {
+	this.compiledScripts = Collections.emptyMap();
+	this.compilationTime = 0;
+    }
+
+    /**
+     * This is the initial value constructor which compiles all Gremlin
+     * expressions found in the metadata.
+     * 
+     * @param registeredMetadata
+     *            is the metadata of all registered types.
+     * @param gremlinScriptCache
+     *            is the {@link GremlinScriptCache} used to compile the
+     *            expressions.
+     */
+    public GremlinQueryRegistry(Collection<TypeMetadata> registeredMetadata,
+	    GremlinScriptCache gremlinScriptCache) {
+	long start = System.nanoTime();
+	Map<String, CompiledScript> compiledScripts = new HashMap<>();
+	for (TypeMetadata metadata : registeredMetadata) {
+	    addExpression(compiledScripts, gremlinScriptCache, metadata
+		    .getAnnotatedType().getAnnotatedElement(), null);
+	    for (MethodMetadata<?, ?> methodMetadata : metadata.getProperties()) {
+		if (methodMetadata.getAnnotatedMethod() != null) {
+		    addExpression(compiledScripts, gremlinScriptCache,
+			    methodMetadata.getAnnotatedMethod()
+				    .getAnnotatedElement(), null);
+		}
+		if (methodMetadata instanceof ResultOfMethodMetadata) {
+		    ResultOfMethodMetadata<?> resultOfMethodMetadata = (ResultOfMethodMetadata<?>) methodMetadata;
+		    Set<String> parameterNames = getParameterNames(resultOfMethodMetadata);
+		    addExpression(compiledScripts, gremlinScriptCache,
+			    resultOfMethodMetadata.getQuery(), parameterNames);
+		    addExpression(compiledScripts, gremlinScriptCache,
+			    resultOfMethodMetadata.getReturnType(), parameterNames);
+		}
+	    }
+	}
+	this.compiledScripts = Collections.unmodifiableMap(compiledScripts);
+	this.compilationTime = (System.nanoTime() - start) / 1000000;
+	logger.info("Precompiled " + compiledScripts.size()
+		+ " Gremlin expressions in " + compilationTime + "ms.");
+    }
+
+    private static void addExpression(
+	    Map<String, CompiledScript> compiledScripts,
+	    GremlinScriptCache gremlinScriptCache,
+	    AnnotatedElement annotatedElement, Collection<String> parameterNames) {
+	// the parameter names are null, if they are not known
+	if (annotatedElement == null) {
+	    return;
+	}
+	Gremlin gremlin = annotatedElement.getAnnotation(Gremlin.class);
+	if (gremlin == null) {
+	    return;
+	}
+	String expression = parameterNames != null ? resolvePlaceholders(
+		gremlin.value(), parameterNames) : resolvePlaceholders(gremlin
+		.value());
+	String key = GremlinScriptCache.normalize(expression);
+	if (!compiledScripts.containsKey(key)) {
+	    compiledScripts.put(key, gremlinScriptCache.compile(expression));
+	}
+    }
+
+    /**
+     * Returns the precompiled script for the given expression.
+     * 
+     * @param expression
+     *            is the expression with the parameters applied.
+     * @return A {@link CompiledScript} is returned or <code>null</code> if
+     *         the expression was not precompiled.
+     */
+    public CompiledScript getCompiledScript(String expression) {
+	return compiledScripts.get(GremlinScriptCache.normalize(expression));
+    }
+
+    /**
+     * Returns the number of precompiled expressions.
+     * 
+     * @return The number of expressions is returned.
+     */
+    public int size() {
+	return compiledScripts.size();
+    }
+
+    /**
+     * Returns the time which was needed to compile all expressions. This is
+     * the warm-up time of the Gremlin queries during startup.
+     * 
+     * @return The time in milliseconds is returned.
+     */
+    public long getCompilationTime() {
+	return compilationTime;
+    }
+
+}
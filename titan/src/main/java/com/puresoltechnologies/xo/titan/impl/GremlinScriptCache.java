@@ -0,0 +1,214 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import com.buschmais.xo.api.XOException;
+import com.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+
+/**
+ * <p>
+ * This class keeps the compiled Gremlin scripts for the {@link GremlinQuery}.
+ * </p>
+ * <p>
+ * Compiling a Gremlin expression means running the Groovy compiler which is
+ * by far the most expensive part of a query. The compiled scripts are kept in
+ * a bounded cache with LRU eviction which is keyed by the normalized
+ * expression text. A compiled script is stateless, so a new pipe is created
+ * for each evaluation and the cache can be shared by all sessions of a store.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class GremlinScriptCache {
+
+    /**
+     * This constant contains the default number of compiled scripts which are
+     * kept in the cache.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * This is a helper method to normalize a Gremlin expression to be used as
+     * cache key. Leading and trailing white spaces are removed and all other
+     * white space sequences outside of string literals are collapsed to a
+     * single blank or, if they contain a line break, to a single line break.
+     * Line breaks are kept, because they separate statements in Groovy.
+     * Expressions with a slash outside of string literals are only trimmed,
+     * because white spaces within slashy strings and regular expressions are
+     * significant and cannot be told apart from divisions here.
+     * 
+     * @param expression
+     *            is the expression to be normalized.
+     * @return A {@link String} is returned containing the normalized
+     *         expression.
+     */
+    static String normalize(String expression) {
+	String trimmed = expression.trim();
+	StringBuilder normalized = new StringBuilder(trimmed.length());
+	char quote = 0;
+	boolean whitespace = false;
+	boolean lineBreak = false;
+	for (int i = 0; i < trimmed.length(); i++) {
+	    char c = trimmed.charAt(i);
+	    if (quote != 0) {
+		normalized.append(c);
+		if (c == '\\') {
+		    if (i + 1 < trimmed.length()) {
+			normalized.append(trimmed.charAt(++i));
+		    }
+		} else if (c == quote) {
+		    quote = 0;
+		}
+	    } else if (c == '/') {
+		return trimmed;
+	    } else if (Character.isWhitespace(c)) {
+		whitespace = true;
+		if ((c == '\n') || (c == '\r')) {
+		    lineBreak = true;
+		}
+	    } else {
+		if (whitespace) {
+		    normalized.append(lineBreak ? '\n' : ' ');
+		    whitespace = false;
+		    lineBreak = false;
+		}
+		if ((c == '\'') || (c == '"')) {
+		    quote = c;
+		}
+		normalized.append(c);
+	    }
+	}
+	return normalized.toString();
+    }
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final GremlinGroovyScriptEngine engine;
+    private final int size;
+    private final Map<String, CompiledScript> cache;
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param size
+     *            is the maximum number of compiled scripts to be kept. A size
+     *            of zero disables the caching.
+     */
+    public GremlinScriptCache(final int size) {
+	if (size < 0) {
+	    throw new IllegalArgumentException(
+		    "The size of the cache must not be negative.");
+	}
+	this.size = size;
+	/*
+	 * The engine keeps its own class map, which is bound to the same size
+	 * to not grow beyond the cache.
+	 */
+	this.engine = new GremlinGroovyScriptEngine(Math.max(size, 1));
+	this.cache = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+
+	    private static final long serialVersionUID = 1L;
+
+	    @Override
+	    protected boolean removeEldestEntry(
+		    Entry<String, CompiledScript> eldest) {
+		return size() > GremlinScriptCache.this.size;
+	    }
+	};
+    }
+
+    /**
+     * Returns the compiled script for the given expression. The script is
+     * compiled and put into the cache, if it is not present, yet. The
+     * normalized expression is only used as cache key, the expression itself
+     * is compiled as it is.
+     * 
+     * @param expression
+     *            is the Gremlin expression to be compiled.
+     * @return A {@link CompiledScript} is returned which creates a new pipe
+     *         for each evaluation.
+     */
+    public CompiledScript getCompiledScript(String expression) {
+	String key = normalize(expression);
+	CompiledScript compiledScript;
+	synchronized (cache) {
+	    compiledScript = cache.get(key);
+	}
+	if (compiledScript != null) {
+	    hits.incrementAndGet();
+	    return compiledScript;
+	}
+	misses.incrementAndGet();
+	compiledScript = compile(expression);
+	synchronized (cache) {
+	    cache.put(key, compiledScript);
+	}
+	return compiledScript;
+    }
+
+    /**
+     * Compiles the given expression without putting it into the cache.
+     * 
+     * @param expression
+     *            is the Gremlin expression to be compiled.
+     * @return A {@link CompiledScript} is returned.
+     */
+    CompiledScript compile(String expression) {
+	try {
+	    return engine.compile(expression);
+	} catch (ScriptException e) {
+	    throw new XOException("Could not compile Gremlin expression '"
+		    + expression + "'.", e);
+	}
+    }
+
+    /**
+     * Returns the maximum number of compiled scripts kept by this cache.
+     * 
+     * @return The size is returned.
+     */
+    public int getSize() {
+	return size;
+    }
+
+    /**
+     * Returns the number of cache hits.
+     * 
+     * @return The number of hits is returned.
+     */
+    public long getHits() {
+	return hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses, which is the number of compilations
+     * done.
+     * 
+     * @return The number of misses is returned.
+     */
+    public long getMisses() {
+	return misses.get();
+    }
+
+    /**
+     * Removes all compiled scripts from the cache.
+     */
+    public void clear() {
+	synchronized (cache) {
+	    cache.clear();
+	}
+    }
+
+    @Override
+    public String toString() {
+	return "GremlinScriptCache(size=" + size + ", hits=" + getHits()
+		+ ", misses=" + getMisses() + ")";
+    }
+}
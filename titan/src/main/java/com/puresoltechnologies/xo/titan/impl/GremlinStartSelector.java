@@ -0,0 +1,173 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.buschmais.xo.api.XOException;
+import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
+import com.thinkaurelius.titan.core.TitanGraphTransaction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * <p>
+ * This class selects the start vertices for a {@link GremlinQuery} which is
+ * not started at a given vertex or edge.
+ * </p>
+ * <p>
+ * Instead of starting with all vertices of the graph, the start vertices are
+ * looked up with an index lookup. The index lookup is derived from the start
+ * hint of the {@link Gremlin} annotation or from the first
+ * <code>has(...)</code> step of the expression, if it filters on a
+ * discriminator or an indexed property. Only if nothing narrows the start
+ * vertices, all vertices are used and a warning is logged.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class GremlinStartSelector {
+
+    private static final Logger logger = LoggerFactory
+	    .getLogger(GremlinStartSelector.class);
+
+    /**
+     * This pattern matches an expression starting with
+     * <code>_().has('key')</code> or <code>_().has('key', value)</code>,
+     * where value is a variable or a string literal.
+     */
+    private static final Pattern HAS_PATTERN = Pattern
+	    .compile("^_\\(\\)\\s*\\.\\s*has\\(\\s*'([^'\\\\]+)'\\s*(?:,\\s*([A-Za-z_$][A-Za-z0-9_$]*|'[^'\\\\]*'|\"[^\"\\\\$]*\")\\s*)?\\)");
+
+    /**
+     * This pattern matches a start hint <code>key</code>,
+     * <code>key={parameter}</code> or <code>key='literal'</code>.
+     */
+    private static final Pattern HINT_PATTERN = Pattern
+	    .compile("^\\s*([^=\\s]+)\\s*(?:=\\s*(?:\\{([A-Za-z_$][A-Za-z0-9_$]*)\\}|'([^'\\\\]*)')\\s*)?$");
+
+    private final Set<String> indexedKeys;
+    private final Set<String> scanExpressions = Collections
+	    .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * This constructor creates a selector without any indexed keys.
+     */
+    public GremlinStartSelector() {
+	this(Collections.<String> emptySet());
+    }
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param indexedKeys
+     *            are the names of the vertex property keys which are indexed,
+     *            including the discriminator properties.
+     */
+    public GremlinStartSelector(Collection<String> indexedKeys) {
+	this.indexedKeys = Collections.unmodifiableSet(new HashSet<>(
+		indexedKeys));
+    }
+
+    /**
+     * Returns the names of the indexed vertex property keys.
+     * 
+     * @return An unmodifiable {@link Set} is returned.
+     */
+    public Set<String> getIndexedKeys() {
+	return indexedKeys;
+    }
+
+    /**
+     * This method selects the start vertices for the given expression.
+     * 
+     * @param titanGraph
+     *            is the graph or the transaction to query.
+     * @param gremlinExpression
+     *            is the expression with the parameters applied.
+     * @param startHint
+     *            is the start hint of the {@link Gremlin} annotation. It may
+     *            be <code>null</code> or empty.
+     * @return An {@link Iterable} of the start vertices is returned.
+     */
+    public Iterable<Vertex> getStarts(TitanGraphTransaction titanGraph,
+	    GremlinExpression gremlinExpression, String startHint) {
+	Map<String, Object> parameters = gremlinExpression.getParameters();
+	if ((startHint != null) && (!startHint.isEmpty())) {
+	    Matcher matcher = HINT_PATTERN.matcher(startHint);
+	    if (!matcher.matches()) {
+		throw new XOException("Start hint '" + startHint
+			+ "' is invalid. Expected 'key', 'key={parameter}'"
+			+ " or 'key='literal''.");
+	    }
+	    String key = matcher.group(1);
+	    String parameter = matcher.group(2);
+	    String literal = matcher.group(3);
+	    if (literal != null) {
+		return titanGraph.query().has(key, literal).vertices();
+	    }
+	    if ((parameter == null) && (isDiscriminator(key))) {
+		return titanGraph.query()
+			.has(key, getDiscriminatorValue(key)).vertices();
+	    }
+	    if (parameter == null) {
+		parameter = key;
+	    }
+	    if (!parameters.containsKey(parameter)) {
+		throw new XOException("Start hint '" + startHint
+			+ "' refers to parameter '" + parameter
+			+ "' which is not set.");
+	    }
+	    return titanGraph.query().has(key, parameters.get(parameter))
+		    .vertices();
+	}
+	String expression = gremlinExpression.getExpression().trim();
+	Matcher matcher = HAS_PATTERN.matcher(expression);
+	if (matcher.find()) {
+	    String key = matcher.group(1);
+	    String value = matcher.group(2);
+	    if (indexedKeys.contains(key)) {
+		if (value == null) {
+		    if (isDiscriminator(key)) {
+			return titanGraph.query()
+				.has(key, getDiscriminatorValue(key))
+				.vertices();
+		    }
+		} else if (value.startsWith("'") || value.startsWith("\"")) {
+		    return titanGraph.query()
+			    .has(key, value.substring(1, value.length() - 1))
+			    .vertices();
+		} else if (parameters.get(value) != null) {
+		    return titanGraph.query().has(key, parameters.get(value))
+			    .vertices();
+		}
+	    }
+	}
+	if (scanExpressions.add(expression)) {
+	    logger.warn("Gremlin expression '" + expression
+		    + "' cannot be started from an index and scans all vertices."
+		    + " Start it with has(...) on an indexed property or add a"
+		    + " start hint to the @Gremlin annotation.");
+	}
+	return titanGraph.query().vertices();
+    }
+
+    private boolean isDiscriminator(String key) {
+	return key.startsWith(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY)
+		&& (key.length() > TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
+			.length());
+    }
+
+    private String getDiscriminatorValue(String key) {
+	return key.substring(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
+		.length());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * This class wraps the edges of a collection property. The edges are read in
+ * batches and the properties of the adjacent vertices of each batch are loaded
+ * with a single multi-query before the edges are handed out. So the entities
+ * of the collection are read with one storage round trip per batch instead of
+ * one per entity.
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+class PrefetchingEdgeIterable implements Iterable<Edge> {
+
+    private final Iterable<Edge> edges;
+    private final Direction adjacentDirection;
+    private final TitanStoreEdgeManager edgeManager;
+    private final int prefetchSize;
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param edges
+     *            are the edges to be wrapped.
+     * @param adjacentDirection
+     *            is the {@link Direction} of the adjacent vertices at the
+     *            edges.
+     * @param edgeManager
+     *            is the {@link TitanStoreEdgeManager} which prefetches the
+     *            vertices.
+     * @param prefetchSize
+     *            is the number of edges per batch. It must be positive.
+     */
+    PrefetchingEdgeIterable(Iterable<Edge> edges, Direction adjacentDirection,
+	    TitanStoreEdgeManager edgeManager, int prefetchSize) {
+	this.edges = edges;
+	this.adjacentDirection = adjacentDirection;
+	this.edgeManager = edgeManager;
+	this.prefetchSize = prefetchSize;
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+	final Iterator<Edge> iterator = edges.iterator();
+	return new Iterator<Edge>() {
+
+	    private final LinkedList<Edge> batch = new LinkedList<>();
+
+	    @Override
+	    public boolean hasNext() {
+		if (batch.isEmpty()) {
+		    readBatch();
+		}
+		return !batch.isEmpty();
+	    }
+
+	    @Override
+	    public Edge next() {
+		if (!hasNext()) {
+		    throw new NoSuchElementException();
+		}
+		return batch.removeFirst();
+	    }
+
+	    @Override
+	    public void remove() {
+		throw new UnsupportedOperationException(
+			"Edges cannot be removed here.");
+	    }
+
+	    private void readBatch() {
+		List<Vertex> vertices = new ArrayList<>();
+		while (iterator.hasNext() && (batch.size() < prefetchSize)) {
+		    Edge edge = iterator.next();
+		    batch.add(edge);
+		    vertices.add(edge.getVertex(adjacentDirection));
+		}
+		edgeManager.prefetch(vertices);
+	    }
+	};
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+/**
+ * This interface is implemented by the mutations of the graph which are
+ * recorded by the {@link TitanStoreTransaction}, when the
+ * {@link CommitRetryPolicy} allows retries. The mutations are replayed in a
+ * new Titan transaction after a commit failed, because Titan rolls back the
+ * failed transaction.
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+interface RecordedMutation {
+
+    /**
+     * Applies the mutation again to the current Titan transaction of the
+     * {@link TitanStoreTransaction}. Vertices and edges created by the
+     * mutation are created anew and the wrappers handed out to XO are bound
+     * to them.
+     */
+    void replay();
+
+}
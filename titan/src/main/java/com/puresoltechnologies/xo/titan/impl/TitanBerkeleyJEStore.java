@@ -0,0 +1,77 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * <p>
+ * This class implements an XO Datastore for Titan on an embedded BerkeleyDB
+ * Java Edition. The <code>titan-berkeleyje</code> artifact needs to be in the
+ * class path. It is only an optional dependency of XO-Titan and has to be
+ * added to the project using this store explicitly.
+ * </p>
+ * <p>
+ * For details have a look to <a
+ * href="https://github.com/thinkaurelius/titan/wiki/Using-BerkeleyDB"
+ * >https://github.com/thinkaurelius/titan/wiki/Using-BerkeleyDB</a>
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class TitanBerkeleyJEStore extends AbstractTitanStore {
+
+    /**
+     * This field contains the directory where BerkeleyDB stores the data.
+     */
+    private final File directory;
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param directory
+     *            is the directory where the data is stored.
+     */
+    public TitanBerkeleyJEStore(File directory) {
+	this(directory, new Properties());
+    }
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param directory
+     *            is the directory where the data is stored.
+     * @param properties
+     *            are the properties of the XOUnit to configure the store.
+     */
+    public TitanBerkeleyJEStore(File directory, Properties properties) {
+	super(properties);
+	if (directory == null) {
+	    throw new IllegalArgumentException(
+		    "The directory must not be null.");
+	}
+	this.directory = directory;
+    }
+
+    /**
+     * Returns the directory where the data is stored.
+     * 
+     * @return A {@link File} is returned with the directory.
+     */
+    public File getDirectory() {
+	return directory;
+    }
+
+    @Override
+    public String getStorageBackend() {
+	return "berkeleyje";
+    }
+
+    @Override
+    protected void configureStorage(Configuration configuration) {
+	configuration.setProperty("storage.directory",
+		directory.getAbsolutePath());
+    }
+
+}
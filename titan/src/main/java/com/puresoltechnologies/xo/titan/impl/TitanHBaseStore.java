@@ -0,0 +1,129 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.Properties;
+
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * <p>
+ * This class implements an XO Datastore for Titan on HBase. The
+ * <code>titan-hbase</code> artifact needs to be in the class path. It is only
+ * an optional dependency of XO-Titan and has to be added to the project
+ * using this store explicitly.
+ * </p>
+ * <p>
+ * For details have a look to <a
+ * href="https://github.com/thinkaurelius/titan/wiki/Using-HBase"
+ * >https://github.com/thinkaurelius/titan/wiki/Using-HBase</a>
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class TitanHBaseStore extends AbstractTitanStore {
+
+    /**
+     * This constant contains the default name of the HBase table which is set
+     * to {@value #DEFAULT_TITAN_TABLE}.
+     */
+    public static final String DEFAULT_TITAN_TABLE = "titan";
+
+    /**
+     * This field contains the ZooKeeper host of HBase to connect to.
+     */
+    private final String host;
+    /**
+     * This field contains the ZooKeeper port of HBase.
+     */
+    private final int port;
+    /**
+     * This is the name of the table to use for Titan.
+     */
+    private final String table;
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param host
+     *            is the ZooKeeper host of HBase for Titan to connect to.
+     * @param port
+     *            is the ZooKeeper port of HBase for Titan to connect to. If
+     *            it is not positive, the default port of HBase is used.
+     * @param table
+     *            is the table to be used by Titan.
+     */
+    public TitanHBaseStore(String host, int port, String table) {
+	this(host, port, table, new Properties());
+    }
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param host
+     *            is the ZooKeeper host of HBase for Titan to connect to.
+     * @param port
+     *            is the ZooKeeper port of HBase for Titan to connect to. If
+     *            it is not positive, the default port of HBase is used.
+     * @param table
+     *            is the table to be used by Titan.
+     * @param properties
+     *            are the properties of the XOUnit to configure the store.
+     */
+    public TitanHBaseStore(String host, int port, String table,
+	    Properties properties) {
+	super(properties);
+	if ((host == null) || (host.isEmpty())) {
+	    throw new IllegalArgumentException(
+		    "The host must not be null or empty.");
+	}
+	this.host = host;
+	this.port = port;
+	if ((table == null) || (table.isEmpty())) {
+	    this.table = DEFAULT_TITAN_TABLE;
+	} else {
+	    this.table = table;
+	}
+    }
+
+    /**
+     * Returns the ZooKeeper host name of HBase.
+     * 
+     * @return A {@link String} with the host name is returned.
+     */
+    public String getHost() {
+	return host;
+    }
+
+    /**
+     * Returns the ZooKeeper port of HBase.
+     * 
+     * @return An <code>int</code> is returned with the port. It is not
+     *         positive, if the default port is used.
+     */
+    public int getPort() {
+	return port;
+    }
+
+    /**
+     * Returns the currently used table.
+     * 
+     * @return A {@link String} is returned with the name of the table.
+     */
+    public String getTable() {
+	return table;
+    }
+
+    @Override
+    public String getStorageBackend() {
+	return "hbase";
+    }
+
+    @Override
+    protected void configureStorage(Configuration configuration) {
+	configuration.setProperty("storage.hostname", host);
+	if (port > 0) {
+	    configuration.setProperty("storage.port", port);
+	}
+	configuration.setProperty("storage.hbase.table", table);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.Properties;
+
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * <p>
+ * This class implements an XO Datastore for Titan with the in-memory storage
+ * backend.
+ * </p>
+ * <p>
+ * The graph only lives as long as the store is open and is not persisted. The
+ * store is meant for tests and needs no external database.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+public class TitanInMemoryStore extends AbstractTitanStore {
+
+    /**
+     * This is the default constructor.
+     */
+    public TitanInMemoryStore() {
+	this(new Properties());
+    }
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param properties
+     *            are the properties of the XOUnit to configure the store.
+     */
+    public TitanInMemoryStore(Properties properties) {
+	super(properties);
+    }
+
+    @Override
+    public String getStorageBackend() {
+	return "inmemory";
+    }
+
+    @Override
+    protected void configureStorage(Configuration configuration) {
+	// Nothing to configure, the graph is kept in memory only.
+    }
+
+}
@@ -1,7 +1,19 @@
 package com.puresoltechnologies.xo.titan.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
 
+import org.apache.commons.lang.ClassUtils;
 import org.apache.commons.lang.StringUtils;
 
 import com.buschmais.xo.api.XOException;
@@ -11,18 +23,26 @@ import com.buschmais.xo.spi.metadata.type.TypeMetadata;
 import com.buschmais.xo.spi.reflection.AnnotatedElement;
 import com.buschmais.xo.spi.reflection.AnnotatedMethod;
 import com.buschmais.xo.spi.reflection.AnnotatedType;
+import com.buschmais.xo.spi.reflection.BeanMethodProvider;
+import com.buschmais.xo.spi.reflection.GetPropertyMethod;
 import com.buschmais.xo.spi.reflection.PropertyMethod;
 import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition;
 import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Incoming;
 import com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition.Outgoing;
 import com.puresoltechnologies.xo.titan.api.annotation.Indexed;
+import com.puresoltechnologies.xo.titan.api.annotation.MixedIndexed;
 import com.puresoltechnologies.xo.titan.api.annotation.Property;
+import com.puresoltechnologies.xo.titan.api.annotation.VertexCentricIndex;
 import com.puresoltechnologies.xo.titan.api.annotation.VertexDefinition;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanCollectionPropertyMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanCompositeIndexMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanEdgeMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanIndexedPropertyMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanMixedIndexMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanMixedIndexedPropertyMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanPropertyMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanReferencePropertyMetadata;
+import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexCentricIndexMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexMetadata;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
@@ -57,7 +77,10 @@ public class TitanMetadataFactory
 		indexedProperty = typeMetadata.getIndexedProperty();
 	    }
 	}
-	return new TitanVertexMetadata(value, indexedProperty);
+	Class<?> type = annotatedType.getAnnotatedElement();
+	return new TitanVertexMetadata(value, indexedProperty,
+		createCompositeIndexMetadata(type, Vertex.class),
+		createMixedIndexMetadata(type, Vertex.class));
     }
 
     @Override
@@ -153,10 +176,205 @@ public class TitanMetadataFactory
 			    + name
 			    + "' was found with index annotation, but the declaring type is neither a vertex nor an edge.");
 	}
+	return createIndexedPropertyMetadata(propertyMethod, type);
+    }
+
+    private static TitanIndexedPropertyMetadata createIndexedPropertyMetadata(
+	    PropertyMethod propertyMethod, Class<? extends Element> type) {
+	Property property = propertyMethod
+		.getAnnotationOfProperty(Property.class);
+	String name = property != null ? property.value() : propertyMethod
+		.getName();
 	Indexed indexedAnnotation = propertyMethod.getAnnotation(Indexed.class);
 	boolean unique = indexedAnnotation.unique();
 	Class<?> dataType = propertyMethod.getType();
-	return new TitanIndexedPropertyMetadata(name, unique, dataType, type);
+	return new TitanIndexedPropertyMetadata(name, unique, dataType, type,
+		indexedAnnotation.group(), indexedAnnotation.order());
+    }
+
+    /**
+     * This method collects the properties of a type and its super types which
+     * are annotated with an {@link Indexed} group and creates the metadata of
+     * the composite index for each group.
+     * 
+     * @param annotatedType
+     *            is the vertex or edge type.
+     * @param type
+     *            is the type of the elements to be indexed.
+     * @return A {@link Collection} of {@link TitanCompositeIndexMetadata} is
+     *         returned. It is empty, if no group was found.
+     */
+    private static Collection<TitanCompositeIndexMetadata> createCompositeIndexMetadata(
+	    Class<?> annotatedType, Class<? extends Element> type) {
+	Map<String, Map<String, TitanIndexedPropertyMetadata>> groups = new TreeMap<>();
+	for (PropertyMethod method : getPropertyGetters(annotatedType)) {
+	    Indexed indexed = method.getAnnotation(Indexed.class);
+	    if ((indexed == null) || (indexed.group().isEmpty())) {
+		continue;
+	    }
+	    TitanIndexedPropertyMetadata property = createIndexedPropertyMetadata(
+		    method, type);
+	    Map<String, TitanIndexedPropertyMetadata> properties = groups
+		    .get(indexed.group());
+	    if (properties == null) {
+		properties = new HashMap<>();
+		groups.put(indexed.group(), properties);
+	    }
+	    if (!properties.containsKey(property.getName())) {
+		properties.put(property.getName(), property);
+	    }
+	}
+	List<TitanCompositeIndexMetadata> compositeIndexes = new ArrayList<>();
+	for (Entry<String, Map<String, TitanIndexedPropertyMetadata>> group : groups
+		.entrySet()) {
+	    List<TitanIndexedPropertyMetadata> properties = new ArrayList<>(
+		    group.getValue().values());
+	    Collections.sort(properties,
+		    new Comparator<TitanIndexedPropertyMetadata>() {
+			@Override
+			public int compare(TitanIndexedPropertyMetadata o1,
+				TitanIndexedPropertyMetadata o2) {
+			    if (o1.getOrder() != o2.getOrder()) {
+				return o1.getOrder() < o2.getOrder() ? -1 : 1;
+			    }
+			    return o1.getName().compareTo(o2.getName());
+			}
+		    });
+	    boolean unique = false;
+	    for (TitanIndexedPropertyMetadata property : properties) {
+		unique |= property.isUnique();
+	    }
+	    compositeIndexes.add(new TitanCompositeIndexMetadata(group
+		    .getKey(), unique, type, Collections
+		    .unmodifiableList(properties)));
+	}
+	return Collections.unmodifiableList(compositeIndexes);
+    }
+
+    /**
+     * This method creates the metadata of the mixed indexes of a type out of
+     * the properties of the type and its super types which are annotated
+     * with {@link MixedIndexed}.
+     * 
+     * @param annotatedType
+     *            is the vertex or edge type.
+     * @param type
+     *            is the type of the elements to be indexed.
+     * @return A {@link Collection} of {@link TitanMixedIndexMetadata} is
+     *         returned. It is empty, if no property is annotated.
+     */
+    private static Collection<TitanMixedIndexMetadata> createMixedIndexMetadata(
+	    Class<?> annotatedType, Class<? extends Element> type) {
+	Map<String, Map<String, TitanMixedIndexedPropertyMetadata>> indexes = new TreeMap<>();
+	for (PropertyMethod method : getPropertyGetters(annotatedType)) {
+	    MixedIndexed mixedIndexed = method
+		    .getAnnotation(MixedIndexed.class);
+	    if (mixedIndexed == null) {
+		continue;
+	    }
+	    String indexName = mixedIndexed.value();
+	    if (indexName.isEmpty()) {
+		indexName = Vertex.class.equals(type) ? MixedIndexed.DEFAULT_VERTEX_INDEX
+			: MixedIndexed.DEFAULT_EDGE_INDEX;
+	    }
+	    Property property = method.getAnnotationOfProperty(Property.class);
+	    String name = property != null ? property.value() : method
+		    .getName();
+	    Map<String, TitanMixedIndexedPropertyMetadata> properties = indexes
+		    .get(indexName);
+	    if (properties == null) {
+		properties = new TreeMap<>();
+		indexes.put(indexName, properties);
+	    }
+	    if (!properties.containsKey(name)) {
+		properties.put(name, new TitanMixedIndexedPropertyMetadata(
+			name, method.getType(), mixedIndexed.mapping()));
+	    }
+	}
+	List<TitanMixedIndexMetadata> mixedIndexes = new ArrayList<>();
+	for (Entry<String, Map<String, TitanMixedIndexedPropertyMetadata>> index : indexes
+		.entrySet()) {
+	    mixedIndexes.add(new TitanMixedIndexMetadata(index.getKey(), type,
+		    Collections.unmodifiableList(new ArrayList<>(index
+			    .getValue().values()))));
+	}
+	return Collections.unmodifiableList(mixedIndexes);
+    }
+
+    /**
+     * This method creates the metadata of the vertex-centric index of an edge
+     * type, which is declared with {@link VertexCentricIndex}.
+     * 
+     * @param annotatedType
+     *            is the edge type.
+     * @return A {@link TitanVertexCentricIndexMetadata} is returned or
+     *         <code>null</code>, if the edge type has no vertex-centric index.
+     */
+    private static TitanVertexCentricIndexMetadata createVertexCentricIndexMetadata(
+	    Class<?> annotatedType) {
+	VertexCentricIndex vertexCentricIndex = annotatedType
+		.getAnnotation(VertexCentricIndex.class);
+	if (vertexCentricIndex == null) {
+	    return null;
+	}
+	Map<String, Class<?>> dataTypes = new HashMap<>();
+	for (PropertyMethod method : getPropertyGetters(annotatedType)) {
+	    Property property = method.getAnnotationOfProperty(Property.class);
+	    String name = property != null ? property.value() : method
+		    .getName();
+	    dataTypes.put(name,
+		    ClassUtils.primitiveToWrapper(method.getType()));
+	}
+	if (vertexCentricIndex.keys().length == 0) {
+	    throw new XOException("Vertex-centric index '"
+		    + vertexCentricIndex.name() + "' of '"
+		    + annotatedType.getName() + "' has no keys.");
+	}
+	Map<String, Class<?>> sortKeys = new LinkedHashMap<>();
+	for (String key : vertexCentricIndex.keys()) {
+	    Class<?> dataType = dataTypes.get(key);
+	    if (dataType == null) {
+		throw new XOException("Vertex-centric index '"
+			+ vertexCentricIndex.name() + "' of '"
+			+ annotatedType.getName() + "' uses the key '" + key
+			+ "', which is not a property of the edge type.");
+	    }
+	    sortKeys.put(key, dataType);
+	}
+	return new TitanVertexCentricIndexMetadata(vertexCentricIndex.name(),
+		vertexCentricIndex.direction(), vertexCentricIndex.order(),
+		Collections.unmodifiableMap(sortKeys));
+    }
+
+    /**
+     * This method collects the getters of the properties of a type and its
+     * super types.
+     * 
+     * @param type
+     *            is the type to be scanned.
+     * @return A {@link List} of {@link PropertyMethod} is returned.
+     */
+    private static List<PropertyMethod> getPropertyGetters(Class<?> type) {
+	Set<Class<?>> types = new LinkedHashSet<>();
+	collectTypes(type, types);
+	List<PropertyMethod> getters = new ArrayList<>();
+	for (Class<?> currentType : types) {
+	    for (AnnotatedMethod method : BeanMethodProvider.newInstance(
+		    currentType).getMethods()) {
+		if (method instanceof GetPropertyMethod) {
+		    getters.add((PropertyMethod) method);
+		}
+	    }
+	}
+	return getters;
+    }
+
+    private static void collectTypes(Class<?> type, Set<Class<?>> types) {
+	if (types.add(type)) {
+	    for (Class<?> superType : type.getInterfaces()) {
+		collectTypes(superType, types);
+	    }
+	}
     }
 
     @Override
@@ -181,6 +399,21 @@ public class TitanMetadataFactory
 	if (name == null) {
 	    name = StringUtils.uncapitalize(annotatedElement.getName());
 	}
-	return new TitanEdgeMetadata(name);
+	Collection<TitanCompositeIndexMetadata> compositeIndexes;
+	Collection<TitanMixedIndexMetadata> mixedIndexes;
+	TitanVertexCentricIndexMetadata vertexCentricIndex;
+	if (annotatedElement instanceof AnnotatedType) {
+	    Class<?> type = ((AnnotatedType) annotatedElement)
+		    .getAnnotatedElement();
+	    compositeIndexes = createCompositeIndexMetadata(type, Edge.class);
+	    mixedIndexes = createMixedIndexMetadata(type, Edge.class);
+	    vertexCentricIndex = createVertexCentricIndexMetadata(type);
+	} else {
+	    compositeIndexes = Collections.emptyList();
+	    mixedIndexes = Collections.emptyList();
+	    vertexCentricIndex = null;
+	}
+	return new TitanEdgeMetadata(name, compositeIndexes, mixedIndexes,
+		vertexCentricIndex);
     }
 }
@@ -0,0 +1,43 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+/**
+ * This class is the edge of a relation as it is handed out to XO. The
+ * vertices read from it belong to the current Titan transaction of the
+ * session.
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+class TitanStoreEdge extends TitanStoreElement<Edge> implements Edge {
+
+    TitanStoreEdge(TitanStoreTransaction transaction, Edge edge,
+	    TitanTransaction titanTransaction) {
+	super(transaction, edge, titanTransaction);
+    }
+
+    @Override
+    Edge lookup(TitanTransaction titanTransaction, Object id) {
+	return titanTransaction.getEdge(id);
+    }
+
+    @Override
+    public Vertex getVertex(Direction direction) {
+	return getElement().getVertex(direction);
+    }
+
+    @Override
+    public String getLabel() {
+	return getElement().getLabel();
+    }
+
+    @Override
+    public String toString() {
+	return StringFactory.edgeString(this);
+    }
+
+}
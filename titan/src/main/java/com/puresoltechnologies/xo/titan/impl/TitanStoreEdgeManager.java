@@ -1,19 +1,26 @@
 package com.puresoltechnologies.xo.titan.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.spi.datastore.DatastoreRelationManager;
 import com.buschmais.xo.spi.metadata.method.PrimitivePropertyMethodMetadata;
 import com.buschmais.xo.spi.metadata.type.RelationTypeMetadata;
+import com.puresoltechnologies.xo.titan.api.RelationQuery;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanEdgeMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanPropertyMetadata;
-import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanEdge;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.core.TitanVertex;
+import com.thinkaurelius.titan.core.TitanVertexQuery;
+import com.thinkaurelius.titan.core.VertexList;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
-import com.tinkerpop.blueprints.VertexQuery;
 
 /**
  * This class implements the XO DatastorePropertyManager for Titan database.
@@ -24,10 +31,31 @@ public class TitanStoreEdgeManager
 	implements
 	DatastoreRelationManager<Vertex, Object, Edge, TitanEdgeMetadata, String, TitanPropertyMetadata> {
 
-    private final TitanGraph titanGraph;
+    private final TitanStoreTransaction transaction;
 
-    TitanStoreEdgeManager(TitanGraph titanGraph) {
-	this.titanGraph = titanGraph;
+    /**
+     * These fields keep the edge found by the last call of
+     * {@link #hasSingleRelation(Vertex, RelationTypeMetadata, RelationTypeMetadata.Direction)}
+     * . XO reads a reference with a call of hasSingleRelation followed by a
+     * call of getSingleRelation for the same vertex, so that the second read
+     * of the adjacency list is saved. The source is compared by its id,
+     * because XO passes the wrapped vertex while the bound one is queried.
+     * The edge is used only once and it is forgotten with each mutation of an
+     * edge.
+     */
+    private Object singleRelationSourceId = null;
+    private String singleRelationLabel = null;
+    private Direction singleRelationDirection = null;
+    private Edge singleRelation = null;
+
+    /**
+     * This field contains the number of edges of a collection property whose
+     * adjacent vertices are prefetched together. 0 disables the prefetching.
+     */
+    private int prefetchSize = AbstractTitanStore.DEFAULT_PREFETCH_SIZE;
+
+    TitanStoreEdgeManager(TitanStoreTransaction transaction) {
+	this.transaction = transaction;
     }
 
     @Override
@@ -35,45 +63,45 @@ public class TitanStoreEdgeManager
 	    RelationTypeMetadata<TitanEdgeMetadata> metadata,
 	    RelationTypeMetadata.Direction direction) {
 	String label = metadata.getDatastoreMetadata().getDiscriminator();
-	long count;
-	switch (direction) {
-	case FROM:
-	    count = source.query().direction(Direction.OUT).labels(label)
-		    .count();
-	    break;
-	case TO:
-	    count = source.query().direction(Direction.IN).labels(label)
-		    .count();
-	    break;
-	default:
-	    throw new XOException("Unkown direction '" + direction.name()
-		    + "'.");
+	Direction edgeDirection = getEdgeDirection(direction);
+	forgetSingleRelation();
+	source = transaction.bind(source);
+	Iterator<Edge> iterator = getSingleRelationCandidates(source, label,
+		edgeDirection).iterator();
+	if (!iterator.hasNext()) {
+	    return false;
 	}
-	if (count > 1) {
+	Edge edge = iterator.next();
+	if (iterator.hasNext()) {
 	    throw new XOException("Multiple results are available.");
 	}
-	return count == 1;
+	singleRelationSourceId = source.getId();
+	singleRelationLabel = label;
+	singleRelationDirection = edgeDirection;
+	singleRelation = edge;
+	return true;
     }
 
     @Override
     public Edge getSingleRelation(Vertex source,
 	    RelationTypeMetadata<TitanEdgeMetadata> metadata,
 	    RelationTypeMetadata.Direction direction) {
-	String descriminator = metadata.getDatastoreMetadata()
-		.getDiscriminator();
-	Iterable<Edge> edges;
-	switch (direction) {
-	case FROM:
-	    edges = source.getEdges(Direction.OUT, descriminator);
-	    break;
-	case TO:
-	    edges = source.getEdges(Direction.IN, descriminator);
-	    break;
-	default:
-	    throw new XOException("Unkown direction '" + direction.name()
-		    + "'.");
+	String label = metadata.getDatastoreMetadata().getDiscriminator();
+	Direction edgeDirection = getEdgeDirection(direction);
+	Edge edge = singleRelation;
+	boolean remembered = (edge != null)
+		&& source.getId().equals(singleRelationSourceId)
+		&& label.equals(singleRelationLabel)
+		&& (edgeDirection == singleRelationDirection);
+	forgetSingleRelation();
+	if (remembered) {
+	    edge = transaction.bind(edge);
+	    if (!((TitanEdge) edge).isRemoved()) {
+		return transaction.wrap(edge);
+	    }
 	}
-	Iterator<Edge> iterator = edges.iterator();
+	Iterator<Edge> iterator = getSingleRelationCandidates(
+		transaction.bind(source), label, edgeDirection).iterator();
 	if (!iterator.hasNext()) {
 	    throw new XOException("No result is available.");
 	}
@@ -81,87 +109,366 @@ public class TitanStoreEdgeManager
 	if (iterator.hasNext()) {
 	    throw new XOException("Multiple results are available.");
 	}
-	return result;
+	return transaction.wrap(result);
     }
 
-    @Override
-    public Iterable<Edge> getRelations(Vertex source,
-	    RelationTypeMetadata<TitanEdgeMetadata> metadata,
+    /**
+     * Sets the number of edges of a collection property whose adjacent
+     * vertices are prefetched together.
+     * 
+     * @param prefetchSize
+     *            is the number of edges. 0 disables the prefetching.
+     */
+    void setPrefetchSize(int prefetchSize) {
+	if (prefetchSize < 0) {
+	    throw new IllegalArgumentException(
+		    "The prefetch size must not be negative, but was '"
+			    + prefetchSize + "'.");
+	}
+	this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * Returns the number of edges of a collection property whose adjacent
+     * vertices are prefetched together.
+     * 
+     * @return The number of edges is returned. 0 means no prefetching.
+     */
+    int getPrefetchSize() {
+	return prefetchSize;
+    }
+
+    /**
+     * This method loads the properties and optionally the edges with the
+     * given labels of all vertices with one Titan multi-query. Afterwards the
+     * vertices are read from the transaction cache. Vertices created or
+     * removed in the current transaction are skipped.
+     * 
+     * @param vertices
+     *            are the vertices to be loaded.
+     * @param labels
+     *            are the labels of the edges to be loaded together with the
+     *            properties.
+     */
+    public void prefetch(Collection<? extends Vertex> vertices,
+	    String... labels) {
+	List<TitanVertex> titanVertices = new ArrayList<>();
+	for (Vertex vertex : vertices) {
+	    TitanVertex titanVertex = (TitanVertex) transaction.bind(vertex);
+	    if (!titanVertex.isNew() && !titanVertex.isRemoved()) {
+		titanVertices.add(titanVertex);
+	    }
+	}
+	if (titanVertices.isEmpty()) {
+	    return;
+	}
+	TitanTransaction titanTransaction = transaction.getTitanTransaction();
+	titanTransaction.multiQuery(titanVertices).properties();
+	if (labels.length > 0) {
+	    titanTransaction.multiQuery(titanVertices).labels(labels)
+		    .titanEdges();
+	}
+    }
+
+    private void forgetSingleRelation() {
+	singleRelationSourceId = null;
+	singleRelationLabel = null;
+	singleRelationDirection = null;
+	singleRelation = null;
+    }
+
+    /**
+     * This method reads at most two edges of a single valued relation. This
+     * is enough to distinguish between none, one and multiple edges without
+     * reading the whole adjacency list of vertices with many edges.
+     * 
+     * @param source
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the relation.
+     * @param direction
+     *            is the direction of the edges seen from the source.
+     * @return An {@link Iterable} of at most two edges is returned.
+     */
+    private Iterable<Edge> getSingleRelationCandidates(Vertex source,
+	    String label, Direction direction) {
+	return source.query().direction(direction).labels(label).limit(2)
+		.edges();
+    }
+
+    private static Direction getEdgeDirection(
 	    RelationTypeMetadata.Direction direction) {
-	VertexQuery query = source.query();
-	String discriminator = metadata.getDatastoreMetadata()
-		.getDiscriminator();
 	switch (direction) {
-	case TO:
-	    query = query.direction(Direction.IN).labels(discriminator);
-	    break;
 	case FROM:
-	    query = query.direction(Direction.OUT).labels(discriminator);
-	    break;
+	    return Direction.OUT;
+	case TO:
+	    return Direction.IN;
 	default:
 	    throw new XOException("Unknown direction '" + direction.name()
 		    + "'.");
 	}
-	return query.edges();
+    }
+
+    @Override
+    public Iterable<Edge> getRelations(final Vertex source,
+	    RelationTypeMetadata<TitanEdgeMetadata> metadata,
+	    RelationTypeMetadata.Direction direction) {
+	final String discriminator = metadata.getDatastoreMetadata()
+		.getDiscriminator();
+	final Direction edgeDirection = getEdgeDirection(direction);
+	return new TransactionalEdgeIterable(transaction) {
+
+	    @Override
+	    Iterable<Edge> query() {
+		Iterable<Edge> edges = transaction.bind(source).query()
+			.direction(edgeDirection).labels(discriminator).edges();
+		if (prefetchSize == 0) {
+		    return edges;
+		}
+		return new PrefetchingEdgeIterable(edges,
+			edgeDirection.opposite(), TitanStoreEdgeManager.this,
+			prefetchSize);
+	    }
+	};
+    }
+
+    /**
+     * This method returns the edges of a vertex with the given label, which
+     * match the conditions of the {@link RelationQuery}. The conditions, the
+     * cursor, the order and the limit are handed over to Titan, so that a
+     * vertex-centric index of the edge label is used. Only the edges of the
+     * offset are read and skipped here, when the iteration starts. The edges
+     * are wrapped like the ones handed out to XO, so that they stay usable
+     * after the Titan transaction of the session was closed.
+     * 
+     * @param source
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the edges.
+     * @param direction
+     *            is the {@link Direction} of the edges seen from the source.
+     * @param relationQuery
+     *            is the {@link RelationQuery} to restrict the edges.
+     * @return An {@link Iterable} of {@link Edge} is returned.
+     */
+    public Iterable<Edge> getRelations(Vertex source, String label,
+	    Direction direction, RelationQuery relationQuery) {
+	final Iterable<Edge> edges = createVertexQuery(source, label, direction,
+		relationQuery).edges();
+	final int offset = relationQuery.getOffset();
+	return new Iterable<Edge>() {
+
+	    @Override
+	    public Iterator<Edge> iterator() {
+		final Iterator<Edge> iterator = skip(edges.iterator(), offset);
+		return new Iterator<Edge>() {
+
+		    @Override
+		    public boolean hasNext() {
+			return iterator.hasNext();
+		    }
+
+		    @Override
+		    public Edge next() {
+			return transaction.wrap(iterator.next());
+		    }
+
+		    @Override
+		    public void remove() {
+			iterator.remove();
+		    }
+		};
+	    }
+	};
+    }
+
+    /**
+     * This method returns the adjacent vertices of a vertex like
+     * {@link #getRelations(Vertex, String, Direction, RelationQuery)}. The
+     * edges are not handed out, so that Titan does not need to create them.
+     * This is the fast path for navigations which only need the entities at
+     * the other end of the edges. The vertices are wrapped like the edges.
+     * 
+     * @param source
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the edges.
+     * @param direction
+     *            is the {@link Direction} of the edges seen from the source.
+     * @param relationQuery
+     *            is the {@link RelationQuery} to restrict the edges.
+     * @return An {@link Iterable} of {@link Vertex} is returned.
+     */
+    public Iterable<Vertex> getAdjacentVertices(Vertex source, String label,
+	    Direction direction, RelationQuery relationQuery) {
+	final Iterable<Vertex> vertices = createVertexQuery(source, label,
+		direction, relationQuery).vertices();
+	final int offset = relationQuery.getOffset();
+	return new Iterable<Vertex>() {
+
+	    @Override
+	    public Iterator<Vertex> iterator() {
+		final Iterator<Vertex> iterator = skip(vertices.iterator(),
+			offset);
+		return new Iterator<Vertex>() {
+
+		    @Override
+		    public boolean hasNext() {
+			return iterator.hasNext();
+		    }
+
+		    @Override
+		    public Vertex next() {
+			return transaction.wrap(iterator.next());
+		    }
+
+		    @Override
+		    public void remove() {
+			iterator.remove();
+		    }
+		};
+	    }
+	};
+    }
+
+    /**
+     * This method returns the ids of the adjacent vertices of a vertex like
+     * {@link #getAdjacentVertices(Vertex, String, Direction, RelationQuery)}.
+     * Only the adjacency list of the source is read, neither the edges nor
+     * the adjacent vertices are loaded.
+     * 
+     * @param source
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the edges.
+     * @param direction
+     *            is the {@link Direction} of the edges seen from the source.
+     * @param relationQuery
+     *            is the {@link RelationQuery} to restrict the edges.
+     * @return A {@link List} of vertex ids is returned.
+     */
+    public List<Long> getAdjacentVertexIds(Vertex source, String label,
+	    Direction direction, RelationQuery relationQuery) {
+	VertexList vertexIds = createVertexQuery(source, label, direction,
+		relationQuery).vertexIds();
+	List<Long> ids = new ArrayList<>();
+	for (int i = relationQuery.getOffset(); i < vertexIds.size(); i++) {
+	    ids.add(vertexIds.getID(i));
+	}
+	return ids;
+    }
+
+    private TitanVertexQuery<?> createVertexQuery(Vertex source,
+	    String label, Direction direction, RelationQuery relationQuery) {
+	transaction.flush();
+	TitanVertexQuery<?> query = ((TitanVertex) transaction.bind(source))
+		.query().direction(direction).labels(label);
+	return relationQuery.applyTo(query);
+    }
+
+    private static <T> Iterator<T> skip(Iterator<T> iterator, int offset) {
+	for (int i = 0; (i < offset) && iterator.hasNext(); i++) {
+	    iterator.next();
+	}
+	return iterator;
     }
 
     @Override
     public Edge createRelation(
-	    Vertex source,
+	    final Vertex source,
 	    RelationTypeMetadata<TitanEdgeMetadata> metadata,
-	    RelationTypeMetadata.Direction direction,
-	    Vertex target,
+	    final RelationTypeMetadata.Direction direction,
+	    final Vertex target,
 	    Map<PrimitivePropertyMethodMetadata<TitanPropertyMetadata>, Object> exampleEntity) {
-	String name = metadata.getDatastoreMetadata().getDiscriminator();
+	transaction.checkWritable();
+	final String name = metadata.getDatastoreMetadata().getDiscriminator();
+	final Edge edge = transaction.wrap(addEdge(source, name, direction,
+		target));
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		transaction.rebind(edge,
+			addEdge(source, name, direction, target));
+	    }
+	});
+	transaction.registerMutation();
+	return edge;
+    }
+
+    private Edge addEdge(Vertex source, String name,
+	    RelationTypeMetadata.Direction direction, Vertex target) {
+	source = transaction.bind(source);
+	target = transaction.bind(target);
+	Edge edge;
 	switch (direction) {
 	case FROM:
-	    return source.addEdge(name, target);
+	    edge = source.addEdge(name, target);
+	    break;
 	case TO:
-	    return target.addEdge(name, source);
+	    edge = target.addEdge(name, source);
+	    break;
 	default:
 	    throw new XOException("Unknown direction '" + direction.name()
 		    + "'.");
 	}
+	forgetSingleRelation();
+	return edge;
     }
 
     @Override
-    public void deleteRelation(Edge edge) {
-	edge.remove();
+    public void deleteRelation(final Edge edge) {
+	transaction.checkWritable();
+	transaction.invalidateProperties(edge);
+	transaction.bind(edge).remove();
+	forgetSingleRelation();
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		transaction.bind(edge).remove();
+		forgetSingleRelation();
+	    }
+	});
+	transaction.registerMutation();
     }
 
     @Override
     public Vertex getTo(Edge edge) {
-	return edge.getVertex(Direction.IN);
+	return transaction.wrap(transaction.bind(edge).getVertex(Direction.IN));
     }
 
     @Override
     public Vertex getFrom(Edge edge) {
-	return edge.getVertex(Direction.OUT);
+	return transaction
+		.wrap(transaction.bind(edge).getVertex(Direction.OUT));
     }
 
     @Override
     public void setProperty(Edge edge,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata,
 	    Object value) {
-	edge.setProperty(metadata.getDatastoreMetadata().getName(), value);
+	transaction.writeProperty(edge, metadata.getDatastoreMetadata()
+		.getName(), value);
     }
 
     @Override
     public boolean hasProperty(Edge edge,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata) {
-	return edge.getProperty(metadata.getDatastoreMetadata().getName()) != null;
+	return transaction.readProperty(edge,
+		metadata.getDatastoreMetadata().getName()) != null;
     }
 
     @Override
     public void removeProperty(Edge edge,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata) {
-	edge.removeProperty(metadata.getDatastoreMetadata().getName());
+	transaction.writeProperty(edge, metadata.getDatastoreMetadata()
+		.getName(), null);
     }
 
     @Override
     public Object getProperty(Edge edge,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata) {
-	return edge.getProperty(metadata.getDatastoreMetadata().getName());
+	return transaction.readProperty(edge, metadata.getDatastoreMetadata()
+		.getName());
     }
 
     @Override
@@ -171,7 +478,7 @@ public class TitanStoreEdgeManager
 
     @Override
     public String getRelationDiscriminator(Edge edge) {
-	return edge.getLabel();
+	return transaction.bind(edge).getLabel();
     }
 
     @Override
@@ -181,13 +488,13 @@ public class TitanStoreEdgeManager
 
     @Override
     public void flushRelation(Edge edge) {
-	// intentionally left empty
+	transaction.flush(edge);
     }
 
     @Override
     public Edge findRelationById(
 	    RelationTypeMetadata<TitanEdgeMetadata> metadata, Object id) {
-	return titanGraph.getEdge(id);
+	return transaction.wrap(transaction.getTitanTransaction().getEdge(id));
     }
 
 }
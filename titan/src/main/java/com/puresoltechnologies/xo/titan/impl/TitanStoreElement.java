@@ -0,0 +1,167 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.Set;
+
+import com.buschmais.xo.api.XOException;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+
+/**
+ * <p>
+ * This is the base class of the vertices and edges which are handed out to
+ * XO as entities and relations.
+ * </p>
+ * <p>
+ * XO keeps the vertices and edges of its entities and relations across
+ * transactions and hands them out with
+ * {@link com.buschmais.xo.api.CompositeObject#getDelegate()} and to
+ * {@link com.buschmais.xo.api.proxy.ProxyMethod} implementations. The
+ * elements of a Titan transaction cannot be accessed anymore after the
+ * transaction was closed, so these elements keep only the id and look up the
+ * element of the current Titan transaction of the session on demand.
+ * Properties are read and written through the {@link TitanStoreTransaction},
+ * so that its cache and the write-behind mode are taken into account.
+ * </p>
+ * 
+ * @author Rick-Rainer Ludwig
+ * 
+ * @param <E>
+ *            is the type of the Titan element.
+ */
+abstract class TitanStoreElement<E extends Element> implements Element {
+
+    private final TitanStoreTransaction transaction;
+    private Object id;
+
+    /**
+     * These fields contain the element of the Titan transaction it was last
+     * looked up in.
+     */
+    private E element;
+    private TitanTransaction titanTransaction;
+
+    TitanStoreElement(TitanStoreTransaction transaction, E element,
+	    TitanTransaction titanTransaction) {
+	this.transaction = transaction;
+	this.id = element.getId();
+	this.element = element;
+	this.titanTransaction = titanTransaction;
+    }
+
+    /**
+     * Returns the Titan element of the current Titan transaction of the
+     * session.
+     * 
+     * @return The element is returned.
+     * @throws XOException
+     *             is thrown if the element was removed in the meantime.
+     */
+    final E getElement() {
+	TitanTransaction currentTransaction = transaction.getTitanTransaction();
+	if (currentTransaction != titanTransaction) {
+	    E currentElement = lookup(currentTransaction, id);
+	    if (currentElement == null) {
+		throw new XOException("Element '" + id
+			+ "' does not exist anymore.");
+	    }
+	    element = currentElement;
+	    titanTransaction = currentTransaction;
+	}
+	return element;
+    }
+
+    /**
+     * Binds this element to another Titan element. This is used when the
+     * mutations of a failed commit are replayed and the element was created
+     * anew with a new id.
+     * 
+     * @param element
+     *            is the new Titan element.
+     * @param titanTransaction
+     *            is the Titan transaction of the new element.
+     */
+    final void rebind(E element, TitanTransaction titanTransaction) {
+	this.id = element.getId();
+	this.element = element;
+	this.titanTransaction = titanTransaction;
+    }
+
+    /**
+     * Reads the element with the given id from a Titan transaction.
+     * 
+     * @param titanTransaction
+     *            is the Titan transaction to read from.
+     * @param id
+     *            is the id of the element.
+     * @return The element is returned or <code>null</code> if it does not
+     *         exist.
+     */
+    abstract E lookup(TitanTransaction titanTransaction, Object id);
+
+    final TitanStoreTransaction getTransaction() {
+	return transaction;
+    }
+
+    @Override
+    public Object getId() {
+	return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getProperty(String key) {
+	return (T) transaction.readProperty(this, key);
+    }
+
+    @Override
+    public Set<String> getPropertyKeys() {
+	transaction.flush(this);
+	return getElement().getPropertyKeys();
+    }
+
+    @Override
+    public void setProperty(String key, Object value) {
+	if (value == null) {
+	    throw ExceptionFactory.propertyValueCanNotBeNull();
+	}
+	transaction.writeProperty(this, key, value);
+    }
+
+    @Override
+    public <T> T removeProperty(String key) {
+	T value = getProperty(key);
+	transaction.writeProperty(this, key, null);
+	return value;
+    }
+
+    @Override
+    public void remove() {
+	transaction.checkWritable();
+	transaction.invalidateProperties(this);
+	getElement().remove();
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		getElement().remove();
+	    }
+	});
+    }
+
+    @Override
+    public int hashCode() {
+	return id.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+	if (this == obj) {
+	    return true;
+	}
+	if ((obj == null) || (getClass() != obj.getClass())) {
+	    return false;
+	}
+	return id.equals(((TitanStoreElement<?>) obj).id);
+    }
+
+}
@@ -1,17 +1,23 @@
 package com.puresoltechnologies.xo.titan.impl;
 
 import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.List;
 
 import com.buschmais.xo.spi.datastore.DatastoreEntityManager;
 import com.buschmais.xo.spi.datastore.DatastoreQuery;
 import com.buschmais.xo.spi.datastore.DatastoreRelationManager;
 import com.buschmais.xo.spi.datastore.DatastoreSession;
 import com.buschmais.xo.spi.datastore.DatastoreTransaction;
+import com.puresoltechnologies.xo.titan.api.RelationQuery;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
 import com.puresoltechnologies.xo.titan.api.annotation.Gremlin;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanEdgeMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanPropertyMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexMetadata;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 
@@ -29,12 +35,23 @@ public class TitanStoreSession
      */
     public static final String XO_DISCRIMINATORS_PROPERTY = "_xo_discriminator_";
 
+    /**
+     * This constant contains the name of the set-valued property which keeps
+     * all discriminators of a vertex for
+     * {@link DiscriminatorLayout#DISCRIMINATOR_SET}.
+     */
+    public static final String XO_DISCRIMINATOR_SET_PROPERTY = "_xo_discriminators";
+
     /**
      * This field contains the Titan graph as {@link TitanGraph} object.
      */
     private final TitanGraph titanGraph;
     private final TitanStoreTransaction transaction;
 
+    private final GremlinScriptCache gremlinScriptCache;
+    private final GremlinQueryRegistry gremlinQueryRegistry;
+    private final GremlinStartSelector gremlinStartSelector;
+
     private final TitanStoreVertexManager vertexManager;
     private final TitanStoreEdgeManager edgeManager;
 
@@ -44,16 +61,38 @@ public class TitanStoreSession
      * @param titanGraph
      *            is the Titan graph as TitanGraph object on which this session
      *            shall work on.
+     * @param gremlinScriptCache
+     *            is the {@link GremlinScriptCache} of the store which is used
+     *            for the Gremlin queries of this session.
+     * @param gremlinQueryRegistry
+     *            is the {@link GremlinQueryRegistry} of the store containing
+     *            the precompiled Gremlin expressions.
+     * @param gremlinStartSelector
+     *            is the {@link GremlinStartSelector} of the store which
+     *            selects the start vertices of the Gremlin queries.
+     * @param discriminatorLayout
+     *            is the {@link DiscriminatorLayout} of the store.
      */
-    public TitanStoreSession(TitanGraph titanGraph) {
+    public TitanStoreSession(TitanGraph titanGraph,
+	    GremlinScriptCache gremlinScriptCache,
+	    GremlinQueryRegistry gremlinQueryRegistry,
+	    GremlinStartSelector gremlinStartSelector,
+	    DiscriminatorLayout discriminatorLayout) {
 	this.titanGraph = titanGraph;
+	this.gremlinScriptCache = gremlinScriptCache;
+	this.gremlinQueryRegistry = gremlinQueryRegistry;
+	this.gremlinStartSelector = gremlinStartSelector;
 	this.transaction = new TitanStoreTransaction(titanGraph);
-	this.vertexManager = new TitanStoreVertexManager(titanGraph);
-	this.edgeManager = new TitanStoreEdgeManager(titanGraph);
+	this.vertexManager = new TitanStoreVertexManager(transaction,
+		discriminatorLayout);
+	this.edgeManager = new TitanStoreEdgeManager(transaction);
     }
 
     /**
-     * Returns the Titan graph which is currently opened.
+     * Returns the Titan graph which is currently opened. The graph is meant
+     * for schema management. Vertices and edges read from the graph belong to
+     * the thread-bound transaction of the graph and not to the transaction of
+     * this session, see {@link #getTitanTransaction()}.
      * 
      * @return A TitanGraph object is returned.
      */
@@ -61,6 +100,332 @@ public class TitanStoreSession
 	return titanGraph;
     }
 
+    /**
+     * Returns the Titan transaction of this session. All entities, relations
+     * and queries of the session are read and written with this transaction.
+     * It is committed or rolled back together with the XO transaction and
+     * afterwards a new Titan transaction is opened on demand. Changes done
+     * with it directly cannot be replayed, so a failed commit of the Titan
+     * transaction handed out here is not retried, see
+     * {@link #setCommitRetryPolicy(CommitRetryPolicy)}. Pending changes are
+     * written to the Titan transaction before and the cached property values
+     * are dropped, so that changes done with it are seen by the entities.
+     * 
+     * @return A {@link TitanTransaction} is returned.
+     */
+    public TitanTransaction getTitanTransaction() {
+	transaction.flush();
+	transaction.disableReplay();
+	transaction.invalidateCaches();
+	return transaction.getTitanTransaction();
+    }
+
+    /**
+     * Returns the vertex with the given id. The vertex is bound to this
+     * session like the ones of the XO entities. In contrast to the vertices
+     * read with {@link #getTitanTransaction()}, it can be handed to
+     * {@link #getRelations(Vertex, String, Direction, RelationQuery)},
+     * {@link #getAdjacentVertices(Vertex, String, Direction, RelationQuery)}
+     * and {@link #prefetch(Collection, String...)} without disabling the
+     * retry of failed commits.
+     * 
+     * @param id
+     *            is the id of the vertex, for example from
+     *            {@link com.buschmais.xo.api.XOManager#getId(Object)}.
+     * @return A {@link Vertex} is returned or <code>null</code> if there is no
+     *         vertex with the id.
+     */
+    public Vertex getVertex(Object id) {
+	return transaction.wrap(transaction.getTitanTransaction().getVertex(id));
+    }
+
+    /**
+     * Returns the cache of compiled Gremlin scripts which is shared by all
+     * sessions of the store.
+     * 
+     * @return A {@link GremlinScriptCache} is returned.
+     */
+    public final GremlinScriptCache getGremlinScriptCache() {
+	return gremlinScriptCache;
+    }
+
+    /**
+     * This method enables or disables the bulk load mode of this session. In
+     * bulk load mode the Titan transaction is committed automatically after
+     * each {@link #getBulkLoadCommitSize()} mutations, so that large amounts
+     * of vertices and edges can be loaded without keeping them all in one
+     * transaction. A rollback only reverts the mutations since the last
+     * automatic commit. The Titan transactions opened in bulk load mode skip
+     * the checks whether the vertices exist in the storage backend, unless
+     * the {@link TransactionProfile} of the session sets them explicitly.
+     * Locking and consistency checks are kept, they are only turned off for
+     * the whole graph with the XOUnit property
+     * {@link AbstractTitanStore#BULK_LOAD_PROPERTY}.
+     * 
+     * @param bulkLoad
+     *            is to be set to <code>true</code> to enable bulk load mode.
+     */
+    public void setBulkLoad(boolean bulkLoad) {
+	transaction.setBulkLoad(bulkLoad);
+    }
+
+    /**
+     * Returns whether the bulk load mode is enabled for this session.
+     * 
+     * @return <code>true</code> is returned if bulk load mode is enabled.
+     */
+    public boolean isBulkLoad() {
+	return transaction.isBulkLoad();
+    }
+
+    /**
+     * Sets the number of mutations after which the Titan transaction is
+     * committed automatically in bulk load mode.
+     * 
+     * @param bulkLoadCommitSize
+     *            is the number of mutations. It must be positive.
+     */
+    public void setBulkLoadCommitSize(int bulkLoadCommitSize) {
+	transaction.setBulkLoadCommitSize(bulkLoadCommitSize);
+    }
+
+    /**
+     * Returns the number of mutations after which the Titan transaction is
+     * committed automatically in bulk load mode.
+     * 
+     * @return The number of mutations is returned.
+     */
+    public int getBulkLoadCommitSize() {
+	return transaction.getBulkLoadCommitSize();
+    }
+
+    /**
+     * This method enables or disables the write-behind mode of this session.
+     * In write-behind mode the property changes are collected per entity and
+     * relation and written in one pass, when XO flushes the entity or the
+     * relation, before queries and on commit. Repeated changes of the same
+     * property within a transaction are written only once.
+     * 
+     * @param writeBehind
+     *            is to be set to <code>true</code> to enable write-behind
+     *            mode.
+     */
+    public void setWriteBehind(boolean writeBehind) {
+	transaction.setWriteBehind(writeBehind);
+    }
+
+    /**
+     * Returns whether the write-behind mode is enabled for this session.
+     * 
+     * @return <code>true</code> is returned if write-behind mode is enabled.
+     */
+    public boolean isWriteBehind() {
+	return transaction.isWriteBehind();
+    }
+
+    /**
+     * Sets the number of entities of a collection property whose properties
+     * are loaded together with one multi-query, when the iteration over the
+     * collection starts and each time the loaded entities are used up.
+     * 
+     * @param prefetchSize
+     *            is the number of entities. 0 disables the prefetching.
+     */
+    public void setPrefetchSize(int prefetchSize) {
+	edgeManager.setPrefetchSize(prefetchSize);
+    }
+
+    /**
+     * Returns the number of entities of a collection property which are
+     * prefetched together.
+     * 
+     * @return The number of entities is returned. 0 means no prefetching.
+     */
+    public int getPrefetchSize() {
+	return edgeManager.getPrefetchSize();
+    }
+
+    /**
+     * Sets the {@link TransactionProfile} with the options of the Titan
+     * transactions of this session. The profile is applied to each Titan
+     * transaction opened afterwards, so a change during an XO transaction
+     * takes effect with the next one:
+     * 
+     * <pre>
+     * xoManager.getDatastoreSession(TitanStoreSession.class)
+     * 	.setTransactionProfile(
+     * 		new TransactionProfile().readOnly(true).consistencyChecks(false));
+     * </pre>
+     * 
+     * @param transactionProfile
+     *            is the {@link TransactionProfile} to be used.
+     */
+    public void setTransactionProfile(TransactionProfile transactionProfile) {
+	transaction.setTransactionProfile(transactionProfile);
+    }
+
+    /**
+     * Returns the {@link TransactionProfile} with the options of the Titan
+     * transactions of this session.
+     * 
+     * @return A copy of the {@link TransactionProfile} is returned.
+     */
+    public TransactionProfile getTransactionProfile() {
+	return transaction.getTransactionProfile();
+    }
+
+    /**
+     * This method switches the session into or out of read-only mode. A
+     * read-only session opens its Titan transactions read-only and fails fast
+     * with an {@link com.buschmais.xo.api.XOException} when entities or
+     * relations are created, changed or deleted. Its commits only close the
+     * Titan transaction, because there is nothing to be written. This is a
+     * shortcut for {@link TransactionProfile#readOnly(boolean)}, which is also
+     * set with the XOUnit property
+     * {@value AbstractTitanStore#TRANSACTION_READ_ONLY_PROPERTY}.
+     * 
+     * @param readOnly
+     *            is to be set to <code>true</code> for a read-only session.
+     */
+    public void setReadOnly(boolean readOnly) {
+	transaction.setTransactionProfile(transaction.getTransactionProfile()
+		.readOnly(readOnly));
+    }
+
+    /**
+     * Returns whether this session is read-only.
+     * 
+     * @return <code>true</code> is returned if the session is read-only.
+     */
+    public boolean isReadOnly() {
+	return transaction.isReadOnly();
+    }
+
+    /**
+     * Sets the {@link CommitRetryPolicy} of this session. With a policy
+     * allowing retries, the changes of entities and relations are recorded
+     * and a commit failing due to a locking conflict, for example on a
+     * property with a unique index, is retried with the recorded changes in a
+     * new Titan transaction. The entities and relations created within the
+     * transaction get new ids with a retry.
+     * 
+     * @param commitRetryPolicy
+     *            is the {@link CommitRetryPolicy} to be used.
+     */
+    public void setCommitRetryPolicy(CommitRetryPolicy commitRetryPolicy) {
+	transaction.setCommitRetryPolicy(commitRetryPolicy);
+    }
+
+    /**
+     * Returns the {@link CommitRetryPolicy} of this session, which also
+     * counts the commits and retries.
+     * 
+     * @return A {@link CommitRetryPolicy} is returned.
+     */
+    public CommitRetryPolicy getCommitRetryPolicy() {
+	return transaction.getCommitRetryPolicy();
+    }
+
+    /**
+     * This method loads the properties of the given vertices and optionally
+     * their edges with the given labels with one Titan multi-query. Reading
+     * the vertices and edges afterwards within the same transaction needs no
+     * further storage round trips. This is used to avoid one round trip per
+     * entity when many entities are processed:
+     * 
+     * <pre>
+     * session.prefetch(vertices, &quot;follows&quot;);
+     * </pre>
+     * 
+     * @param vertices
+     *            are the vertices to be loaded.
+     * @param labels
+     *            are the labels of the edges to be loaded, too.
+     */
+    public void prefetch(Collection<? extends Vertex> vertices,
+	    String... labels) {
+	edgeManager.prefetch(vertices, labels);
+    }
+
+    /**
+     * <p>
+     * This method navigates the edges of a vertex page by page. Limit, cursor,
+     * conditions and sort order of the {@link RelationQuery} are handed over
+     * to the Titan vertex query, so that only the requested page is read from
+     * a vertex-centric index even for vertices with many edges:
+     * </p>
+     * 
+     * <pre>
+     * Vertex vertex = session.getVertex(xoManager.getId(user));
+     * Iterable&lt;Edge&gt; page = session.getRelations(vertex, &quot;follows&quot;,
+     * 	Direction.OUT,
+     * 	new RelationQuery().orderBy(&quot;since&quot;, Order.DESC).limit(50));
+     * </pre>
+     * 
+     * @param vertex
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the edges as defined by the
+     *            {@link com.puresoltechnologies.xo.titan.api.annotation.EdgeDefinition}
+     *            .
+     * @param direction
+     *            is the {@link Direction} of the edges seen from the vertex.
+     * @param relationQuery
+     *            is the {@link RelationQuery} with the page to be read.
+     * @return An {@link Iterable} of {@link Edge} is returned. The edges are
+     *         bound to this session like the ones of the XO entities.
+     */
+    public Iterable<Edge> getRelations(Vertex vertex, String label,
+	    Direction direction, RelationQuery relationQuery) {
+	return edgeManager.getRelations(vertex, label, direction,
+		relationQuery);
+    }
+
+    /**
+     * This method navigates to the adjacent vertices of a vertex like
+     * {@link #getRelations(Vertex, String, Direction, RelationQuery)}, but
+     * without handing out the edges. This saves the reading of the edges, if
+     * only the entities at the other end are needed.
+     * 
+     * @param vertex
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the edges.
+     * @param direction
+     *            is the {@link Direction} of the edges seen from the vertex.
+     * @param relationQuery
+     *            is the {@link RelationQuery} with the page to be read.
+     * @return An {@link Iterable} of {@link Vertex} is returned. The vertices
+     *         are bound to this session like the ones of the XO entities.
+     */
+    public Iterable<Vertex> getAdjacentVertices(Vertex vertex, String label,
+	    Direction direction, RelationQuery relationQuery) {
+	return edgeManager.getAdjacentVertices(vertex, label, direction,
+		relationQuery);
+    }
+
+    /**
+     * This method returns the ids of the adjacent vertices of a vertex. Only
+     * the adjacency list of the vertex is read. The ids can be used with
+     * {@link com.buschmais.xo.api.XOManager#findById(Class, Object)} to get
+     * the entities.
+     * 
+     * @param vertex
+     *            is the vertex to start from.
+     * @param label
+     *            is the label of the edges.
+     * @param direction
+     *            is the {@link Direction} of the edges seen from the vertex.
+     * @param relationQuery
+     *            is the {@link RelationQuery} with the page to be read.
+     * @return A {@link List} of vertex ids is returned.
+     */
+    public List<Long> getAdjacentVertexIds(Vertex vertex, String label,
+	    Direction direction, RelationQuery relationQuery) {
+	return edgeManager.getAdjacentVertexIds(vertex, label, direction,
+		relationQuery);
+    }
+
     @Override
     public DatastoreTransaction getDatastoreTransaction() {
 	return transaction;
@@ -68,7 +433,7 @@ public class TitanStoreSession
 
     @Override
     public void close() {
-	// Nothing to do here...
+	transaction.close();
     }
 
     @Override
@@ -95,7 +460,8 @@ public class TitanStoreSession
 	}
 	@SuppressWarnings("unchecked")
 	DatastoreQuery<QL> query = (DatastoreQuery<QL>) new GremlinQuery(
-		titanGraph);
+		transaction, gremlinScriptCache, gremlinQueryRegistry,
+		gremlinStartSelector);
 	return query;
     }
 
@@ -1,11 +1,48 @@
 package com.puresoltechnologies.xo.titan.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
 import com.buschmais.xo.api.XOException;
 import com.buschmais.xo.spi.datastore.DatastoreTransaction;
+import com.puresoltechnologies.xo.titan.api.TransactionProfile;
+import com.thinkaurelius.titan.core.TitanException;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.graphdb.internal.InternalElement;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
 
 /**
+ * <p>
  * This class implements an XO DatastoreTransaction for Titan databases.
+ * </p>
+ * <p>
+ * Each transaction works on its own {@link TitanTransaction}, which is opened
+ * with {@link TitanGraph#newTransaction()} on first use and closed with the
+ * commit or rollback. So sessions used by the same thread do not share the
+ * thread-bound transaction of the graph and a session can be handed over to
+ * another thread. The vertices and edges handed out to XO are wrapped with
+ * {@link #wrap(Vertex)} and {@link #wrap(Edge)}, so that they can be used
+ * across transactions. They are bound to the current {@link TitanTransaction}
+ * with {@link #bind(Element)}.
+ * </p>
+ * <p>
+ * With a {@link CommitRetryPolicy} allowing retries, the mutations done
+ * through XO are recorded. If the commit fails due to a locking conflict, the
+ * mutations are replayed in a new Titan transaction, which is committed again
+ * after a backoff. The vertices and edges created within the transaction get
+ * new ids with the replay.
+ * </p>
  * 
  * @author Rick-Rainer Ludwig
  */
@@ -22,6 +59,94 @@ public class TitanStoreTransaction implements DatastoreTransaction {
      */
     private final TitanGraph titanGraph;
 
+    /**
+     * This field contains the currently opened Titan transaction or
+     * <code>null</code> if there is none.
+     */
+    private TitanTransaction titanTransaction = null;
+
+    /**
+     * This field stores whether the currently opened Titan transaction was
+     * opened read-only.
+     */
+    private boolean titanTransactionReadOnly = false;
+
+    /**
+     * This field contains the {@link TransactionProfile} the Titan
+     * transactions are opened with.
+     */
+    private TransactionProfile transactionProfile = new TransactionProfile();
+
+    /**
+     * This field contains the vertices and edges of closed Titan
+     * transactions, which were already bound to the current Titan
+     * transaction, together with their bound counterparts.
+     */
+    private final Map<Element, Element> boundElements = new IdentityHashMap<>();
+
+    /**
+     * This field contains the {@link CommitRetryPolicy} for the commits of
+     * the Titan transactions.
+     */
+    private CommitRetryPolicy commitRetryPolicy = new CommitRetryPolicy();
+
+    /**
+     * This field contains the mutations of the current Titan transaction,
+     * which are replayed when its commit is retried.
+     */
+    private final List<RecordedMutation> mutationLog = new ArrayList<>();
+
+    /**
+     * This field stores whether the current Titan transaction may be
+     * replayed. This is not the case anymore, as soon as the Titan
+     * transaction was handed out by the session, because changes done with it
+     * directly are not recorded.
+     */
+    private boolean replayable = true;
+
+    /**
+     * This field stores whether the bulk load mode is enabled.
+     */
+    private boolean bulkLoad = false;
+
+    /**
+     * This field contains the number of mutations after which the Titan
+     * transaction is committed automatically in bulk load mode.
+     */
+    private int bulkLoadCommitSize = AbstractTitanStore.DEFAULT_BULK_LOAD_COMMIT_SIZE;
+
+    /**
+     * This field contains the number of mutations since the last commit.
+     */
+    private int mutations = 0;
+
+    /**
+     * This field contains the discriminators of the vertices which were
+     * already resolved within the current transaction, identified by the
+     * vertex id.
+     */
+    private final Map<Object, Set<String>> discriminators = new HashMap<>();
+
+    /**
+     * This field contains the property values of the vertices and edges which
+     * were already read or written within the current transaction, identified
+     * by the element id and the property name. Missing properties are kept as
+     * <code>null</code>.
+     */
+    private final Map<Object, Map<String, Object>> propertyValues = new HashMap<>();
+
+    /**
+     * This field stores whether the write-behind mode is enabled.
+     */
+    private boolean writeBehind = false;
+
+    /**
+     * This field contains the property changes of the vertices and edges
+     * which were not written yet in write-behind mode. A <code>null</code>
+     * value marks a removed property.
+     */
+    private final Map<Element, Map<String, Object>> pendingProperties = new LinkedHashMap<>();
+
     /**
      * This is the initial value constructor.
      * 
@@ -49,8 +174,17 @@ public class TitanStoreTransaction implements DatastoreTransaction {
 	if (!active) {
 	    throw new XOException("There is no active transaction.");
 	}
+	flush();
 	active = false;
-	titanGraph.commit();
+	mutations = 0;
+	discriminators.clear();
+	propertyValues.clear();
+	if (titanTransactionReadOnly) {
+	    // Nothing was changed, so the Titan transaction is just closed.
+	    rollbackTitanTransaction();
+	} else {
+	    commitTitanTransaction();
+	}
     }
 
     @Override
@@ -59,11 +193,644 @@ public class TitanStoreTransaction implements DatastoreTransaction {
 	    throw new XOException("There is no active transaction.");
 	}
 	active = false;
-	titanGraph.rollback();
+	mutations = 0;
+	discriminators.clear();
+	propertyValues.clear();
+	pendingProperties.clear();
+	rollbackTitanTransaction();
     }
 
     @Override
     public boolean isActive() {
 	return active;
     }
+
+    /**
+     * Returns the Titan transaction all vertex, edge and query operations of
+     * the session are executed with. A new Titan transaction is opened with
+     * the {@link TransactionProfile}, if there is none opened yet.
+     * 
+     * @return A {@link TitanTransaction} is returned.
+     */
+    public TitanTransaction getTitanTransaction() {
+	if (titanTransaction == null) {
+	    TransactionProfile profile = getEffectiveTransactionProfile();
+	    if (profile.isDefault()) {
+		titanTransaction = titanGraph.newTransaction();
+	    } else {
+		titanTransaction = profile.applyTo(
+			titanGraph.buildTransaction()).start();
+	    }
+	    titanTransactionReadOnly = profile.isReadOnly();
+	}
+	return titanTransaction;
+    }
+
+    /**
+     * Returns the {@link TransactionProfile} the next Titan transaction is
+     * opened with. In bulk load mode the vertex existence checks are skipped,
+     * unless the profile of the session sets them explicitly.
+     * 
+     * @return A {@link TransactionProfile} is returned.
+     */
+    TransactionProfile getEffectiveTransactionProfile() {
+	if (!bulkLoad) {
+	    return transactionProfile;
+	}
+	TransactionProfile profile = new TransactionProfile(transactionProfile);
+	if (profile.getCheckInternalVertexExistence() == null) {
+	    profile.checkInternalVertexExistence(false);
+	}
+	if (profile.getCheckExternalVertexExistence() == null) {
+	    profile.checkExternalVertexExistence(false);
+	}
+	return profile;
+    }
+
+    /**
+     * Sets the {@link TransactionProfile} for the Titan transactions. An
+     * already opened Titan transaction keeps its options, the profile is
+     * applied to the Titan transactions opened after its commit or rollback.
+     * 
+     * @param transactionProfile
+     *            is the {@link TransactionProfile} to be used.
+     */
+    public void setTransactionProfile(TransactionProfile transactionProfile) {
+	if (transactionProfile == null) {
+	    throw new IllegalArgumentException(
+		    "transactionProfile must not be null");
+	}
+	this.transactionProfile = new TransactionProfile(transactionProfile);
+    }
+
+    /**
+     * Returns the {@link TransactionProfile} for the Titan transactions.
+     * 
+     * @return A copy of the {@link TransactionProfile} is returned.
+     */
+    public TransactionProfile getTransactionProfile() {
+	return new TransactionProfile(transactionProfile);
+    }
+
+    /**
+     * This method wraps a vertex of the current Titan transaction, so that it
+     * can be handed out to XO.
+     * 
+     * @param vertex
+     *            is the vertex to be wrapped.
+     * @return A {@link TitanStoreVertex} is returned.
+     */
+    Vertex wrap(Vertex vertex) {
+	if (!(vertex instanceof InternalElement)) {
+	    return vertex;
+	}
+	return new TitanStoreVertex(this, vertex, getTitanTransaction());
+    }
+
+    /**
+     * This method wraps an edge of the current Titan transaction, so that it
+     * can be handed out to XO.
+     * 
+     * @param edge
+     *            is the edge to be wrapped.
+     * @return A {@link TitanStoreEdge} is returned.
+     */
+    Edge wrap(Edge edge) {
+	if (!(edge instanceof InternalElement)) {
+	    return edge;
+	}
+	return new TitanStoreEdge(this, edge, getTitanTransaction());
+    }
+
+    /**
+     * This method binds a vertex or an edge to the current Titan transaction.
+     * Wrapped elements are replaced by the Titan element of the current Titan
+     * transaction. Titan elements of a closed or another Titan transaction,
+     * like the ones read from the graph directly, are read again by their id
+     * from the current Titan transaction. Elements of the current Titan
+     * transaction are returned as they are.
+     * 
+     * @param element
+     *            is the vertex or edge to be bound.
+     * @return The element of the current Titan transaction is returned.
+     */
+    @SuppressWarnings("unchecked")
+    <E extends Element> E bind(E element) {
+	if (element instanceof TitanStoreElement) {
+	    return (E) ((TitanStoreElement<?>) element).getElement();
+	}
+	if (!(element instanceof InternalElement)) {
+	    return element;
+	}
+	Element bound = boundElements.get(element);
+	if (bound != null) {
+	    return (E) bound;
+	}
+	TitanTransaction currentTransaction = getTitanTransaction();
+	if (isOfTransaction((InternalElement) element, currentTransaction)) {
+	    return element;
+	}
+	Object id = element.getId();
+	bound = element instanceof Vertex ? currentTransaction.getVertex(id)
+		: currentTransaction.getEdge(id);
+	if (bound == null) {
+	    throw new XOException("Element '" + id
+		    + "' does not exist anymore.");
+	}
+	boundElements.put(element, bound);
+	return (E) bound;
+    }
+
+    private static boolean isOfTransaction(InternalElement element,
+	    TitanTransaction titanTransaction) {
+	try {
+	    return element.tx() == titanTransaction;
+	} catch (IllegalStateException e) {
+	    /*
+	     * Titan refuses the access to elements of a closed transaction
+	     * which was not bound to a thread.
+	     */
+	    return false;
+	}
+    }
+
+    /**
+     * This method rolls back the opened Titan transaction, if there is one.
+     * It is called when the session is closed.
+     */
+    void close() {
+	active = false;
+	mutations = 0;
+	discriminators.clear();
+	propertyValues.clear();
+	pendingProperties.clear();
+	rollbackTitanTransaction();
+    }
+
+    /**
+     * This method commits the opened Titan transaction, if there is one. If
+     * the commit fails due to a locking conflict and the
+     * {@link CommitRetryPolicy} allows it, the recorded mutations are replayed
+     * in a new Titan transaction after a backoff and the commit is retried.
+     */
+    private void commitTitanTransaction() {
+	if (titanTransaction == null) {
+	    return;
+	}
+	try {
+	    int attempt = 1;
+	    while (true) {
+		TitanTransaction committedTransaction = titanTransaction;
+		titanTransaction = null;
+		boundElements.clear();
+		try {
+		    committedTransaction.commit();
+		    commitRetryPolicy.committed(attempt > 1);
+		    return;
+		} catch (TitanException e) {
+		    if ((!replayable)
+			    || (attempt >= commitRetryPolicy.getAttempts())
+			    || (!CommitRetryPolicy.isRetryable(e))) {
+			commitRetryPolicy.failed();
+			throw e;
+		    }
+		    commitRetryPolicy.retried();
+		}
+		waitForRetry(commitRetryPolicy.getBackoff(attempt));
+		attempt++;
+		replayMutationLog();
+	    }
+	} finally {
+	    mutationLog.clear();
+	    replayable = true;
+	}
+    }
+
+    private void waitForRetry(long backoff) {
+	try {
+	    Thread.sleep(backoff);
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    commitRetryPolicy.failed();
+	    throw new XOException(
+		    "Waiting for the retry of the commit was interrupted.", e);
+	}
+    }
+
+    private void replayMutationLog() {
+	try {
+	    getTitanTransaction();
+	    for (RecordedMutation mutation : mutationLog) {
+		mutation.replay();
+	    }
+	} catch (RuntimeException e) {
+	    commitRetryPolicy.failed();
+	    rollbackTitanTransaction();
+	    throw e;
+	}
+    }
+
+    private void rollbackTitanTransaction() {
+	mutationLog.clear();
+	replayable = true;
+	if (titanTransaction != null) {
+	    TitanTransaction rolledBackTransaction = titanTransaction;
+	    titanTransaction = null;
+	    boundElements.clear();
+	    rolledBackTransaction.rollback();
+	}
+    }
+
+    /**
+     * Sets the {@link CommitRetryPolicy} for the commits of the Titan
+     * transactions.
+     * 
+     * @param commitRetryPolicy
+     *            is the {@link CommitRetryPolicy} to be used.
+     */
+    public void setCommitRetryPolicy(CommitRetryPolicy commitRetryPolicy) {
+	if (commitRetryPolicy == null) {
+	    throw new IllegalArgumentException(
+		    "commitRetryPolicy must not be null");
+	}
+	this.commitRetryPolicy = commitRetryPolicy;
+    }
+
+    /**
+     * Returns the {@link CommitRetryPolicy} for the commits of the Titan
+     * transactions.
+     * 
+     * @return A {@link CommitRetryPolicy} is returned.
+     */
+    public CommitRetryPolicy getCommitRetryPolicy() {
+	return commitRetryPolicy;
+    }
+
+    /**
+     * This method records a mutation of the graph, so that it can be replayed
+     * when the commit is retried. Nothing is recorded, if the
+     * {@link CommitRetryPolicy} does not allow retries.
+     * 
+     * @param mutation
+     *            is the {@link RecordedMutation} to be recorded.
+     */
+    void record(RecordedMutation mutation) {
+	if (commitRetryPolicy.isRetryEnabled()) {
+	    mutationLog.add(mutation);
+	}
+    }
+
+    /**
+     * This method is called when the current Titan transaction is handed out
+     * by the session or a Gremlin query is executed with it. Changes done with
+     * it directly or by Gremlin scripts are not recorded, so a failed commit
+     * of the Titan transaction is not retried.
+     */
+    void disableReplay() {
+	replayable = false;
+    }
+
+    /**
+     * This method binds a wrapped vertex or edge to a Titan element created
+     * anew by the replay of a mutation.
+     * 
+     * @param wrapper
+     *            is the wrapped element handed out to XO.
+     * @param element
+     *            is the new Titan element.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void rebind(Element wrapper, Element element) {
+	if (wrapper instanceof TitanStoreElement) {
+	    ((TitanStoreElement) wrapper).rebind(element,
+		    getTitanTransaction());
+	}
+    }
+
+    /**
+     * This method enables or disables the bulk load mode. In bulk load mode
+     * the Titan transaction is committed automatically each time the bulk
+     * load commit size of mutations is reached. A rollback only reverts the
+     * mutations since the last automatic commit. The Titan transactions
+     * opened in bulk load mode skip the vertex existence checks, see
+     * {@link #getEffectiveTransactionProfile()}. An already opened Titan
+     * transaction keeps its options.
+     * 
+     * @param bulkLoad
+     *            is to be set to <code>true</code> to enable bulk load mode.
+     */
+    public void setBulkLoad(boolean bulkLoad) {
+	this.bulkLoad = bulkLoad;
+    }
+
+    /**
+     * Returns whether the bulk load mode is enabled.
+     * 
+     * @return <code>true</code> is returned if bulk load mode is enabled.
+     */
+    public boolean isBulkLoad() {
+	return bulkLoad;
+    }
+
+    /**
+     * Sets the number of mutations after which the Titan transaction is
+     * committed automatically in bulk load mode.
+     * 
+     * @param bulkLoadCommitSize
+     *            is the number of mutations. It must be positive.
+     */
+    public void setBulkLoadCommitSize(int bulkLoadCommitSize) {
+	if (bulkLoadCommitSize <= 0) {
+	    throw new IllegalArgumentException(
+		    "The bulk load commit size must be positive.");
+	}
+	this.bulkLoadCommitSize = bulkLoadCommitSize;
+    }
+
+    /**
+     * Returns the number of mutations after which the Titan transaction is
+     * committed automatically in bulk load mode.
+     * 
+     * @return The number of mutations is returned.
+     */
+    public int getBulkLoadCommitSize() {
+	return bulkLoadCommitSize;
+    }
+
+    /**
+     * This method enables or disables the write-behind mode. In write-behind
+     * mode the property changes of vertices and edges are kept until the
+     * element is flushed, a query is executed or the transaction is
+     * committed. Then all changes of an element are written in one pass and
+     * repeated changes of the same property are written only once. Errors
+     * like unique constraint violations are raised during the flush.
+     * 
+     * @param writeBehind
+     *            is to be set to <code>true</code> to enable write-behind
+     *            mode.
+     */
+    public void setWriteBehind(boolean writeBehind) {
+	if (!writeBehind) {
+	    flush();
+	}
+	this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Returns whether the write-behind mode is enabled.
+     * 
+     * @return <code>true</code> is returned if write-behind mode is enabled.
+     */
+    public boolean isWriteBehind() {
+	return writeBehind;
+    }
+
+    /**
+     * Returns whether the session is read-only, because its
+     * {@link TransactionProfile} is read-only.
+     * 
+     * @return <code>true</code> is returned if the session is read-only.
+     */
+    public boolean isReadOnly() {
+	return transactionProfile.isReadOnly();
+    }
+
+    /**
+     * This method is called by the entity and relation managers before each
+     * mutation of the graph. Read-only sessions fail here, before anything is
+     * changed.
+     * 
+     * @throws XOException
+     *             is thrown if the session is read-only.
+     */
+    void checkWritable() {
+	if (isReadOnly()) {
+	    throw new XOException(
+		    "The session is read-only and cannot change the graph.");
+	}
+    }
+
+    /**
+     * This method is called by the entity and relation managers for each
+     * mutation of the graph. In bulk load mode the Titan transaction is
+     * committed when the bulk load commit size is reached.
+     */
+    void registerMutation() {
+	mutations++;
+	if (bulkLoad && (mutations >= bulkLoadCommitSize)) {
+	    mutations = 0;
+	    propertyValues.clear();
+	    commitTitanTransaction();
+	}
+    }
+
+    /**
+     * Returns the cached discriminators of a vertex.
+     * 
+     * @param vertexId
+     *            is the id of the vertex.
+     * @return An unmodifiable {@link Set} is returned or <code>null</code> if
+     *         the discriminators of the vertex are not cached.
+     */
+    Set<String> getCachedDiscriminators(Object vertexId) {
+	return discriminators.get(vertexId);
+    }
+
+    /**
+     * Caches the discriminators of a vertex until the end of the current
+     * transaction. Outside of a transaction nothing is cached, because there
+     * is no point in time to invalidate the cache.
+     * 
+     * @param vertexId
+     *            is the id of the vertex.
+     * @param vertexDiscriminators
+     *            is an unmodifiable {@link Set} of the discriminators.
+     */
+    void cacheDiscriminators(Object vertexId, Set<String> vertexDiscriminators) {
+	if (active) {
+	    discriminators.put(vertexId, vertexDiscriminators);
+	}
+    }
+
+    /**
+     * Removes the cached discriminators of a vertex.
+     * 
+     * @param vertexId
+     *            is the id of the vertex.
+     */
+    void invalidateDiscriminators(Object vertexId) {
+	discriminators.remove(vertexId);
+    }
+
+    /**
+     * Removes all cached property values and discriminators. This method is
+     * called when the Titan transaction is changed without the session, like
+     * by Gremlin scripts or by the direct use of the Titan transaction, so
+     * that the changes are read from the elements again.
+     */
+    void invalidateCaches() {
+	propertyValues.clear();
+	discriminators.clear();
+    }
+
+    /**
+     * Reads a property of a vertex or an edge. The value is read from the
+     * element only once within a transaction, afterwards it is taken from the
+     * cache until {@link #invalidateCaches()} is called.
+     * 
+     * @param element
+     *            is the vertex or edge.
+     * @param name
+     *            is the name of the property.
+     * @return The value is returned or <code>null</code> if the property is
+     *         not set.
+     */
+    Object readProperty(Element element, String name) {
+	Map<String, Object> values = propertyValues.get(element.getId());
+	if ((values != null) && (values.containsKey(name))) {
+	    return values.get(name);
+	}
+	Object value = bind(element).getProperty(name);
+	cacheProperty(element, name, value);
+	return value;
+    }
+
+    /**
+     * Caches the value of a property of a vertex or an edge until the end of
+     * the current transaction. This method is called after each change of a
+     * property. Outside of a transaction nothing is cached.
+     * 
+     * @param element
+     *            is the vertex or edge.
+     * @param name
+     *            is the name of the property.
+     * @param value
+     *            is the new value or <code>null</code> if the property was
+     *            removed.
+     */
+    void cacheProperty(Element element, String name, Object value) {
+	if (!active) {
+	    return;
+	}
+	Object elementId = element.getId();
+	Map<String, Object> values = propertyValues.get(elementId);
+	if (values == null) {
+	    values = new HashMap<>();
+	    propertyValues.put(elementId, values);
+	}
+	values.put(name, value);
+    }
+
+    /**
+     * Removes the cached property values and the pending property changes of
+     * a vertex or an edge.
+     * 
+     * @param element
+     *            is the vertex or edge.
+     */
+    void invalidateProperties(Element element) {
+	propertyValues.remove(element.getId());
+	pendingProperties.remove(element);
+    }
+
+    /**
+     * Removes the cached property values and the pending property changes of
+     * the edges of a vertex. Titan removes the edges together with the
+     * vertex, so that their pending changes cannot be written anymore. This
+     * method needs to be called before the vertex is removed. Only the edges
+     * with pending changes are checked and the edges of the vertex are not
+     * read.
+     * 
+     * @param vertex
+     *            is the vertex to be removed.
+     */
+    void invalidateIncidentEdges(Vertex vertex) {
+	Object vertexId = vertex.getId();
+	Iterator<Element> elements = pendingProperties.keySet().iterator();
+	while (elements.hasNext()) {
+	    Element element = elements.next();
+	    if (element instanceof Edge) {
+		Edge edge = bind((Edge) element);
+		if (vertexId.equals(edge.getVertex(Direction.OUT).getId())
+			|| vertexId.equals(edge.getVertex(Direction.IN).getId())) {
+		    propertyValues.remove(element.getId());
+		    elements.remove();
+		}
+	    }
+	}
+    }
+
+    /**
+     * Sets or removes a property of a vertex or an edge. In write-behind mode
+     * within a transaction the change is only kept as pending change and in
+     * the cache.
+     * 
+     * @param element
+     *            is the vertex or edge.
+     * @param name
+     *            is the name of the property.
+     * @param value
+     *            is the new value or <code>null</code> to remove the
+     *            property.
+     */
+    void writeProperty(Element element, String name, Object value) {
+	checkWritable();
+	if (writeBehind && active) {
+	    Map<String, Object> pending = pendingProperties.get(element);
+	    if (pending == null) {
+		pending = new LinkedHashMap<>();
+		pendingProperties.put(element, pending);
+	    }
+	    pending.put(name, value);
+	    cacheProperty(element, name, value);
+	} else {
+	    applyProperty(element, name, value);
+	}
+    }
+
+    /**
+     * Writes the pending property changes of a vertex or an edge.
+     * 
+     * @param element
+     *            is the vertex or edge to be flushed.
+     */
+    void flush(Element element) {
+	Map<String, Object> pending = pendingProperties.remove(element);
+	if (pending != null) {
+	    for (Entry<String, Object> property : pending.entrySet()) {
+		applyProperty(element, property.getKey(), property.getValue());
+	    }
+	}
+    }
+
+    /**
+     * Writes the pending property changes of all vertices and edges. This is
+     * done before queries, so that they see the changes.
+     */
+    void flush() {
+	while (!pendingProperties.isEmpty()) {
+	    flush(pendingProperties.keySet().iterator().next());
+	}
+    }
+
+    private void applyProperty(final Element element, final String name,
+	    final Object value) {
+	setProperty(bind(element), name, value);
+	record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		setProperty(bind(element), name, value);
+	    }
+	});
+	cacheProperty(element, name, value);
+	registerMutation();
+    }
+
+    private static void setProperty(Element element, String name, Object value) {
+	if (value == null) {
+	    element.removeProperty(name);
+	} else {
+	    element.setProperty(name, value);
+	}
+    }
 }
@@ -0,0 +1,65 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.VertexQuery;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+/**
+ * This class is the vertex of an entity as it is handed out to XO. The
+ * vertices and edges read from it belong to the current Titan transaction of
+ * the session.
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+class TitanStoreVertex extends TitanStoreElement<Vertex> implements Vertex {
+
+    TitanStoreVertex(TitanStoreTransaction transaction, Vertex vertex,
+	    TitanTransaction titanTransaction) {
+	super(transaction, vertex, titanTransaction);
+    }
+
+    @Override
+    Vertex lookup(TitanTransaction titanTransaction, Object id) {
+	return titanTransaction.getVertex(id);
+    }
+
+    @Override
+    public Iterable<Edge> getEdges(Direction direction, String... labels) {
+	return getElement().getEdges(direction, labels);
+    }
+
+    @Override
+    public Iterable<Vertex> getVertices(Direction direction, String... labels) {
+	return getElement().getVertices(direction, labels);
+    }
+
+    @Override
+    public VertexQuery query() {
+	return getElement().query();
+    }
+
+    @Override
+    public Edge addEdge(final String label, final Vertex inVertex) {
+	final TitanStoreTransaction transaction = getTransaction();
+	transaction.checkWritable();
+	final Edge edge = transaction.wrap(getElement().addEdge(label,
+		transaction.bind(inVertex)));
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		transaction.rebind(edge,
+			getElement().addEdge(label, transaction.bind(inVertex)));
+	    }
+	});
+	return edge;
+    }
+
+    @Override
+    public String toString() {
+	return StringFactory.vertexString(this);
+    }
+
+}
@@ -1,8 +1,9 @@
 package com.puresoltechnologies.xo.titan.impl;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import com.buschmais.xo.api.ResultIterator;
@@ -12,9 +13,9 @@ import com.buschmais.xo.spi.datastore.TypeMetadataSet;
 import com.buschmais.xo.spi.metadata.method.IndexedPropertyMethodMetadata;
 import com.buschmais.xo.spi.metadata.method.PrimitivePropertyMethodMetadata;
 import com.buschmais.xo.spi.metadata.type.EntityTypeMetadata;
+import com.puresoltechnologies.xo.titan.api.Condition;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanPropertyMetadata;
 import com.puresoltechnologies.xo.titan.impl.metadata.TitanVertexMetadata;
-import com.thinkaurelius.titan.core.TitanGraph;
 import com.thinkaurelius.titan.core.TitanGraphQuery;
 import com.tinkerpop.blueprints.Vertex;
 
@@ -27,35 +28,42 @@ public class TitanStoreVertexManager
 	implements
 	DatastoreEntityManager<Object, Vertex, TitanVertexMetadata, String, TitanPropertyMetadata> {
 
-    private final TitanGraph titanGraph;
+    private final TitanStoreTransaction transaction;
+    private final DiscriminatorLayout discriminatorLayout;
 
-    TitanStoreVertexManager(TitanGraph titanGraph) {
-	this.titanGraph = titanGraph;
+    TitanStoreVertexManager(TitanStoreTransaction transaction,
+	    DiscriminatorLayout discriminatorLayout) {
+	this.transaction = transaction;
+	this.discriminatorLayout = discriminatorLayout;
     }
 
     @Override
     public void setProperty(Vertex vertex,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata,
 	    Object value) {
-	vertex.setProperty(metadata.getDatastoreMetadata().getName(), value);
+	transaction.writeProperty(vertex, metadata.getDatastoreMetadata()
+		.getName(), value);
     }
 
     @Override
     public boolean hasProperty(Vertex vertex,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata) {
-	return vertex.getProperty(metadata.getDatastoreMetadata().getName()) != null;
+	return transaction.readProperty(vertex,
+		metadata.getDatastoreMetadata().getName()) != null;
     }
 
     @Override
     public void removeProperty(Vertex vertex,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata) {
-	vertex.removeProperty(metadata.getDatastoreMetadata().getName());
+	transaction.writeProperty(vertex, metadata.getDatastoreMetadata()
+		.getName(), null);
     }
 
     @Override
     public Object getProperty(Vertex vertex,
 	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> metadata) {
-	return vertex.getProperty(metadata.getDatastoreMetadata().getName());
+	return transaction.readProperty(vertex, metadata.getDatastoreMetadata()
+		.getName());
     }
 
     @Override
@@ -65,17 +73,20 @@ public class TitanStoreVertexManager
 
     @Override
     public Set<String> getEntityDiscriminators(Vertex vertex) {
-	Set<String> discriminators = new HashSet<>();
-	for (String key : vertex.getPropertyKeys()) {
-	    if (key.startsWith(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY)) {
-		String discriminator = vertex.getProperty(key);
-		discriminators.add(discriminator);
-	    }
+	Object vertexId = vertex.getId();
+	Set<String> discriminators = transaction
+		.getCachedDiscriminators(vertexId);
+	if (discriminators != null) {
+	    return discriminators;
 	}
+	discriminators = discriminatorLayout.getDiscriminators(transaction
+		.bind(vertex));
 	if (discriminators.size() == 0) {
 	    throw new XOException(
 		    "A vertex was found without discriminators. Does another framework alter the database?");
 	}
+	discriminators = Collections.unmodifiableSet(discriminators);
+	transaction.cacheDiscriminators(vertexId, discriminators);
 	return discriminators;
     }
 
@@ -87,19 +98,42 @@ public class TitanStoreVertexManager
     @Override
     public Vertex createEntity(
 	    TypeMetadataSet<EntityTypeMetadata<TitanVertexMetadata>> types,
-	    Set<String> discriminators,
+	    final Set<String> discriminators,
 	    Map<PrimitivePropertyMethodMetadata<TitanPropertyMetadata>, Object> exampleEntity) {
-	Vertex vertex = titanGraph.addVertex(null);
+	transaction.checkWritable();
+	final Vertex vertex = transaction.wrap(addVertex(discriminators));
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		transaction.rebind(vertex, addVertex(discriminators));
+	    }
+	});
+	transaction.registerMutation();
+	return vertex;
+    }
+
+    private Vertex addVertex(Set<String> discriminators) {
+	Vertex vertex = transaction.getTitanTransaction().addVertex(null);
 	for (String discriminator : discriminators) {
-	    vertex.setProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
-		    + discriminator, discriminator);
+	    discriminatorLayout.addDiscriminator(vertex, discriminator);
 	}
 	return vertex;
     }
 
     @Override
-    public void deleteEntity(Vertex vertex) {
-	vertex.remove();
+    public void deleteEntity(final Vertex vertex) {
+	transaction.checkWritable();
+	transaction.invalidateProperties(vertex);
+	transaction.invalidateIncidentEdges(vertex);
+	transaction.invalidateDiscriminators(vertex.getId());
+	transaction.bind(vertex).remove();
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		transaction.bind(vertex).remove();
+	    }
+	});
+	transaction.registerMutation();
     }
 
     @Override
@@ -107,28 +141,30 @@ public class TitanStoreVertexManager
 	    EntityTypeMetadata<TitanVertexMetadata> type,
 	    String discriminator,
 	    Map<PrimitivePropertyMethodMetadata<TitanPropertyMetadata>, Object> values) {
-	if (values.size() > 1) {
-	    throw new XOException(
-		    "Only one property value is supported for find operation");
-	}
-	TitanGraphQuery<?> query = titanGraph.query();
-	query = query.has(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
-		+ discriminator);
-
-	IndexedPropertyMethodMetadata<?> indexedProperty = type
-		.getDatastoreMetadata().getIndexedProperty();
-	if (indexedProperty == null) {
-	    indexedProperty = type.getIndexedProperty();
-	}
-	if (indexedProperty == null) {
-	    throw new XOException("Type "
+	if (values.isEmpty()) {
+	    throw new XOException("No property values were given to find "
 		    + type.getAnnotatedType().getAnnotatedElement().getName()
-		    + " has no indexed property.");
+		    + ".");
 	}
-	PrimitivePropertyMethodMetadata<TitanPropertyMetadata> propertyMethodMetadata = indexedProperty
-		.getPropertyMethodMetadata();
-	String name = propertyMethodMetadata.getDatastoreMetadata().getName();
-	query = query.has(name, values.values().iterator().next());
+	transaction.flush();
+	TitanGraphQuery<?> query = transaction.getTitanTransaction().query();
+	for (Entry<PrimitivePropertyMethodMetadata<TitanPropertyMetadata>, Object> entry : values
+		.entrySet()) {
+	    PrimitivePropertyMethodMetadata<TitanPropertyMetadata> propertyMethodMetadata = entry
+		    .getKey();
+	    if (propertyMethodMetadata == null) {
+		propertyMethodMetadata = getIndexedProperty(type);
+	    }
+	    String name = propertyMethodMetadata.getDatastoreMetadata().getName();
+	    Object value = entry.getValue();
+	    if (value instanceof Condition) {
+		query = ((Condition) value).applyTo(query, name);
+	    } else {
+		query = query.has(name, value);
+	    }
+	}
+	query = query.has(discriminatorLayout.getPropertyKey(discriminator),
+		discriminator);
 	Iterable<Vertex> vertices = query.vertices();
 	final Iterator<Vertex> iterator = vertices.iterator();
 
@@ -141,7 +177,7 @@ public class TitanStoreVertexManager
 
 	    @Override
 	    public Vertex next() {
-		return iterator.next();
+		return transaction.wrap(iterator.next());
 	    }
 
 	    @Override
@@ -156,37 +192,71 @@ public class TitanStoreVertexManager
 	};
     }
 
+    /**
+     * Returns the indexed property of a type. A type may use the indexed
+     * property of another type, which is kept in the datastore metadata.
+     */
+    private PrimitivePropertyMethodMetadata<TitanPropertyMetadata> getIndexedProperty(
+	    EntityTypeMetadata<TitanVertexMetadata> type) {
+	IndexedPropertyMethodMetadata<?> indexedProperty = type
+		.getDatastoreMetadata().getIndexedProperty();
+	if (indexedProperty == null) {
+	    indexedProperty = type.getIndexedProperty();
+	}
+	if (indexedProperty == null) {
+	    throw new XOException("Type "
+		    + type.getAnnotatedType().getAnnotatedElement().getName()
+		    + " has no indexed property.");
+	}
+	return indexedProperty.getPropertyMethodMetadata();
+    }
+
     @Override
     public Vertex findEntityById(
 	    EntityTypeMetadata<TitanVertexMetadata> metadata,
 	    String discriminator, Object id) {
-	return titanGraph.getVertex(id);
+	return transaction.wrap(transaction.getTitanTransaction()
+		.getVertex(id));
     }
 
     @Override
     public void migrateEntity(
-	    Vertex vertex,
+	    final Vertex vertex,
 	    TypeMetadataSet<EntityTypeMetadata<TitanVertexMetadata>> types,
-	    Set<String> discriminators,
+	    final Set<String> discriminators,
 	    TypeMetadataSet<EntityTypeMetadata<TitanVertexMetadata>> targetTypes,
-	    Set<String> targetDiscriminators) {
+	    final Set<String> targetDiscriminators) {
+	transaction.checkWritable();
+	transaction.invalidateDiscriminators(vertex.getId());
+	migrateDiscriminators(vertex, discriminators, targetDiscriminators);
+	transaction.record(new RecordedMutation() {
+	    @Override
+	    public void replay() {
+		migrateDiscriminators(vertex, discriminators,
+			targetDiscriminators);
+	    }
+	});
+	transaction.registerMutation();
+    }
+
+    private void migrateDiscriminators(Vertex vertex,
+	    Set<String> discriminators, Set<String> targetDiscriminators) {
+	vertex = transaction.bind(vertex);
 	for (String discriminator : discriminators) {
 	    if (!targetDiscriminators.contains(discriminator)) {
-		vertex.removeProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
-			+ discriminator);
+		discriminatorLayout.removeDiscriminator(vertex, discriminator);
 	    }
 	}
 	for (String discriminator : targetDiscriminators) {
 	    if (!discriminators.contains(discriminator)) {
-		vertex.setProperty(TitanStoreSession.XO_DISCRIMINATORS_PROPERTY
-			+ discriminator, discriminator);
+		discriminatorLayout.addDiscriminator(vertex, discriminator);
 	    }
 	}
     }
 
     @Override
     public void flushEntity(Vertex vertex) {
-	// intentionally left empty
+	transaction.flush(vertex);
     }
 
 }
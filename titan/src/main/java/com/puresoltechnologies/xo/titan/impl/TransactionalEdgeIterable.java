@@ -0,0 +1,82 @@
+package com.puresoltechnologies.xo.titan.impl;
+
+import java.util.Iterator;
+
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.tinkerpop.blueprints.Edge;
+
+/**
+ * This class contains the edges of a collection property as they are handed
+ * out to XO. XO may iterate over the edges within several transactions, for
+ * example with the transaction attribute
+ * {@link com.buschmais.xo.api.Transaction.TransactionAttribute#REQUIRES},
+ * where each step of the iteration runs in its own transaction. The iterator
+ * of a Titan query cannot be used anymore after its transaction was closed,
+ * so the query is executed again in the current Titan transaction and the
+ * edges which were already handed out are skipped.
+ * 
+ * @author Rick-Rainer Ludwig
+ */
+abstract class TransactionalEdgeIterable implements Iterable<Edge> {
+
+    private final TitanStoreTransaction transaction;
+
+    /**
+     * This is the initial value constructor.
+     * 
+     * @param transaction
+     *            is the {@link TitanStoreTransaction} of the session.
+     */
+    TransactionalEdgeIterable(TitanStoreTransaction transaction) {
+	this.transaction = transaction;
+    }
+
+    /**
+     * Executes the query for the edges in the current Titan transaction.
+     * 
+     * @return An {@link Iterable} of the edges is returned.
+     */
+    abstract Iterable<Edge> query();
+
+    @Override
+    public Iterator<Edge> iterator() {
+	return new Iterator<Edge>() {
+
+	    private Iterator<Edge> iterator = null;
+	    private TitanTransaction titanTransaction = null;
+	    private int position = 0;
+
+	    @Override
+	    public boolean hasNext() {
+		return getIterator().hasNext();
+	    }
+
+	    @Override
+	    public Edge next() {
+		Edge edge = getIterator().next();
+		position++;
+		return transaction.wrap(edge);
+	    }
+
+	    @Override
+	    public void remove() {
+		throw new UnsupportedOperationException(
+			"Edges cannot be removed here.");
+	    }
+
+	    private Iterator<Edge> getIterator() {
+		TitanTransaction currentTransaction = transaction
+			.getTitanTransaction();
+		if (currentTransaction != titanTransaction) {
+		    iterator = query().iterator();
+		    titanTransaction = currentTransaction;
+		    for (int i = 0; (i < position) && (iterator.hasNext()); i++) {
+			iterator.next();
+		    }
+		}
+		return iterator;
+	    }
+	};
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.puresoltechnologies.xo.titan.impl.metadata;
+
+import java.util.List;
+
+import com.tinkerpop.blueprints.Element;
+
+public class TitanCompositeIndexMetadata {
+
+	private final String name;
+	private final boolean unique;
+	private final Class<? extends Element> type;
+	private final List<TitanIndexedPropertyMetadata> properties;
+
+	public TitanCompositeIndexMetadata(String name, boolean unique,
+			Class<? extends Element> type,
+			List<TitanIndexedPropertyMetadata> properties) {
+		this.name = name;
+		this.unique = unique;
+		this.type = type;
+		this.properties = properties;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isUnique() {
+		return unique;
+	}
+
+	public Class<? extends Element> getType() {
+		return type;
+	}
+
+	public List<TitanIndexedPropertyMetadata> getProperties() {
+		return properties;
+	}
+
+}
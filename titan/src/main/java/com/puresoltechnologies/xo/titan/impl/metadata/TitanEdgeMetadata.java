@@ -1,17 +1,40 @@
 package com.puresoltechnologies.xo.titan.impl.metadata;
 
+import java.util.Collection;
+
 import com.buschmais.xo.spi.datastore.DatastoreRelationMetadata;
 
 public class TitanEdgeMetadata implements DatastoreRelationMetadata<String> {
 
 	private final String label;
+	private final Collection<TitanCompositeIndexMetadata> compositeIndexes;
+	private final Collection<TitanMixedIndexMetadata> mixedIndexes;
+	private final TitanVertexCentricIndexMetadata vertexCentricIndex;
 
-	public TitanEdgeMetadata(String label) {
+	public TitanEdgeMetadata(String label,
+			Collection<TitanCompositeIndexMetadata> compositeIndexes,
+			Collection<TitanMixedIndexMetadata> mixedIndexes,
+			TitanVertexCentricIndexMetadata vertexCentricIndex) {
 		this.label = label;
+		this.compositeIndexes = compositeIndexes;
+		this.mixedIndexes = mixedIndexes;
+		this.vertexCentricIndex = vertexCentricIndex;
 	}
 
 	@Override
 	public String getDiscriminator() {
 		return label;
 	}
+
+	public Collection<TitanCompositeIndexMetadata> getCompositeIndexes() {
+		return compositeIndexes;
+	}
+
+	public Collection<TitanMixedIndexMetadata> getMixedIndexes() {
+		return mixedIndexes;
+	}
+
+	public TitanVertexCentricIndexMetadata getVertexCentricIndex() {
+		return vertexCentricIndex;
+	}
 }
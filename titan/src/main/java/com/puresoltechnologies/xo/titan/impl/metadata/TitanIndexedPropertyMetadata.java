@@ -8,13 +8,23 @@ public class TitanIndexedPropertyMetadata {
 	private final boolean unique;
 	private final Class<? extends Element> type;
 	private final Class<?> dataType;
+	private final String group;
+	private final int order;
 
 	public TitanIndexedPropertyMetadata(String name, boolean unique,
 			Class<?> dataType, Class<? extends Element> type) {
+		this(name, unique, dataType, type, "", 0);
+	}
+
+	public TitanIndexedPropertyMetadata(String name, boolean unique,
+			Class<?> dataType, Class<? extends Element> type, String group,
+			int order) {
 		this.name = name;
 		this.unique = unique;
 		this.dataType = dataType;
 		this.type = type;
+		this.group = group;
+		this.order = order;
 	}
 
 	public String getName() {
@@ -33,4 +43,16 @@ public class TitanIndexedPropertyMetadata {
 		return dataType;
 	}
 
+	public String getGroup() {
+		return group;
+	}
+
+	public boolean isGrouped() {
+		return !group.isEmpty();
+	}
+
+	public int getOrder() {
+		return order;
+	}
+
 }
@@ -0,0 +1,32 @@
+package com.puresoltechnologies.xo.titan.impl.metadata;
+
+import java.util.List;
+
+import com.tinkerpop.blueprints.Element;
+
+public class TitanMixedIndexMetadata {
+
+	private final String name;
+	private final Class<? extends Element> type;
+	private final List<TitanMixedIndexedPropertyMetadata> properties;
+
+	public TitanMixedIndexMetadata(String name, Class<? extends Element> type,
+			List<TitanMixedIndexedPropertyMetadata> properties) {
+		this.name = name;
+		this.type = type;
+		this.properties = properties;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<? extends Element> getType() {
+		return type;
+	}
+
+	public List<TitanMixedIndexedPropertyMetadata> getProperties() {
+		return properties;
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.puresoltechnologies.xo.titan.impl.metadata;
+
+import com.thinkaurelius.titan.core.schema.Mapping;
+
+public class TitanMixedIndexedPropertyMetadata {
+
+	private final String name;
+	private final Class<?> dataType;
+	private final Mapping mapping;
+
+	public TitanMixedIndexedPropertyMetadata(String name, Class<?> dataType,
+			Mapping mapping) {
+		this.name = name;
+		this.dataType = dataType;
+		this.mapping = mapping;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<?> getDataType() {
+		return dataType;
+	}
+
+	public Mapping getMapping() {
+		return mapping;
+	}
+
+}
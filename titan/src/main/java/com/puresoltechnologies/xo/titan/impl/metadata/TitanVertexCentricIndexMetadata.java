@@ -0,0 +1,39 @@
+package com.puresoltechnologies.xo.titan.impl.metadata;
+
+import java.util.Map;
+
+import com.thinkaurelius.titan.core.Order;
+import com.tinkerpop.blueprints.Direction;
+
+public class TitanVertexCentricIndexMetadata {
+
+	private final String name;
+	private final Direction direction;
+	private final Order order;
+	private final Map<String, Class<?>> sortKeys;
+
+	public TitanVertexCentricIndexMetadata(String name, Direction direction,
+			Order order, Map<String, Class<?>> sortKeys) {
+		this.name = name;
+		this.direction = direction;
+		this.order = order;
+		this.sortKeys = sortKeys;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	public Order getOrder() {
+		return order;
+	}
+
+	public Map<String, Class<?>> getSortKeys() {
+		return sortKeys;
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.puresoltechnologies.xo.titan.impl.metadata;
 
+import java.util.Collection;
+
 import com.buschmais.xo.spi.datastore.DatastoreEntityMetadata;
 import com.buschmais.xo.spi.metadata.method.IndexedPropertyMethodMetadata;
 
@@ -7,12 +9,18 @@ public class TitanVertexMetadata implements DatastoreEntityMetadata<String> {
 
 	private final String discriminator;
 	private final IndexedPropertyMethodMetadata<?> indexedProperty;
+	private final Collection<TitanCompositeIndexMetadata> compositeIndexes;
+	private final Collection<TitanMixedIndexMetadata> mixedIndexes;
 
 	public TitanVertexMetadata(String discriminator,
-			IndexedPropertyMethodMetadata<?> indexedProperty) {
+			IndexedPropertyMethodMetadata<?> indexedProperty,
+			Collection<TitanCompositeIndexMetadata> compositeIndexes,
+			Collection<TitanMixedIndexMetadata> mixedIndexes) {
 		super();
 		this.discriminator = discriminator;
 		this.indexedProperty = indexedProperty;
+		this.compositeIndexes = compositeIndexes;
+		this.mixedIndexes = mixedIndexes;
 	}
 
 	@Override
@@ -24,4 +32,12 @@ public class TitanVertexMetadata implements DatastoreEntityMetadata<String> {
 		return indexedProperty;
 	}
 
+	public Collection<TitanCompositeIndexMetadata> getCompositeIndexes() {
+		return compositeIndexes;
+	}
+
+	public Collection<TitanMixedIndexMetadata> getMixedIndexes() {
+		return mixedIndexes;
+	}
+
 }